@@ -0,0 +1,55 @@
+#!/usr/bin/env bash
+# Нагрузочный прогон на локальном стенде: Postgres из docker-compose.yml, данные DataGenerator,
+# сервер и шлюз из собранных jar, затем LoadTest. Отчет — load-report.json в текущем каталоге.
+# Объемы и параметры задаются переменными окружения, аргументы скрипта передаются LoadTest:
+#   BOOKINGS=10000000 ./benchmarks/load-test.sh --rate=1000 --duration=PT5M
+# Чтобы мерить сервер, а не ограничители шлюза: GATEWAY_ARGS="--shareit-gateway.rate-limit.enabled=false
+#   --shareit-gateway.rate-limit.concurrency.enabled=false"
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+USERS=${USERS:-100000}
+ITEMS=${ITEMS:-200000}
+REQUESTS=${REQUESTS:-50000}
+BOOKINGS=${BOOKINGS:-1000000}
+SEED=${SEED:-42}
+DB_URL=${DB_URL:-jdbc:postgresql://localhost:6541/shareit}
+SERVER_ARGS=${SERVER_ARGS:-}
+GATEWAY_ARGS=${GATEWAY_ARGS:-}
+LOGS=benchmarks/target/load-test
+SKEW="--users=$USERS --items=$ITEMS --seed=$SEED"
+
+mvn -B -q package -DskipTests
+mkdir -p "$LOGS"
+
+docker compose up -d --wait db
+java -cp benchmarks/target/benchmarks.jar ru.practicum.shareit.datagen.DataGenerator \
+    --url="$DB_URL" --username=shareit --password=shareit --truncate=true \
+    $SKEW --requests="$REQUESTS" --bookings="$BOOKINGS"
+
+pids=()
+trap 'kill "${pids[@]}" 2>/dev/null || true' EXIT
+
+wait_healthy() {
+    for _ in $(seq 120); do
+        if curl -sf "$1/actuator/health" > /dev/null; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "Не дождались $1, журналы в $LOGS" >&2
+    exit 1
+}
+
+SPRING_DATASOURCE_URL="$DB_URL" java -jar server/target/shareit-server-*-exec.jar $SERVER_ARGS \
+    > "$LOGS/server.log" 2>&1 &
+pids+=($!)
+wait_healthy http://localhost:9090
+
+java -jar gateway/target/shareit-gateway-*-exec.jar $GATEWAY_ARGS > "$LOGS/gateway.log" 2>&1 &
+pids+=($!)
+wait_healthy http://localhost:8080
+
+java -cp benchmarks/target/benchmarks.jar ru.practicum.shareit.load.LoadTest \
+    --url=http://localhost:8080 $SKEW "$@"
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapperImpl;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.item.Comment;
+import ru.practicum.shareit.item.CommentMapperImpl;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemMapperImpl;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.RequestMapperImpl;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserMapperImpl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Контекст с мапперами MapStruct в том же виде, что и в сервере, и тестовые данные заданного размера.
+ * Данные не зависят от времени запуска, чтобы результаты разных прогонов можно было сравнивать.
+ */
+final class BenchmarkData {
+    static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 12, 0, 0);
+
+    private BenchmarkData() {
+    }
+
+    static AnnotationConfigApplicationContext mappers() {
+        return new AnnotationConfigApplicationContext(UserMapperImpl.class, ItemMapperImpl.class,
+                CommentMapperImpl.class, BookingMapperImpl.class, RequestMapperImpl.class);
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (long i = 1; i <= count; i++) {
+            users.add(User.builder()
+                    .id(i)
+                    .name("Пользователь " + i)
+                    .email("user" + i + "@ya.ru")
+                    .build());
+        }
+        return users;
+    }
+
+    static List<Item> items(int count, List<User> owners) {
+        List<Item> items = new ArrayList<>(count);
+        for (long i = 1; i <= count; i++) {
+            items.add(Item.builder()
+                    .id(i)
+                    .name("Дрель " + i)
+                    .description("Ударная дрель с аккумулятором и набором сверл, вещь номер " + i)
+                    .available(i % 5 != 0)
+                    .owner(owners.get((int) (i % owners.size())))
+                    .build());
+        }
+        return items;
+    }
+
+    static List<Booking> bookings(int count, List<Item> items, List<User> bookers) {
+        List<Booking> bookings = new ArrayList<>(count);
+        BookingStatus[] statuses = BookingStatus.values();
+        for (long i = 1; i <= count; i++) {
+            LocalDateTime start = START.plusHours(i * 3);
+            bookings.add(Booking.builder()
+                    .id(i)
+                    .start(start)
+                    .end(start.plusHours(2))
+                    .item(items.get((int) (i % items.size())))
+                    .booker(bookers.get((int) ((i * 7) % bookers.size())))
+                    .status(statuses[(int) (i % statuses.length)])
+                    .build());
+        }
+        return bookings;
+    }
+
+    static List<Comment> comments(int count, Item item, List<User> authors) {
+        List<Comment> comments = new ArrayList<>(count);
+        for (long i = 1; i <= count; i++) {
+            comments.add(Comment.builder()
+                    .id(i)
+                    .text("Отличная вещь, брал на выходные, все работает. Отзыв " + i)
+                    .author(authors.get((int) (i % authors.size())))
+                    .item(item)
+                    .createdAt(START.minusMinutes(i))
+                    .build());
+        }
+        return comments;
+    }
+
+    static ItemRequest request(User requester) {
+        return ItemRequest.builder()
+                .id(1L)
+                .requester(requester)
+                .description("Нужна дрель на выходные")
+                .created(START)
+                .build();
+    }
+}
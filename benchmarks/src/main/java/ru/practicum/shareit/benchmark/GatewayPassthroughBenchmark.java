@@ -0,0 +1,205 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Путь ответа со списком броней через {@link BaseClient} шлюза: от чтения тела ответа сервера
+ * до записи тела ответа клиенту. Сеть заменена заготовленным ответом, поэтому разница между режимами —
+ * это разбор JSON в Jackson и повторная сериализация, которых нет при передаче байтов как есть.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayPassthroughBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private BenchmarkClient parsingClient;
+    private BenchmarkClient passthroughClient;
+    private MappingJackson2HttpMessageConverter jsonConverter;
+    private ByteArrayHttpMessageConverter byteArrayConverter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        byte[] payload;
+        try (AnnotationConfigApplicationContext context = BenchmarkData.mappers()) {
+            BookingMapper bookingMapper = context.getBean(BookingMapper.class);
+            List<User> users = BenchmarkData.users(Math.max(10, size / 10));
+            List<Item> items = BenchmarkData.items(size, users);
+            payload = objectMapper.writeValueAsBytes(
+                    bookingMapper.mapListBookingResponseDto(BenchmarkData.bookings(size, items, users)));
+        }
+
+        RestTemplate rest = new RestTemplate(new CannedResponseFactory(payload));
+        parsingClient = new BenchmarkClient(rest, false);
+        passthroughClient = new BenchmarkClient(rest, true);
+        jsonConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+        byteArrayConverter = new ByteArrayHttpMessageConverter();
+    }
+
+    @Benchmark
+    public long parseAndSerialize() throws IOException {
+        ResponseEntity<Object> response = parsingClient.getBookings();
+        CountingOutputMessage output = new CountingOutputMessage();
+        jsonConverter.write(response.getBody(), MediaType.APPLICATION_JSON, output);
+        return output.written;
+    }
+
+    @Benchmark
+    public long passthrough() throws IOException {
+        ResponseEntity<Object> response = passthroughClient.getBookings();
+        CountingOutputMessage output = new CountingOutputMessage();
+        byteArrayConverter.write((byte[]) response.getBody(), response.getHeaders().getContentType(), output);
+        return output.written;
+    }
+
+    static final class BenchmarkClient extends BaseClient {
+
+        BenchmarkClient(RestTemplate rest, boolean passthrough) {
+            super(rest, passthrough);
+        }
+
+        ResponseEntity<Object> getBookings() {
+            return get("http://server/bookings", 1L);
+        }
+    }
+
+    /**
+     * Фабрика запросов, которая на любой запрос отвечает одним и тем же JSON.
+     */
+    private record CannedResponseFactory(byte[] payload) implements ClientHttpRequestFactory {
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+            return new AbstractClientHttpRequest() {
+                @Override
+                public HttpMethod getMethod() {
+                    return httpMethod;
+                }
+
+                @Override
+                public URI getURI() {
+                    return uri;
+                }
+
+                @Override
+                protected OutputStream getBodyInternal(HttpHeaders headers) {
+                    return OutputStream.nullOutputStream();
+                }
+
+                @Override
+                protected ClientHttpResponse executeInternal(HttpHeaders headers) {
+                    return new CannedResponse(payload);
+                }
+            };
+        }
+    }
+
+    private static final class CannedResponse implements ClientHttpResponse {
+        private final HttpHeaders headers = new HttpHeaders();
+        private final InputStream body;
+
+        CannedResponse(byte[] payload) {
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setContentLength(payload.length);
+            body = new ByteArrayInputStream(payload);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatus.OK;
+        }
+
+        @Override
+        public String getStatusText() {
+            return HttpStatus.OK.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Тело ответа клиенту, которое только считает записанные байты.
+     */
+    private static final class CountingOutputMessage implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+        private long written;
+
+        @Override
+        public OutputStream getBody() {
+            return new OutputStream() {
+                @Override
+                public void write(int b) {
+                    written++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    written += len;
+                }
+            };
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
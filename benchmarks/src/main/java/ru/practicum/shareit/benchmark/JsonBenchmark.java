@@ -0,0 +1,84 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.item.CommentMapper;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+import ru.practicum.shareit.user.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация ответов со списками броней и вещей тем же Jackson, что и в сервере
+ * (настройки Jackson2ObjectMapperBuilder совпадают с настройками Spring Boot по умолчанию).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<BookingResponseDto> bookings;
+    private List<ItemWithCommentDto> items;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        try (AnnotationConfigApplicationContext context = BenchmarkData.mappers()) {
+            BookingMapper bookingMapper = context.getBean(BookingMapper.class);
+            ItemMapper itemMapper = context.getBean(ItemMapper.class);
+            CommentMapper commentMapper = context.getBean(CommentMapper.class);
+
+            List<User> users = BenchmarkData.users(Math.max(10, size / 10));
+            List<Item> itemEntities = BenchmarkData.items(size, users);
+            List<Booking> bookingEntities = BenchmarkData.bookings(size, itemEntities, users);
+            bookings = bookingMapper.mapListBookingResponseDto(bookingEntities);
+
+            List<CommentDto> comments = commentMapper.mapListCommentDto(
+                    BenchmarkData.comments(3, itemEntities.get(0), users));
+            BookingDto lastBooking = bookingMapper.mapBookingDto(bookingEntities.get(0));
+            BookingDto nextBooking = bookingMapper.mapBookingDto(bookingEntities.get(bookingEntities.size() - 1));
+            items = itemEntities.stream()
+                    .map(item -> itemMapper.toItemWithCommentDto(item, comments, nextBooking, lastBooking))
+                    .toList();
+        }
+    }
+
+    @Benchmark
+    public byte[] writeBookingResponseDtoList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+
+    @Benchmark
+    public byte[] writeItemWithCommentDtoList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(items);
+    }
+}
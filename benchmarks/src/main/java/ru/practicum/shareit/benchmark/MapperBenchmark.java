@@ -0,0 +1,119 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.item.Comment;
+import ru.practicum.shareit.item.CommentMapper;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+import ru.practicum.shareit.item.dto.ShortItemDto;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.RequestMapper;
+import ru.practicum.shareit.request.dto.FullRequestDto;
+import ru.practicum.shareit.user.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Мапперы, которые вызываются на каждый ответ со списком.
+ * size — число элементов в списке.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private AnnotationConfigApplicationContext context;
+    private BookingMapper bookingMapper;
+    private ItemMapper itemMapper;
+    private CommentMapper commentMapper;
+    private RequestMapper requestMapper;
+
+    private List<Booking> bookings;
+    private List<Item> items;
+    private List<Comment> comments;
+    private List<CommentDto> commentDtos;
+    private BookingDto lastBooking;
+    private BookingDto nextBooking;
+    private ItemRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.mappers();
+        bookingMapper = context.getBean(BookingMapper.class);
+        itemMapper = context.getBean(ItemMapper.class);
+        commentMapper = context.getBean(CommentMapper.class);
+        requestMapper = context.getBean(RequestMapper.class);
+
+        List<User> users = BenchmarkData.users(Math.max(10, size / 10));
+        items = BenchmarkData.items(size, users);
+        bookings = BenchmarkData.bookings(size, items, users);
+        comments = BenchmarkData.comments(size, items.get(0), users);
+        commentDtos = commentMapper.mapListCommentDto(BenchmarkData.comments(3, items.get(0), users));
+        lastBooking = bookingMapper.mapBookingDto(bookings.get(0));
+        nextBooking = bookingMapper.mapBookingDto(bookings.get(bookings.size() - 1));
+        request = BenchmarkData.request(users.get(0));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> mapListBookingResponseDto() {
+        return bookingMapper.mapListBookingResponseDto(bookings);
+    }
+
+    /**
+     * Сборка карточек для GET /items: по одной на вещь, у каждой три комментария и обе брони.
+     */
+    @Benchmark
+    public List<ItemWithCommentDto> toItemWithCommentDto() {
+        List<ItemWithCommentDto> result = new ArrayList<>(items.size());
+        for (Item item : items) {
+            result.add(itemMapper.toItemWithCommentDto(item, commentDtos, nextBooking, lastBooking));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<CommentDto> mapListCommentDto() {
+        return commentMapper.mapListCommentDto(comments);
+    }
+
+    /**
+     * Ответ на запрос с size вещами-откликами. Сам {@code mapFullRequestDto} только прикладывает готовый список,
+     * поэтому в замер входит и сборка {@link ShortItemDto} по вещам.
+     */
+    @Benchmark
+    public FullRequestDto mapFullRequestDto() {
+        return requestMapper.mapFullRequestDto(request, itemMapper.toShortItemDtoList(items));
+    }
+}
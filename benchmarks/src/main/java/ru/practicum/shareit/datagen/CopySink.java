@@ -0,0 +1,40 @@
+package ru.practicum.shareit.datagen;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.SQLException;
+
+/**
+ * Куда генератор пишет строки таблиц в текстовом формате COPY (поля через табуляцию, {@code \N} — NULL).
+ * Одновременно могут быть открыты несколько таблиц.
+ */
+interface CopySink {
+
+    /**
+     * Ссылки вещей на последнюю и следующую подтвержденные брони (как в миграции V6 сервера): генератор
+     * их не пишет, а без них карточки вещей будут без броней, пока их не найдет сверка сервера.
+     * Ссылки считаются на {@code --now} генератора, а не на время загрузки, иначе они разойдутся со статусами броней.
+     * Вместо {@code %s} подставляется параметр с этим временем: {@code ?} для JDBC или переменная psql.
+     */
+    String BOOKING_POINTERS_UPDATE = """
+            UPDATE items i SET
+                last_booking_id = (SELECT b.id FROM bookings b
+                                   WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.end_time < p.now
+                                   ORDER BY b.end_time DESC, b.id LIMIT 1),
+                next_booking_id = (SELECT b.id FROM bookings b
+                                   WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_time >= p.now
+                                   ORDER BY b.start_time, b.id LIMIT 1),
+                bookings_refresh_at = LEAST(
+                    (SELECT MIN(b.start_time) FROM bookings b
+                     WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_time >= p.now),
+                    (SELECT MIN(b.end_time) FROM bookings b
+                     WHERE b.item_id = i.id AND b.status = 'APPROVED'
+                       AND b.start_time < p.now AND b.end_time >= p.now))
+            FROM (SELECT CAST(%s AS timestamp) AS now) p""";
+
+    void prepare() throws IOException, SQLException;
+
+    Writer open(String table, String columns) throws IOException, SQLException;
+
+    void finish() throws IOException, SQLException;
+}
@@ -0,0 +1,266 @@
+package ru.practicum.shareit.datagen;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Генератор большого набора данных для нагрузочных прогонов: пользователи, запросы, вещи, брони и комментарии
+ * с перекосом, как в живом сервисе. Число вещей у владельца и число броней у вещи подчиняются закону Ципфа —
+ * немного владельцев с тысячами вещей и немного «горячих» вещей с длинной историей броней; бронирующие тоже
+ * распределены неравномерно. Брони одной вещи не пересекаются по времени и покрывают прошлое и ближайшее будущее
+ * относительно {@code --now}, поэтому на данных работают все ветки списков броней (PAST, CURRENT, FUTURE, WAITING...).
+ * Комментарии оставляют бронирующие после завершенной подтвержденной брони.
+ * <p>
+ * Одинаковые {@code --seed} и {@code --now} дают одинаковые данные. Строки пишутся потоком через COPY
+ * ({@link PostgresCopySink}) или в файлы для psql ({@code --out}).
+ * <p>
+ * Запуск (схема создается миграциями сервера):
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar ru.practicum.shareit.datagen.DataGenerator \
+ *     --url=jdbc:postgresql://localhost:5432/shareit --username=shareit --password=shareit --truncate=true \
+ *     --users=1000000 --items=2000000 --requests=500000 --bookings=10000000 --seed=42
+ * </pre>
+ */
+public final class DataGenerator {
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final long DAY = 24 * 60 * 60;
+    private static final String NULL = "\\N";
+
+    private static final String[] NAMES = {"Иван", "Мария", "Алексей", "Ольга", "Дмитрий", "Анна", "Сергей",
+            "Елена", "Павел", "Наталья", "Андрей", "Татьяна", "Михаил", "Ирина", "Николай", "Светлана"};
+    private static final String[] THINGS = {"Дрель", "Перфоратор", "Шуруповерт", "Болгарка", "Лобзик", "Стремянка",
+            "Палатка", "Спальник", "Рюкзак", "Велосипед", "Самокат", "Сноуборд", "Байдарка", "Мангал", "Генератор",
+            "Компрессор", "Проектор", "Фотоаппарат", "Гитара", "Синтезатор", "Удочка", "Коляска", "Пылесос",
+            "Мойка высокого давления"};
+    private static final String[] BRANDS = {"Bosch", "Makita", "Metabo", "DeWalt", "Canon", "Sony", "Nikon",
+            "Stels", "Forward", "Tramp", "Nova Tour", "Huter", "Yamaha", "Xiaomi", "Karcher", "Philips"};
+    private static final String[] CONDITIONS = {"в отличном состоянии", "почти новый", "с кейсом и насадками",
+            "б/у, работает исправно", "есть следы использования", "полный комплект"};
+    private static final String[] REVIEWS = {"Все отлично, спасибо!", "Вещь в хорошем состоянии",
+            "Владелец быстро отвечает", "Немного потерт, но работает", "Рекомендую", "Пригодилось на даче"};
+
+    private final Settings settings;
+    private final SplittableRandom usersRandom;
+    private final SplittableRandom requestsRandom;
+    private final SplittableRandom itemsRandom;
+    private final SplittableRandom bookingsRandom;
+
+    private DataGenerator(Settings settings) {
+        this.settings = settings;
+        SplittableRandom root = new SplittableRandom(settings.seed());
+        this.usersRandom = root.split();
+        this.requestsRandom = root.split();
+        this.itemsRandom = root.split();
+        this.bookingsRandom = root.split();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        Settings settings = new Settings(
+                Integer.parseInt(options.getOrDefault("users", "100000")),
+                Integer.parseInt(options.getOrDefault("items", "200000")),
+                Integer.parseInt(options.getOrDefault("requests", "50000")),
+                Long.parseLong(options.getOrDefault("bookings", "1000000")),
+                Double.parseDouble(options.getOrDefault("comment-ratio", "0.1")),
+                Double.parseDouble(options.getOrDefault("request-ratio", "0.1")),
+                Double.parseDouble(options.getOrDefault("owner-skew", "1.1")),
+                Double.parseDouble(options.getOrDefault("item-skew", "1.0")),
+                Double.parseDouble(options.getOrDefault("booker-skew", "0.8")),
+                Integer.parseInt(options.getOrDefault("history-days", "1095")),
+                Integer.parseInt(options.getOrDefault("future-days", "90")),
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                options.containsKey("now")
+                        ? LocalDateTime.parse(options.get("now"))
+                        : LocalDate.now().atStartOfDay());
+
+        CopySink sink = options.containsKey("out")
+                ? new FileCopySink(Path.of(options.get("out")), settings.now())
+                : new PostgresCopySink(options.getOrDefault("url", "jdbc:postgresql://localhost:5432/shareit"),
+                options.getOrDefault("username", "shareit"), options.getOrDefault("password", "shareit"),
+                Boolean.parseBoolean(options.getOrDefault("truncate", "false")), settings.now());
+
+        long started = System.nanoTime();
+        sink.prepare();
+        try {
+            new DataGenerator(settings).generate(sink);
+        } finally {
+            sink.finish();
+        }
+        System.out.printf("Готово за %.1f с%n", (System.nanoTime() - started) / 1e9);
+    }
+
+    private void generate(CopySink sink) throws IOException, SQLException {
+        timed("users", settings.users(), () -> writeUsers(sink));
+        timed("requests", settings.requests(), () -> writeRequests(sink));
+        int[] itemOwners = new int[settings.items() + 1];
+        timed("items", settings.items(), () -> writeItems(sink, itemOwners));
+        timed("bookings, comments", settings.bookings(), () -> writeBookings(sink, itemOwners));
+    }
+
+    private void writeUsers(CopySink sink) throws IOException, SQLException {
+        try (Writer out = sink.open("users", "id, name, email")) {
+            for (int id = 1; id <= settings.users(); id++) {
+                String name = NAMES[usersRandom.nextInt(NAMES.length)];
+                row(out, id, name + " " + id, "user" + id + "@shareit.test");
+            }
+        }
+    }
+
+    private void writeRequests(CopySink sink) throws IOException, SQLException {
+        long historySeconds = settings.historyDays() * DAY;
+        try (Writer out = sink.open("requests", "id, user_id, description, created")) {
+            for (int id = 1; id <= settings.requests(); id++) {
+                int requester = 1 + requestsRandom.nextInt(settings.users());
+                String description = "Ищу " + THINGS[requestsRandom.nextInt(THINGS.length)].toLowerCase()
+                        + " на несколько дней";
+                row(out, id, requester, description,
+                        timestamp(settings.nowSeconds() - requestsRandom.nextLong(historySeconds)));
+            }
+        }
+    }
+
+    /**
+     * Владелец вещи выбирается по закону Ципфа, поэтому у немногих пользователей оказывается большая часть вещей.
+     */
+    private void writeItems(CopySink sink, int[] itemOwners) throws IOException, SQLException {
+        SkewedIds owners = SkewedIds.owners(settings.users(), settings.ownerSkew());
+        try (Writer out = sink.open("items", "id, user_id, name, description, available, request_id")) {
+            for (int id = 1; id <= settings.items(); id++) {
+                int owner = owners.next(itemsRandom);
+                itemOwners[id] = owner;
+                String thing = THINGS[itemsRandom.nextInt(THINGS.length)];
+                String brand = BRANDS[itemsRandom.nextInt(BRANDS.length)];
+                String description = thing + " " + brand + " " + CONDITIONS[itemsRandom.nextInt(CONDITIONS.length)];
+                boolean available = itemsRandom.nextDouble() < 0.9;
+                String request = settings.requests() > 0 && itemsRandom.nextDouble() < settings.requestRatio()
+                        ? String.valueOf(1 + itemsRandom.nextInt(settings.requests()))
+                        : NULL;
+                row(out, id, owner, thing + " " + brand, description, available, request);
+            }
+        }
+    }
+
+    /**
+     * Сначала распределяет брони по вещам (Ципф: «горячие» вещи получают длинную историю), затем для каждой вещи
+     * режет отрезок [now - history-days, now + future-days] на равные ячейки по числу ее броней; бронь занимает
+     * середину своей ячейки, так что брони одной вещи не пересекаются при любом их числе.
+     */
+    private void writeBookings(CopySink sink, int[] itemOwners) throws IOException, SQLException {
+        int items = settings.items();
+        int[] counts = new int[items + 1];
+        SkewedIds hotItems = SkewedIds.items(items, settings.itemSkew());
+        for (long i = 0; i < settings.bookings(); i++) {
+            counts[hotItems.next(bookingsRandom)]++;
+        }
+
+        SkewedIds bookers = SkewedIds.bookers(settings.users(), settings.bookerSkew());
+        long now = settings.nowSeconds();
+        long until = now + settings.futureDays() * DAY;
+        long span = (settings.historyDays() + settings.futureDays()) * DAY;
+        long bookingId = 0;
+        long commentId = 0;
+        try (Writer bookings = sink.open("bookings", "id, start_time, end_time, booker, item_id, status");
+             Writer comments = sink.open("comments", "id, text, user_id, item_id, created")) {
+            for (int item = 1; item <= items; item++) {
+                int count = counts[item];
+                if (count == 0) {
+                    continue;
+                }
+                long slot = Math.max(2, span / count);
+                long from = until - slot * count;
+                for (int k = 0; k < count; k++) {
+                    long slotStart = from + slot * k;
+                    long start = slotStart + bookingsRandom.nextLong(slot / 4 + 1);
+                    long end = slotStart + slot - bookingsRandom.nextLong(slot / 4 + 1);
+                    int booker = bookers.next(bookingsRandom);
+                    if (booker == itemOwners[item]) {
+                        booker = booker % settings.users() + 1;
+                    }
+                    String status = status(start, end, now);
+                    row(bookings, ++bookingId, timestamp(start), timestamp(end), booker, item, status);
+
+                    if (end <= now && "APPROVED".equals(status)
+                            && bookingsRandom.nextDouble() < settings.commentRatio()) {
+                        long created = Math.min(now, end + bookingsRandom.nextLong(3 * DAY));
+                        row(comments, ++commentId, REVIEWS[bookingsRandom.nextInt(REVIEWS.length)], booker, item,
+                                timestamp(created));
+                    }
+                }
+            }
+        }
+        System.out.printf("comments: %d%n", commentId);
+    }
+
+    private String status(long start, long end, long now) {
+        double r = bookingsRandom.nextDouble();
+        if (end <= now) {
+            return r < 0.85 ? "APPROVED" : r < 0.93 ? "REJECTED" : "CANCELED";
+        }
+        if (start <= now) {
+            return "APPROVED";
+        }
+        return r < 0.3 ? "WAITING" : r < 0.9 ? "APPROVED" : r < 0.95 ? "REJECTED" : "CANCELED";
+    }
+
+    private static String timestamp(long epochSecond) {
+        return TIMESTAMP.format(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+    }
+
+    private static void row(Writer out, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write('\t');
+            }
+            out.write(String.valueOf(values[i]));
+        }
+        out.write('\n');
+    }
+
+    private static void timed(String table, long rows, Step step) throws IOException, SQLException {
+        long started = System.nanoTime();
+        step.run();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%s: %d строк за %.1f с (%.0f строк/с)%n", table, rows, seconds, rows / seconds);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Ожидается параметр вида --name=value: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private interface Step {
+        void run() throws IOException, SQLException;
+    }
+
+    /**
+     * @param commentRatio доля завершенных подтвержденных броней, после которых оставлен комментарий
+     * @param requestRatio доля вещей, добавленных в ответ на запрос
+     * @param ownerSkew    показатель Ципфа для числа вещей у владельца
+     * @param itemSkew     показатель Ципфа для числа броней у вещи
+     * @param bookerSkew   показатель Ципфа для числа броней у бронирующего
+     */
+    private record Settings(int users, int items, int requests, long bookings, double commentRatio,
+                            double requestRatio, double ownerSkew, double itemSkew, double bookerSkew,
+                            int historyDays, int futureDays, long seed, LocalDateTime now) {
+
+        long nowSeconds() {
+            return now.toEpochSecond(ZoneOffset.UTC);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.datagen;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Файлы {@code <таблица>.tsv} и сценарий {@code load.sql} для загрузки их через psql ({@code \copy})
+ * с последующим заполнением ссылок вещей на брони.
+ */
+final class FileCopySink implements CopySink {
+    private final Path directory;
+    private final LocalDateTime now;
+    private final List<String> copyCommands = new ArrayList<>();
+
+    FileCopySink(Path directory, LocalDateTime now) {
+        this.directory = directory;
+        this.now = now;
+    }
+
+    @Override
+    public void prepare() throws IOException {
+        Files.createDirectories(directory);
+    }
+
+    @Override
+    public Writer open(String table, String columns) throws IOException {
+        copyCommands.add("\\copy " + table + " (" + columns + ") FROM '" + table + ".tsv'");
+        return Files.newBufferedWriter(directory.resolve(table + ".tsv"), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        List<String> script = new ArrayList<>(copyCommands);
+        script.add("\\set now '" + now + "'");
+        script.add(BOOKING_POINTERS_UPDATE.formatted(":'now'") + ";");
+        Files.write(directory.resolve("load.sql"), script, StandardCharsets.UTF_8);
+    }
+}
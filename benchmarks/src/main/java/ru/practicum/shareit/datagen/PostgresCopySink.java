@@ -0,0 +1,180 @@
+package ru.practicum.shareit.datagen;
+
+import org.flywaydb.core.Flyway;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Загрузка в PostgreSQL через {@code COPY ... FROM STDIN}. Перед загрузкой схема доводится миграциями сервера,
+ * а вторичные индексы и ограничения (внешние ключи, уникальность, запрет пересечения броней) снимаются:
+ * построить их один раз по готовым данным намного быстрее, чем обновлять на каждой строке.
+ * После загрузки они создаются заново, у вещей заполняются ссылки на брони (до внешних ключей, чтобы не проверять
+ * их на каждой строке), последовательности идентификаторов сдвигаются за максимальный id
+ * и собирается статистика планировщика.
+ */
+final class PostgresCopySink implements CopySink {
+    private static final List<String> TABLES = List.of("users", "requests", "items", "bookings", "comments");
+    private static final int COPY_BUFFER_SIZE = 1 << 20;
+
+    private static final String SECONDARY_INDEXES = """
+            SELECT i.relname, pg_get_indexdef(i.oid)
+            FROM pg_index x
+                     JOIN pg_class i ON i.oid = x.indexrelid
+            WHERE x.indrelid = ?::regclass
+              AND NOT EXISTS (SELECT 1 FROM pg_constraint c WHERE c.conindid = x.indexrelid)""";
+
+    private static final String DROPPABLE_CONSTRAINTS = """
+            SELECT conname, pg_get_constraintdef(oid), contype
+            FROM pg_constraint
+            WHERE conrelid = ?::regclass
+              AND contype IN ('f', 'u', 'x')""";
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final boolean truncate;
+    private final LocalDateTime now;
+
+    private final List<String> restoreIndexes = new ArrayList<>();
+    private final List<String> restoreForeignKeys = new ArrayList<>();
+    private final List<Connection> copyConnections = new ArrayList<>();
+
+    PostgresCopySink(String url, String username, String password, boolean truncate, LocalDateTime now) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.truncate = truncate;
+        this.now = now;
+    }
+
+    @Override
+    public void prepare() throws SQLException {
+        Flyway.configure()
+                .dataSource(url, username, password)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            if (truncate) {
+                statement.execute("TRUNCATE " + String.join(", ", TABLES) + " RESTART IDENTITY");
+            } else {
+                for (String table : TABLES) {
+                    try (ResultSet rs = statement.executeQuery("SELECT EXISTS (SELECT 1 FROM " + table + ")")) {
+                        rs.next();
+                        if (rs.getBoolean(1)) {
+                            throw new IllegalStateException("Таблица " + table
+                                    + " не пуста; чтобы очистить базу перед загрузкой, передайте --truncate=true");
+                        }
+                    }
+                }
+            }
+            for (String table : TABLES) {
+                dropSecondaryIndexes(connection, table);
+                dropConstraints(connection, table);
+            }
+        }
+    }
+
+    @Override
+    public Writer open(String table, String columns) throws SQLException {
+        Connection connection = connect();
+        copyConnections.add(connection);
+        PGCopyOutputStream out = new PGCopyOutputStream(connection.unwrap(PGConnection.class),
+                "COPY " + table + " (" + columns + ") FROM STDIN", COPY_BUFFER_SIZE);
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    @Override
+    public void finish() throws SQLException {
+        for (Connection connection : copyConnections) {
+            connection.close();
+        }
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            for (String ddl : restoreIndexes) {
+                execute(statement, ddl);
+            }
+            updateBookingPointers(connection);
+            for (String ddl : restoreForeignKeys) {
+                execute(statement, ddl);
+            }
+            for (String table : TABLES) {
+                statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), "
+                        + "(SELECT coalesce(max(id), 0) + 1 FROM " + table + "), false)");
+            }
+            statement.execute("ANALYZE " + String.join(", ", TABLES));
+        }
+    }
+
+    private static void execute(Statement statement, String sql) throws SQLException {
+        long started = System.nanoTime();
+        statement.execute(sql);
+        System.out.printf("%s — %.1f с%n", sql, (System.nanoTime() - started) / 1e9);
+    }
+
+    private void updateBookingPointers(Connection connection) throws SQLException {
+        long started = System.nanoTime();
+        try (PreparedStatement update = connection.prepareStatement(BOOKING_POINTERS_UPDATE.formatted("?"))) {
+            update.setObject(1, now);
+            update.executeUpdate();
+        }
+        System.out.printf("Ссылки вещей на брони на %s — %.1f с%n", now, (System.nanoTime() - started) / 1e9);
+    }
+
+    private void dropSecondaryIndexes(Connection connection, String table) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(SECONDARY_INDEXES)) {
+            query.setString(1, table);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                    restoreIndexes.add(rs.getString(2));
+                }
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String name : names) {
+                statement.execute("DROP INDEX " + name);
+            }
+        }
+    }
+
+    private void dropConstraints(Connection connection, String table) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(DROPPABLE_CONSTRAINTS)) {
+            query.setString(1, table);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    String ddl = "ALTER TABLE " + table + " ADD CONSTRAINT " + name + " " + rs.getString(2);
+                    names.add(name);
+                    ("f".equals(rs.getString(3)) ? restoreForeignKeys : restoreIndexes).add(ddl);
+                }
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String name : names) {
+                statement.execute("ALTER TABLE " + table + " DROP CONSTRAINT " + name);
+            }
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, username, password);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.datagen;
+
+import java.util.SplittableRandom;
+
+/**
+ * Идентификаторы от 1 до n с перекосом по закону Ципфа. Ранги переставляются, чтобы самыми «горячими»
+ * не оказывались первые id и перекосы разных таблиц не совпадали: {@code rank -> rank * stride mod n + 1},
+ * где шаг взаимно прост с n. Нагрузочный тест строит те же распределения, что и {@link DataGenerator},
+ * и поэтому чаще обращается к тем же владельцам, вещам и бронирующим, у которых больше всего данных.
+ */
+public final class SkewedIds {
+    private final ZipfSampler sampler;
+    private final int n;
+    private final long stride;
+
+    private SkewedIds(int n, double exponent, double strideFraction) {
+        this.sampler = new ZipfSampler(n, exponent);
+        this.n = n;
+        this.stride = stride(n, strideFraction);
+    }
+
+    /**
+     * Владельцы: вероятность пользователя пропорциональна числу его вещей.
+     */
+    public static SkewedIds owners(int users, double exponent) {
+        return new SkewedIds(users, exponent, 0.618);
+    }
+
+    /**
+     * Вещи: вероятность вещи пропорциональна числу ее броней.
+     */
+    public static SkewedIds items(int items, double exponent) {
+        return new SkewedIds(items, exponent, 0.382);
+    }
+
+    /**
+     * Бронирующие: вероятность пользователя пропорциональна числу его броней.
+     */
+    public static SkewedIds bookers(int users, double exponent) {
+        return new SkewedIds(users, exponent, 0.271);
+    }
+
+    public int next(SplittableRandom random) {
+        return (int) (sampler.sample(random) * stride % n) + 1;
+    }
+
+    private static long stride(int n, double fraction) {
+        long stride = Math.max(1, (long) (n * fraction));
+        while (gcd(stride, n) != 1) {
+            stride++;
+        }
+        return stride;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
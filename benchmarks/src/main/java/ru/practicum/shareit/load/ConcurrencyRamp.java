@@ -0,0 +1,163 @@
+package ru.practicum.shareit.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Нагрузочный прогон с растущим числом одновременных клиентов. На каждом уровне N виртуальных потоков
+ * в цикле отправляют один и тот же GET, пока не выйдет время уровня. Уровень, после которого пропускная
+ * способность перестает расти, а задержка растет вместе с N, — потолок одновременности приложения.
+ * <p>
+ * Запуск:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar ru.practicum.shareit.load.ConcurrencyRamp \
+ *     --url=http://localhost:8080/bookings --user-id=1 --levels=50,100,200,400,800 --duration=PT10S
+ * </pre>
+ */
+public final class ConcurrencyRamp {
+
+    private ConcurrencyRamp() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        URI uri = URI.create(options.getOrDefault("url", "http://localhost:8080/bookings"));
+        String userId = options.getOrDefault("user-id", "1");
+        int[] levels = Arrays.stream(options.getOrDefault("levels", "50,100,200,400,800").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim()))
+                .toArray();
+        Duration duration = Duration.parse(options.getOrDefault("duration", "PT10S"));
+
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("X-Sharer-User-Id", userId)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        try (ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .executor(clientExecutor)
+                     .connectTimeout(Duration.ofSeconds(5))
+                     .build()) {
+            System.out.printf("%s, %s на уровень%n", uri, duration);
+            System.out.printf("%8s %10s %10s %10s %10s %8s%n", "clients", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+            for (int level : levels) {
+                LevelResult result = runLevel(client, request, level, duration);
+                System.out.printf("%8d %10.1f %10.1f %10.1f %10.1f %8d%n", level, result.throughput(),
+                        result.percentileMillis(0.50), result.percentileMillis(0.99), result.percentileMillis(1.0),
+                        result.errors());
+            }
+        }
+    }
+
+    private static LevelResult runLevel(HttpClient client, HttpRequest request, int clients, Duration duration)
+            throws Exception {
+        long started = System.nanoTime();
+        long deadline = started + duration.toNanos();
+        List<Future<ClientResult>> futures = new ArrayList<>(clients);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> runClient(client, request, deadline)));
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        LatencyRecorder latencies = new LatencyRecorder();
+        long errors = 0;
+        for (Future<ClientResult> future : futures) {
+            ClientResult result = future.get();
+            latencies.addAll(result.latencies());
+            errors += result.errors();
+        }
+        return new LevelResult(latencies.sorted(), errors, seconds);
+    }
+
+    private static ClientResult runClient(HttpClient client, HttpRequest request, long deadline) {
+        LatencyRecorder latencies = new LatencyRecorder();
+        long errors = 0;
+        while (System.nanoTime() < deadline) {
+            long sent = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 500) {
+                    errors++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                errors++;
+            }
+            latencies.add(System.nanoTime() - sent);
+        }
+        return new ClientResult(latencies, errors);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Ожидается параметр вида --name=value: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private record ClientResult(LatencyRecorder latencies, long errors) {
+    }
+
+    private record LevelResult(long[] latencies, long errors, double seconds) {
+
+        double throughput() {
+            return latencies.length / seconds;
+        }
+
+        double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    /**
+     * Задержки одного клиента в наносекундах без упаковки в {@code Long}.
+     */
+    private static final class LatencyRecorder {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(LatencyRecorder other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        long[] sorted() {
+            long[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package ru.practicum.shareit.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.datagen.SkewedIds;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный тест полного пути шлюз → сервер → база со смесью запросов, как в живом трафике: карточки вещей,
+ * вещи владельца, списки броней по каждому {@link BookingState} (свои и по вещам владельца), поиск и всплески
+ * создания и подтверждения броней. Рассчитан на данные {@link ru.practicum.shareit.datagen.DataGenerator}
+ * с теми же {@code --users}, {@code --items} и показателями перекоса: «горячие» вещи и активные пользователи
+ * выбираются из тех же распределений.
+ * <p>
+ * Нагрузка открытая: запросы отправляются с постоянной частотой {@code --rate} независимо от того, успел ли
+ * ответить сервер, а задержка считается от запланированного момента отправки. Так очередь перед перегруженным
+ * сервером видна в перцентилях, а не прячется в снизившейся частоте запросов. Запросы сверх
+ * {@code --max-in-flight} не отправляются и учитываются как {@code dropped}.
+ * <p>
+ * Итог — p50/p95/p99/max, число ошибок (5xx и ошибки соединения) и статусы ответов по каждому сценарию —
+ * печатается таблицей и пишется в JSON ({@code --report}). Стенд целиком поднимает {@code benchmarks/load-test.sh}.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar ru.practicum.shareit.load.LoadTest \
+ *     --url=http://localhost:8080 --users=100000 --items=200000 --rate=500 --duration=PT60S --report=load-report.json
+ * </pre>
+ */
+public final class LoadTest {
+    private static final String DEFAULT_MIX =
+            "item:35,owner-items:10,bookings:20,owner-bookings:10,search:20,create-approve:5";
+    private static final String[] SEARCH_TEXTS = {"дрель", "перфоратор", "палатка", "велосипед", "проектор",
+            "гитара", "мангал", "самокат", "bosch", "makita", "canon", "xiaomi"};
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final URI baseUrl;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SkewedIds owners;
+    private final SkewedIds items;
+    private final SkewedIds bookers;
+    private final int burst;
+    private final int futureDays;
+    private final long seed;
+
+    private LoadTest(URI baseUrl, HttpClient client, Map<String, String> options) {
+        this.baseUrl = baseUrl;
+        this.client = client;
+        int users = Integer.parseInt(options.getOrDefault("users", "100000"));
+        this.owners = SkewedIds.owners(users, Double.parseDouble(options.getOrDefault("owner-skew", "1.1")));
+        this.items = SkewedIds.items(Integer.parseInt(options.getOrDefault("items", "200000")),
+                Double.parseDouble(options.getOrDefault("item-skew", "1.0")));
+        this.bookers = SkewedIds.bookers(users, Double.parseDouble(options.getOrDefault("booker-skew", "0.8")));
+        this.burst = Integer.parseInt(options.getOrDefault("burst", "5"));
+        this.futureDays = Integer.parseInt(options.getOrDefault("future-days", "90"));
+        this.seed = Long.parseLong(options.getOrDefault("seed", "1"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        URI baseUrl = URI.create(options.getOrDefault("url", "http://localhost:8080"));
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        Duration warmup = Duration.parse(options.getOrDefault("warmup", "PT10S"));
+        Duration duration = Duration.parse(options.getOrDefault("duration", "PT60S"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "2000"));
+        String mix = options.getOrDefault("mix", DEFAULT_MIX);
+        File report = new File(options.getOrDefault("report", "load-report.json"));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .executor(executor)
+                     .connectTimeout(Duration.ofSeconds(5))
+                     .build()) {
+            LoadTest test = new LoadTest(baseUrl, client, options);
+            List<Scenario> scenarios = test.scenarios(mix);
+            Semaphore inFlight = new Semaphore(maxInFlight);
+
+            System.out.printf("%s: %d запросов/с, прогрев %s, замер %s, смесь %s%n", baseUrl, rate, warmup, duration, mix);
+            test.run(executor, scenarios, rate, warmup, inFlight, new Results());
+            Results results = new Results();
+            long started = System.nanoTime();
+            test.run(executor, scenarios, rate, duration, inFlight, results);
+            inFlight.acquire(maxInFlight);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            Map<String, Object> config = new LinkedHashMap<>();
+            config.put("url", baseUrl.toString());
+            config.put("rate", rate);
+            config.put("warmup", warmup.toString());
+            config.put("duration", duration.toString());
+            config.put("mix", mix);
+            config.put("burst", test.burst);
+            config.put("maxInFlight", maxInFlight);
+            config.put("seed", test.seed);
+            Map<String, Object> summary = results.summary(config, seconds);
+            results.print(seconds);
+            test.objectMapper.writerWithDefaultPrettyPrinter().writeValue(report, summary);
+            System.out.println("Отчет: " + report.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Открытая нагрузка: сценарии запускаются по расписанию с шагом {@code 1 / rate}. Если поток расписания
+     * отстал (например, после паузы GC), пропущенные запуски выполняются сразу, но их задержка все равно
+     * отсчитывается от запланированного момента.
+     */
+    private void run(ExecutorService executor, List<Scenario> scenarios, int rate, Duration duration,
+                     Semaphore inFlight, Results results) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int totalWeight = scenarios.stream().mapToInt(Scenario::weight).sum();
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long next = System.nanoTime();
+        long deadline = next + duration.toNanos();
+        while (next < deadline) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Scenario scenario = pick(scenarios, random.nextInt(totalWeight));
+            SplittableRandom taskRandom = random.split();
+            long scheduled = next;
+            if (inFlight.tryAcquire()) {
+                executor.execute(() -> {
+                    try {
+                        scenario.action().run(taskRandom, scheduled, results);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } else {
+                results.dropped.increment();
+            }
+            next += interval;
+        }
+    }
+
+    private List<Scenario> scenarios(String mix) {
+        Map<String, Action> actions = Map.of(
+                "item", this::itemDetails,
+                "owner-items", this::ownerItems,
+                "bookings", this::bookerBookings,
+                "owner-bookings", this::ownerBookings,
+                "search", this::search,
+                "create-approve", this::createApproveBurst);
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            Action action = actions.get(parts[0]);
+            if (action == null || parts.length != 2) {
+                throw new IllegalArgumentException("Неизвестный сценарий в --mix: " + entry
+                        + ", доступны " + actions.keySet());
+            }
+            scenarios.add(new Scenario(parts[0], Integer.parseInt(parts[1]), action));
+        }
+        return scenarios;
+    }
+
+    private void itemDetails(SplittableRandom random, long scheduled, Results results) {
+        get(results, "item", scheduled, "/items/" + items.next(random), bookers.next(random));
+    }
+
+    private void ownerItems(SplittableRandom random, long scheduled, Results results) {
+        get(results, "owner-items", scheduled, "/items", owners.next(random));
+    }
+
+    private void bookerBookings(SplittableRandom random, long scheduled, Results results) {
+        BookingState state = BookingState.values()[random.nextInt(BookingState.values().length)];
+        get(results, "bookings:" + state, scheduled, "/bookings?state=" + state, bookers.next(random));
+    }
+
+    private void ownerBookings(SplittableRandom random, long scheduled, Results results) {
+        BookingState state = BookingState.values()[random.nextInt(BookingState.values().length)];
+        get(results, "owner-bookings:" + state, scheduled, "/bookings/owner?state=" + state, owners.next(random));
+    }
+
+    private void search(SplittableRandom random, long scheduled, Results results) {
+        String text = SEARCH_TEXTS[random.nextInt(SEARCH_TEXTS.length)];
+        get(results, "search", scheduled, "/items/search?text=" + URLEncoder.encode(text, StandardCharsets.UTF_8),
+                bookers.next(random));
+    }
+
+    /**
+     * Всплеск из {@code --burst} одновременных броней одной «горячей» вещи на один и тот же день после окончания
+     * сгенерированных броней: часть из них пересекается и получает 409. Каждую созданную бронь владелец
+     * подтверждает или отклоняет.
+     */
+    private void createApproveBurst(SplittableRandom random, long scheduled, Results results) {
+        int item = items.next(random);
+        LocalDateTime day = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS)
+                .plusDays(futureDays + 1 + random.nextInt(365));
+        List<SplittableRandom> randoms = new ArrayList<>(burst);
+        for (int i = 0; i < burst; i++) {
+            randoms.add(random.split());
+        }
+        try (ExecutorService flows = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (SplittableRandom flowRandom : randoms) {
+                flows.execute(() -> createApprove(flowRandom, scheduled, results, item, day));
+            }
+        }
+    }
+
+    private void createApprove(SplittableRandom random, long scheduled, Results results, int item,
+                               LocalDateTime day) {
+        LocalDateTime start = day.plusHours(random.nextInt(20));
+        String body = "{\"itemId\":" + item + ",\"start\":\"" + start + "\",\"end\":\""
+                + start.plusHours(1 + random.nextInt(4)) + "\"}";
+        HttpRequest create = request("/bookings", bookers.next(random))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<byte[]> created = send(results, "create-booking", scheduled, create,
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (created == null || created.statusCode() != 200) {
+            return;
+        }
+        JsonNode booking;
+        try {
+            booking = objectMapper.readTree(created.body());
+        } catch (Exception e) {
+            results.stats("create-booking").errors.increment();
+            return;
+        }
+        HttpRequest approve = request("/bookings/" + booking.path("id").asLong()
+                + "?approved=" + (random.nextDouble() < 0.8), booking.path("item").path("owner").asLong())
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build();
+        send(results, "approve-booking", System.nanoTime(), approve, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private void get(Results results, String name, long scheduled, String path, long userId) {
+        send(results, name, scheduled, request(path, userId).GET().build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private HttpRequest.Builder request(String path, long userId) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .header(USER_HEADER, String.valueOf(userId))
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    private <T> HttpResponse<T> send(Results results, String name, long scheduled, HttpRequest request,
+                                     HttpResponse.BodyHandler<T> handler) {
+        Stats stats = results.stats(name);
+        try {
+            HttpResponse<T> response = client.send(request, handler);
+            stats.record(System.nanoTime() - scheduled, response.statusCode());
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            stats.record(System.nanoTime() - scheduled, -1);
+        }
+        return null;
+    }
+
+    private static Scenario pick(List<Scenario> scenarios, int point) {
+        for (Scenario scenario : scenarios) {
+            point -= scenario.weight();
+            if (point < 0) {
+                return scenario;
+            }
+        }
+        throw new IllegalStateException("Сумма весов сценариев меньше " + point);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Ожидается параметр вида --name=value: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        void run(SplittableRandom random, long scheduled, Results results);
+    }
+
+    private record Scenario(String name, int weight, Action action) {
+    }
+
+    /**
+     * Итоги одной фазы (прогрева или замера) по сценариям.
+     */
+    private static final class Results {
+        private final ConcurrentMap<String, Stats> stats = new ConcurrentHashMap<>();
+        private final LongAdder dropped = new LongAdder();
+
+        Stats stats(String name) {
+            return stats.computeIfAbsent(name, n -> new Stats());
+        }
+
+        Map<String, Object> summary(Map<String, Object> config, double seconds) {
+            Map<String, Object> scenarios = new TreeMap<>();
+            Histogram total = new Histogram(3);
+            long totalErrors = 0;
+            for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+                Histogram histogram = entry.getValue().latencies.getIntervalHistogram();
+                entry.getValue().snapshot = histogram;
+                total.add(histogram);
+                totalErrors += entry.getValue().errors.sum();
+                scenarios.put(entry.getKey(), entry.getValue().summary(histogram, seconds));
+            }
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("config", config);
+            Map<String, Object> totals = latencySummary(total, seconds);
+            totals.put("errors", totalErrors);
+            totals.put("dropped", dropped.sum());
+            summary.put("total", totals);
+            summary.put("scenarios", scenarios);
+            return summary;
+        }
+
+        void print(double seconds) {
+            System.out.printf("%-24s %8s %9s %9s %9s %9s %9s %7s  %s%n",
+                    "scenario", "count", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors", "statuses");
+            new TreeMap<>(stats).forEach((name, s) -> System.out.printf(
+                    "%-24s %8d %9.1f %9.1f %9.1f %9.1f %9.1f %7d  %s%n", name, s.snapshot.getTotalCount(),
+                    s.snapshot.getTotalCount() / seconds, millis(s.snapshot, 50), millis(s.snapshot, 95),
+                    millis(s.snapshot, 99), s.snapshot.getMaxValue() / 1e6, s.errors.sum(), s.statusCounts()));
+            System.out.printf("dropped: %d%n", dropped.sum());
+        }
+    }
+
+    private static final class Stats {
+        private final Recorder latencies = new Recorder(3);
+        private final LongAdder errors = new LongAdder();
+        private final ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private Histogram snapshot;
+
+        /**
+         * @param status код ответа или -1, если ответа нет (таймаут, ошибка соединения)
+         */
+        void record(long latencyNanos, int status) {
+            latencies.recordValue(latencyNanos);
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+            if (status < 0 || status >= 500) {
+                errors.increment();
+            }
+        }
+
+        Map<String, Long> statusCounts() {
+            Map<String, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(String.valueOf(status), count.sum()));
+            return counts;
+        }
+
+        Map<String, Object> summary(Histogram histogram, double seconds) {
+            Map<String, Object> summary = latencySummary(histogram, seconds);
+            summary.put("errors", errors.sum());
+            summary.put("statuses", statusCounts());
+            return summary;
+        }
+    }
+
+    private static Map<String, Object> latencySummary(Histogram histogram, double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getTotalCount());
+        summary.put("throughput", histogram.getTotalCount() / seconds);
+        summary.put("p50Ms", millis(histogram, 50));
+        summary.put("p95Ms", millis(histogram, 95));
+        summary.put("p99Ms", millis(histogram, 99));
+        summary.put("maxMs", histogram.getMaxValue() / 1e6);
+        return summary;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingStatusBulkRequestDto;
+import ru.practicum.shareit.client.BaseClient;
+
+import java.time.LocalDateTime;
+
+/**
+ * Пути, параметры и проверки {@code /bookings}, общие для {@link BookingController} и
+ * {@link ReactiveBookingController}: реализации задают только тип ответа. Аннотации проверок объявляются здесь
+ * и не повторяются в реализациях.
+ *
+ * @param <R> ответ контроллера
+ */
+@RequestMapping(path = "/bookings")
+public interface BookingApi<R> {
+
+    @GetMapping
+    R getBookings(@RequestHeader("X-Sharer-User-Id") @Positive long userId,
+                  @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                  @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                  @RequestParam(name = "afterStart", required = false)
+                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStart,
+                  @Positive @RequestParam(name = "afterId", required = false) Long afterId);
+
+    @GetMapping("/owner")
+    R getBookingsByState(@RequestParam(name = "state", defaultValue = "all") String stateParam,
+                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                         @RequestParam(name = "afterStart", required = false)
+                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStart,
+                         @Positive @RequestParam(name = "afterId", required = false) Long afterId,
+                         @RequestHeader("X-Sharer-User-Id") @Positive Long userId);
+
+    @GetMapping("/{bookingId}")
+    R getBooking(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable Long bookingId);
+
+    @PostMapping
+    R createBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                    @RequestBody @Valid BookItemRequestDto requestDto,
+                    @RequestHeader(value = BaseClient.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey);
+
+    @PatchMapping("/{bookingId}")
+    R approveBooking(@PathVariable("bookingId") Long bookingId,
+                     @RequestParam("approved") Boolean approved,
+                     @RequestHeader("X-Sharer-User-Id") Long userId,
+                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch);
+
+    @PatchMapping("/bulk")
+    R changeBookingsStatus(@RequestParam("approved") Boolean approved,
+                           @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                           @RequestBody @Valid BookingStatusBulkRequestDto requestDto);
+
+    @PatchMapping("/{bookingId}/canceled")
+    R canceledBooking(@PathVariable("bookingId") Long bookingId,
+                      @RequestHeader("X-Sharer-User-Id") Long userId,
+                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch);
+
+    static BookingState state(String stateParam) {
+        return BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+    }
+}
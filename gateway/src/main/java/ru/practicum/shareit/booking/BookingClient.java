@@ -1,70 +1,74 @@
 package ru.practicum.shareit.booking;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingStatusBulkRequestDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.QueryTemplates;
+import ru.practicum.shareit.client.RequestCoalescer;
 
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ClientHttpRequestFactory requestFactory, RequestCoalescer coalescer,
+                         @Value("${shareit-server.passthrough:true}") boolean passthrough) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                passthrough,
+                coalescer
         );
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size,
+                                              LocalDateTime afterStart, Long afterId) {
+        Map<String, Object> parameters = BookingQueries.page(state, from, size, afterStart, afterId);
+        return get("?" + QueryTemplates.of(parameters), userId, parameters);
     }
 
-    @GetMapping("/owner")
-    public ResponseEntity<Object> getBookingsByState(BookingState state, Integer from, Integer size, Long userId) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getBookingsByState(BookingState state, Integer from, Integer size,
+                                                     LocalDateTime afterStart, Long afterId, Long userId) {
+        Map<String, Object> parameters = BookingQueries.page(state, from, size, afterStart, afterId);
+        return get("/owner?" + QueryTemplates.of(parameters), userId, parameters);
     }
 
-
-    public ResponseEntity<Object> bookItem(long userId, BookItemRequestDto requestDto) {
-        return post("", userId, requestDto);
+    public ResponseEntity<Object> bookItem(long userId, BookItemRequestDto requestDto, String idempotencyKey) {
+        return post("", userId, requestDto, idempotencyKey);
     }
 
     public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-     public ResponseEntity<Object> approveBooking(Long bookingId, Boolean approved, Long userId) {
-         Map<String, Object> parameters = Map.of(
-                 "approved", approved
-         );
-         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
-     }
+    public ResponseEntity<Object> approveBooking(Long bookingId, Boolean approved, Long userId, String ifMatch) {
+        return patch("/" + bookingId + "?approved={approved}", userId, BookingQueries.approved(approved), null,
+                ifMatch);
+    }
+
+    public ResponseEntity<Object> changeBookingsStatus(Boolean approved, Long userId,
+                                                       BookingStatusBulkRequestDto requestDto) {
+        return patch("/bulk?approved={approved}", userId, BookingQueries.approved(approved), requestDto);
+    }
 
-    public ResponseEntity<Object> canceledBooking(Long bookingId, Long userId) {
-        return patch("/" + bookingId + "/canceled", userId);
+    public ResponseEntity<Object> canceledBooking(Long bookingId, Long userId, String ifMatch) {
+        return patch("/" + bookingId + "/canceled", userId, null, null, ifMatch);
     }
 }
@@ -1,77 +1,70 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.web.bind.annotation.*;
 
-import jakarta.validation.Valid;
-import jakarta.validation.constraints.Positive;
-import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
-import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingStatusBulkRequestDto;
+
+import java.time.LocalDateTime;
 
 @Controller
-@RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
 @Slf4j
 @Validated
-public class BookingController {
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BookingController implements BookingApi<ResponseEntity<Object>> {
     private final BookingClient bookingClient;
 
-    @GetMapping
-    public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") @Positive long userId,
-                                              @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        BookingState state = BookingState.from(stateParam)
-                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+    @Override
+    public ResponseEntity<Object> getBookings(long userId, String stateParam, Integer from, Integer size,
+                                              LocalDateTime afterStart, Long afterId) {
+        log.info("Get booking with state {}, userId={}, from={}, size={}, afterStart={}, afterId={}",
+                stateParam, userId, from, size, afterStart, afterId);
+        return bookingClient.getBookings(userId, BookingApi.state(stateParam), from, size, afterStart, afterId);
     }
 
-    @GetMapping("/owner")
-    public ResponseEntity<Object> getBookingsByState(@RequestParam(name = "state", defaultValue = "all")
-                                                     String stateParam,
-                                                     @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                                     Integer from,
-                                                     @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                     Integer size,
-                                                     @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
-        BookingState state = BookingState.from(stateParam)
-                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking owner with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookingsByState(state, from, size, userId);
+    @Override
+    public ResponseEntity<Object> getBookingsByState(String stateParam, Integer from, Integer size,
+                                                     LocalDateTime afterStart, Long afterId, Long userId) {
+        log.info("Get booking owner with state {}, userId={}, from={}, size={}, afterStart={}, afterId={}",
+                stateParam, userId, from, size, afterStart, afterId);
+        return bookingClient.getBookingsByState(BookingApi.state(stateParam), from, size, afterStart, afterId,
+                userId);
     }
 
-    @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @PathVariable Long bookingId) {
+    @Override
+    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
-    @PostMapping
-    public ResponseEntity<Object> createBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                @RequestBody @Valid BookItemRequestDto requestDto) {
-        log.info("Creating booking {}, userId={}", requestDto, userId);
-        return bookingClient.bookItem(userId, requestDto);
+    @Override
+    public ResponseEntity<Object> createBooking(long userId, BookItemRequestDto requestDto, String idempotencyKey) {
+        log.info("Creating booking {}, userId={}, idempotencyKey={}", requestDto, userId, idempotencyKey);
+        return bookingClient.bookItem(userId, requestDto, idempotencyKey);
+    }
+
+    @Override
+    public ResponseEntity<Object> approveBooking(Long bookingId, Boolean approved, Long userId, String ifMatch) {
+        log.info("Update booking {}, userId={} on approve = {}, ifMatch={}", bookingId, userId, approved, ifMatch);
+        return bookingClient.approveBooking(bookingId, approved, userId, ifMatch);
     }
 
-    @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approveBooking(@PathVariable("bookingId") Long bookingId,
-                                                 @RequestParam("approved") Boolean approved,
-                                                 @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Update booking {}, userId={} on approve = {}", bookingId, userId, approved);
-        return bookingClient.approveBooking(bookingId, approved, userId);
+    @Override
+    public ResponseEntity<Object> changeBookingsStatus(Boolean approved, Long userId,
+                                                       BookingStatusBulkRequestDto requestDto) {
+        log.info("Update bookings {}, userId={} on approve = {}", requestDto.getBookingIds(), userId, approved);
+        return bookingClient.changeBookingsStatus(approved, userId, requestDto);
     }
 
-    @PatchMapping("/{bookingId}/canceled")
-    public ResponseEntity<Object> canceledBooking(@PathVariable("bookingId") Long bookingId,
-                                                  @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Cancel booking {}, userId={}", bookingId, userId);
-        return bookingClient.canceledBooking(bookingId, userId);
+    @Override
+    public ResponseEntity<Object> canceledBooking(Long bookingId, Long userId, String ifMatch) {
+        log.info("Cancel booking {}, userId={}, ifMatch={}", bookingId, userId, ifMatch);
+        return bookingClient.canceledBooking(bookingId, userId, ifMatch);
     }
 }
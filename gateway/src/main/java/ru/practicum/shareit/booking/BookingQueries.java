@@ -0,0 +1,36 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingState;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Параметры запросов к серверу, общие для {@link BookingClient} и {@link ReactiveBookingClient}.
+ */
+final class BookingQueries {
+
+    private BookingQueries() {
+    }
+
+    /**
+     * Страница списка броней; курсор передается, только если заданы обе его части.
+     */
+    static Map<String, Object> page(BookingState state, Integer from, Integer size,
+                                    LocalDateTime afterStart, Long afterId) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (afterStart != null && afterId != null) {
+            parameters.put("afterStart", afterStart);
+            parameters.put("afterId", afterId);
+        }
+        return parameters;
+    }
+
+    static Map<String, Object> approved(Boolean approved) {
+        return Map.of("approved", approved);
+    }
+}
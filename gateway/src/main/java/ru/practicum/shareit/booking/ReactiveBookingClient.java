@@ -0,0 +1,75 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingStatusBulkRequestDto;
+import ru.practicum.shareit.client.QueryTemplates;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookingClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/bookings";
+
+    @Autowired
+    public ReactiveBookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                                 ClientHttpConnector connector) {
+        super(
+                builder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(connector)
+                        .build()
+        );
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookings(long userId, BookingState state, Integer from,
+                                                              Integer size, LocalDateTime afterStart, Long afterId) {
+        Map<String, Object> parameters = BookingQueries.page(state, from, size, afterStart, afterId);
+        return get("?" + QueryTemplates.of(parameters), userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookingsByState(BookingState state, Integer from, Integer size,
+                                                                     LocalDateTime afterStart, Long afterId,
+                                                                     Long userId) {
+        Map<String, Object> parameters = BookingQueries.page(state, from, size, afterStart, afterId);
+        return get("/owner?" + QueryTemplates.of(parameters), userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> bookItem(long userId, BookItemRequestDto requestDto, String idempotencyKey) {
+        return post("", userId, requestDto, idempotencyKey);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBooking(long userId, Long bookingId) {
+        return get("/" + bookingId, userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> approveBooking(Long bookingId, Boolean approved, Long userId,
+                                                                 String ifMatch) {
+        return patch("/" + bookingId + "?approved={approved}", userId, BookingQueries.approved(approved), null,
+                ifMatch);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> changeBookingsStatus(Boolean approved, Long userId,
+                                                                       BookingStatusBulkRequestDto requestDto) {
+        return patch("/bulk?approved={approved}", userId, BookingQueries.approved(approved), requestDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> canceledBooking(Long bookingId, Long userId, String ifMatch) {
+        return patch("/" + bookingId + "/canceled", userId, null, null, ifMatch);
+    }
+}
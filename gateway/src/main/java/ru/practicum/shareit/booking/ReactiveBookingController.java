@@ -0,0 +1,80 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingStatusBulkRequestDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@link BookingController} для профиля {@code reactive}: те же пути и проверки из {@link BookingApi},
+ * ответ сервера передается потоком.
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookingController implements BookingApi<Mono<ResponseEntity<Flux<DataBuffer>>>> {
+    private final ReactiveBookingClient bookingClient;
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookings(long userId, String stateParam, Integer from,
+                                                              Integer size, LocalDateTime afterStart, Long afterId) {
+        log.info("Get booking with state {}, userId={}, from={}, size={}, afterStart={}, afterId={}",
+                stateParam, userId, from, size, afterStart, afterId);
+        return bookingClient.getBookings(userId, BookingApi.state(stateParam), from, size, afterStart, afterId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookingsByState(String stateParam, Integer from, Integer size,
+                                                                     LocalDateTime afterStart, Long afterId,
+                                                                     Long userId) {
+        log.info("Get booking owner with state {}, userId={}, from={}, size={}, afterStart={}, afterId={}",
+                stateParam, userId, from, size, afterStart, afterId);
+        return bookingClient.getBookingsByState(BookingApi.state(stateParam), from, size, afterStart, afterId,
+                userId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBooking(long userId, Long bookingId) {
+        log.info("Get booking {}, userId={}", bookingId, userId);
+        return bookingClient.getBooking(userId, bookingId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createBooking(long userId, BookItemRequestDto requestDto,
+                                                                String idempotencyKey) {
+        log.info("Creating booking {}, userId={}, idempotencyKey={}", requestDto, userId, idempotencyKey);
+        return bookingClient.bookItem(userId, requestDto, idempotencyKey);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> approveBooking(Long bookingId, Boolean approved, Long userId,
+                                                                 String ifMatch) {
+        log.info("Update booking {}, userId={} on approve = {}, ifMatch={}", bookingId, userId, approved, ifMatch);
+        return bookingClient.approveBooking(bookingId, approved, userId, ifMatch);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> changeBookingsStatus(Boolean approved, Long userId,
+                                                                       BookingStatusBulkRequestDto requestDto) {
+        log.info("Update bookings {}, userId={} on approve = {}", requestDto.getBookingIds(), userId, approved);
+        return bookingClient.changeBookingsStatus(approved, userId, requestDto);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> canceledBooking(Long bookingId, Long userId, String ifMatch) {
+        log.info("Cancel booking {}, userId={}, ifMatch={}", bookingId, userId, ifMatch);
+        return bookingClient.canceledBooking(bookingId, userId, ifMatch);
+    }
+}
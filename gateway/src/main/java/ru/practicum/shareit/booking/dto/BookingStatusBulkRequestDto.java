@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingStatusBulkRequestDto {
+	@NotEmpty
+	@Size(max = 100)
+	private List<@NotNull @Positive Long> bookingIds;
+}
@@ -1,11 +1,13 @@
 package ru.practicum.shareit.client;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
@@ -13,10 +15,42 @@ import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
 public class BaseClient {
+    /**
+     * Ключ идемпотентности клиента: сервер выполняет POST с одним ключом один раз, а повторам отдает
+     * сохраненный ответ, поэтому повтор после таймаута не создает вторую запись.
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /**
+     * Заголовки ответа сервера, которые шлюз отдает клиенту вместе с телом.
+     * Content-Length и Transfer-Encoding шлюз выставляет сам.
+     */
+    private static final List<String> PASSTHROUGH_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG,
+            HttpHeaders.LOCATION, HttpHeaders.CACHE_CONTROL, HttpHeaders.RETRY_AFTER, IDEMPOTENT_REPLAYED_HEADER);
+
     protected final RestTemplate rest;
+    private final boolean passthrough;
+    @Nullable
+    private final RequestCoalescer coalescer;
 
     public BaseClient(RestTemplate rest) {
+        this(rest, false);
+    }
+
+    public BaseClient(RestTemplate rest, boolean passthrough) {
+        this(rest, passthrough, null);
+    }
+
+    /**
+     * @param passthrough если {@code true}, тело ответа сервера отдается клиенту как есть, без разбора в Jackson
+     *                    и повторной сериализации
+     * @param coalescer   объединяет одинаковые одновременные GET-запросы; {@code null} — не объединять
+     */
+    public BaseClient(RestTemplate rest, boolean passthrough, @Nullable RequestCoalescer coalescer) {
         this.rest = rest;
+        this.passthrough = passthrough;
+        this.coalescer = coalescer;
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -28,7 +62,7 @@ public class BaseClient {
     }
 
     protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, null);
     }
 
     protected <T> ResponseEntity<Object> post(String path, T body) {
@@ -40,7 +74,15 @@ public class BaseClient {
     }
 
     protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body, null);
+    }
+
+    /**
+     * POST с ключом идемпотентности клиента; {@code null} — без ключа.
+     */
+    protected <T> ResponseEntity<Object> post(String path, long userId, T body, @Nullable String idempotencyKey) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, null, body,
+                header(IDEMPOTENCY_KEY_HEADER, idempotencyKey));
     }
 
     protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
@@ -48,7 +90,7 @@ public class BaseClient {
     }
 
     protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
+        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body, null);
     }
 
     protected <T> ResponseEntity<Object> patch(String path, T body) {
@@ -64,7 +106,17 @@ public class BaseClient {
     }
 
     protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body, null);
+    }
+
+    /**
+     * Условный PATCH: сервер изменит запись, только если ее ETag совпадает с {@code ifMatch};
+     * {@code null} — без условия.
+     */
+    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body,
+                                               @Nullable String ifMatch) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body,
+                header(HttpHeaders.IF_MATCH, ifMatch));
     }
 
     protected ResponseEntity<Object> delete(String path) {
@@ -76,32 +128,67 @@ public class BaseClient {
     }
 
     protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
+        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body,
+                                                          @Nullable HttpHeaders extraHeaders) {
+        if (coalescer != null && method == HttpMethod.GET) {
+            URI uri = parameters != null
+                    ? rest.getUriTemplateHandler().expand(path, parameters)
+                    : rest.getUriTemplateHandler().expand(path);
+            return coalescer.execute(uri, userId, () -> send(method, path, userId, parameters, body, null));
+        }
+        return send(method, path, userId, parameters, body, extraHeaders);
+    }
+
+    private <T> ResponseEntity<Object> send(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body,
+                                            @Nullable HttpHeaders extraHeaders) {
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId, extraHeaders));
 
-        ResponseEntity<Object> shareitServerResponse;
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+            if (passthrough) {
+                ResponseEntity<byte[]> shareitServerResponse = exchange(method, path, parameters, requestEntity, byte[].class);
+                return passthroughResponse(shareitServerResponse.getStatusCode(), shareitServerResponse.getHeaders(),
+                        shareitServerResponse.getBody());
             }
+            return prepareGatewayResponse(exchange(method, path, parameters, requestEntity, Object.class));
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return passthroughResponse(e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
+        }
+    }
+
+    private <T, R> ResponseEntity<R> exchange(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                              HttpEntity<T> requestEntity, Class<R> responseType) {
+        if (parameters != null) {
+            return rest.exchange(path, method, requestEntity, responseType, parameters);
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return rest.exchange(path, method, requestEntity, responseType);
     }
 
-    private HttpHeaders defaultHeaders(Long userId) {
+    private HttpHeaders defaultHeaders(Long userId, @Nullable HttpHeaders extraHeaders) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
         }
+        if (extraHeaders != null) {
+            headers.addAll(extraHeaders);
+        }
+        return headers;
+    }
+
+    /**
+     * Заголовок, который шлюз передает серверу от клиента; {@code null}, если клиент его не прислал.
+     */
+    @Nullable
+    static HttpHeaders header(String name, @Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(name, value);
         return headers;
     }
 
@@ -118,4 +205,28 @@ public class BaseClient {
 
         return responseBuilder.build();
     }
+
+    private static ResponseEntity<Object> passthroughResponse(HttpStatusCode status, @Nullable HttpHeaders serverHeaders,
+                                                              @Nullable byte[] body) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status).headers(passthroughHeaders(serverHeaders));
+
+        if (body != null && body.length > 0) {
+            return responseBuilder.body(body);
+        }
+
+        return responseBuilder.build();
+    }
+
+    static HttpHeaders passthroughHeaders(@Nullable HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders != null) {
+            for (String name : PASSTHROUGH_HEADERS) {
+                List<String> values = serverHeaders.get(name);
+                if (values != null) {
+                    headers.put(name, values);
+                }
+            }
+        }
+        return headers;
+    }
 }
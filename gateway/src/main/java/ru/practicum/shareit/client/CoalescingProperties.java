@@ -0,0 +1,23 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Объединение одинаковых одновременных GET-запросов к серверу.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.coalescing")
+public class CoalescingProperties {
+    private boolean enabled = true;
+
+    /**
+     * Шаблоны путей сервера в формате AntPathMatcher, GET-запросы к которым объединяются, например /items/*.
+     */
+    private List<String> routes = new ArrayList<>();
+}
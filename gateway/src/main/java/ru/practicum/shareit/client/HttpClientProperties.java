@@ -0,0 +1,57 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки общего пула HTTP-соединений шлюза с сервером.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.http")
+public class HttpClientProperties {
+    /**
+     * Всего соединений в пуле.
+     */
+    private int maxTotal = 200;
+
+    /**
+     * Соединений на один адрес. Шлюз ходит в один сервер, поэтому это фактический размер пула.
+     */
+    private int maxPerRoute = 200;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Ожидание ответа сервера (read timeout).
+     */
+    private Duration responseTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Ожидание свободного соединения из пула.
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Предельное время жизни соединения, после которого оно не переиспользуется.
+     */
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+    /**
+     * Соединение, простоявшее дольше, проверяется перед выдачей из пула.
+     */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    /**
+     * Keep-alive, если сервер не прислал свой.
+     */
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    /**
+     * Простаивающие соединения закрываются фоновым потоком.
+     */
+    private Duration evictIdleAfter = Duration.ofSeconds(30);
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.client;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Строки запроса для {@link BaseClient} и {@link ReactiveBaseClient}: оба подставляют значения по шаблону
+ * {@code name={name}}, поэтому значения кодируются одинаково.
+ */
+public final class QueryTemplates {
+
+    private QueryTemplates() {
+    }
+
+    /**
+     * Шаблон {@code a={a}&b={b}} по именам параметров в порядке карты.
+     */
+    public static String of(Map<String, Object> parameters) {
+        return parameters.keySet().stream()
+                .map(name -> name + "={" + name + "}")
+                .collect(Collectors.joining("&"));
+    }
+}
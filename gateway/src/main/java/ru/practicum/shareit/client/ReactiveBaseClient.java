@@ -0,0 +1,125 @@
+package ru.practicum.shareit.client;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Неблокирующий аналог {@link BaseClient} для профиля {@code reactive}. Тело ответа сервера не разбирается
+ * и не собирается в память целиком: буферы, пришедшие от сервера, сразу пишутся клиенту.
+ * Статус и заголовки передаются так же, как в {@link BaseClient} в режиме passthrough.
+ */
+public class ReactiveBaseClient {
+    protected final WebClient webClient;
+
+    public ReactiveBaseClient(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path) {
+        return get(path, null, null);
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path, long userId) {
+        return get(path, userId, null);
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, null);
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, T body) {
+        return post(path, null, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, long userId, T body) {
+        return post(path, userId, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body, null);
+    }
+
+    /**
+     * POST с ключом идемпотентности клиента; {@code null} — без ключа.
+     */
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, long userId, T body,
+                                                             @Nullable String idempotencyKey) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, null, body,
+                BaseClient.header(BaseClient.IDEMPOTENCY_KEY_HEADER, idempotencyKey));
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, T body) {
+        return patch(path, null, null, body);
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, long userId) {
+        return patch(path, userId, null, null);
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, long userId, T body) {
+        return patch(path, userId, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body, null);
+    }
+
+    /**
+     * Условный PATCH: сервер изменит запись, только если ее ETag совпадает с {@code ifMatch};
+     * {@code null} — без условия.
+     */
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, Long userId,
+                                                              @Nullable Map<String, Object> parameters, T body,
+                                                              @Nullable String ifMatch) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body,
+                BaseClient.header(HttpHeaders.IF_MATCH, ifMatch));
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> delete(String path) {
+        return delete(path, null, null);
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null, null);
+    }
+
+    private <T> Mono<ResponseEntity<Flux<DataBuffer>>> makeAndSendRequest(HttpMethod method, String path, Long userId,
+                                                                         @Nullable Map<String, Object> parameters,
+                                                                         @Nullable T body,
+                                                                         @Nullable HttpHeaders extraHeaders) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> defaultHeaders(headers, userId, extraHeaders));
+        WebClient.RequestHeadersSpec<?> spec = body != null ? request.bodyValue(body) : request;
+
+        // ошибки сервера отдаются клиенту как есть, поэтому любой статус считается обычным ответом
+        return spec.retrieve()
+                .onStatus(status -> true, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .map(response -> ResponseEntity.status(response.getStatusCode())
+                        .headers(BaseClient.passthroughHeaders(response.getHeaders()))
+                        .body(response.getBody()));
+    }
+
+    private static void defaultHeaders(HttpHeaders headers, Long userId, @Nullable HttpHeaders extraHeaders) {
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        if (userId != null) {
+            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        if (extraHeaders != null) {
+            headers.addAll(extraHeaders);
+        }
+    }
+}
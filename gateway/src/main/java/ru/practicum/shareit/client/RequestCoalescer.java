@@ -0,0 +1,118 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.util.AntPathMatcher;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Объединяет одинаковые GET-запросы к серверу, которые выполняются одновременно (single flight):
+ * первый запрос идет на сервер, остальные ждут его ответа и получают тот же ответ. Запросы одинаковы,
+ * если совпадают URI с параметрами и X-Sharer-User-Id — больше шлюз серверу ничего не передает.
+ * Ответ не кэшируется: запрос, пришедший после ответа сервера, снова идет на сервер.
+ */
+public class RequestCoalescer {
+    private final Map<String, RouteStats> routes = new LinkedHashMap<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ConcurrentMap<Key, CompletableFuture<ResponseEntity<Object>>> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        if (properties.isEnabled()) {
+            for (String route : properties.getRoutes()) {
+                routes.put(route, new RouteStats(route, meterRegistry));
+            }
+        }
+    }
+
+    /**
+     * Выполняет GET-запрос или присоединяется к такому же, уже идущему на сервер.
+     * Если запрос не подходит ни под один маршрут, он выполняется как обычно.
+     */
+    public ResponseEntity<Object> execute(URI uri, @Nullable Long userId, Supplier<ResponseEntity<Object>> call) {
+        RouteStats route = route(uri.getPath());
+        if (route == null) {
+            return call.get();
+        }
+
+        Key key = new Key(uri.toString(), userId);
+        CompletableFuture<ResponseEntity<Object>> own = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Object>> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            route.joined.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        route.leaders.increment();
+        try {
+            ResponseEntity<Object> response = call.get();
+            own.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    @Nullable
+    private RouteStats route(String path) {
+        for (Map.Entry<String, RouteStats> entry : routes.entrySet()) {
+            if (pathMatcher.match(entry.getKey(), path)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private record Key(String uri, @Nullable Long userId) {
+    }
+
+    /**
+     * Доля объединенных запросов маршрута: joined / (leader + joined).
+     */
+    private static final class RouteStats {
+        private final Counter leaders;
+        private final Counter joined;
+
+        RouteStats(String route, MeterRegistry meterRegistry) {
+            leaders = counter(route, "leader", meterRegistry);
+            joined = counter(route, "joined", meterRegistry);
+            Gauge.builder("shareit.gateway.coalescing.ratio", this, RouteStats::ratio)
+                    .description("Доля GET-запросов, получивших ответ чужого запроса к серверу")
+                    .tag("route", route)
+                    .register(meterRegistry);
+        }
+
+        double ratio() {
+            double total = leaders.count() + joined.count();
+            return total == 0 ? 0 : joined.count() / total;
+        }
+
+        private static Counter counter(String route, String result, MeterRegistry meterRegistry) {
+            return Counter.builder("shareit.gateway.coalescing.requests")
+                    .description("GET-запросы на объединяемых маршрутах: leader ходил на сервер, joined ждал его ответа")
+                    .tag("route", route)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+}
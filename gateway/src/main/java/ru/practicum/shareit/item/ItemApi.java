@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.RequestCommentDto;
+
+/**
+ * Пути, параметры и проверки {@code /items}, общие для {@link ItemController} и {@link ReactiveItemController}.
+ *
+ * @param <R> ответ контроллера
+ */
+@RequestMapping("/items")
+public interface ItemApi<R> {
+
+    @PostMapping
+    R createItem(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                 @RequestBody @Valid ItemDto item,
+                 @RequestHeader(value = BaseClient.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey);
+
+    @GetMapping("/{itemId}")
+    R getItem(@PathVariable(name = "itemId") @Positive Long itemId);
+
+    @PatchMapping("/{itemId}")
+    R updateItem(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                 @PathVariable(name = "itemId") @Positive Long itemId,
+                 @RequestBody ItemDto item,
+                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch);
+
+    @GetMapping
+    R getUserItems(@RequestHeader("X-Sharer-User-Id") @Positive Long userId);
+
+    @GetMapping("/search")
+    R searchItems(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                  @RequestParam("text") @NotBlank String text);
+
+    @PostMapping("/{itemId}/comment")
+    R createdComment(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                     @PathVariable(name = "itemId") @Positive Long itemId,
+                     @RequestBody @Valid RequestCommentDto comment,
+                     @RequestHeader(value = BaseClient.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey);
+
+    /**
+     * Пустой текст поиска: отвечаем пустым списком, не обращаясь к серверу.
+     */
+    static boolean isEmptySearch(String text) {
+        return text == null || text.trim().isEmpty();
+    }
+}
@@ -2,31 +2,36 @@ package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.RequestCommentDto;
 
 import java.util.Map;
 
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory requestFactory, RequestCoalescer coalescer,
+                      @Value("${shareit-server.passthrough:true}") boolean passthrough) {
         super(builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build());
+                .requestFactory(() -> requestFactory)
+                .build(), passthrough, coalescer);
     }
 
-    public ResponseEntity<Object> createItem(Long userId, ItemDto item) {
-        return post("", userId, item);
+    public ResponseEntity<Object> createItem(Long userId, ItemDto item, String idempotencyKey) {
+        return post("", userId, item, idempotencyKey);
     }
 
     public ResponseEntity<Object> getItemById(Long itemId) {
@@ -37,12 +42,13 @@ public class ItemClient extends BaseClient {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> updateItem(Long userId, Long itemId, ItemDto item) {
-        return put("/" + itemId, userId, item);
+    public ResponseEntity<Object> updateItem(Long userId, Long itemId, ItemDto item, String ifMatch) {
+        return patch("/" + itemId, userId, null, item, ifMatch);
     }
 
-    public ResponseEntity<Object> createdComment(RequestCommentDto comment, long userId, long itemId) {
-        return post("/" + itemId + "/comment", userId, comment);
+    public ResponseEntity<Object> createdComment(RequestCommentDto comment, long userId, long itemId,
+                                                 String idempotencyKey) {
+        return post("/" + itemId + "/comment", userId, comment, idempotencyKey);
     }
 
     public ResponseEntity<Object> searchItems(Long userId, String text) {
@@ -1,60 +1,53 @@
 package ru.practicum.shareit.item;
 
-import jakarta.validation.Valid;
-import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.RequestCommentDto;
 
 import java.util.Collections;
 
 @RestController
-@RequestMapping("/items")
 @RequiredArgsConstructor
 @Validated
-public class ItemController {
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ItemController implements ItemApi<ResponseEntity<Object>> {
     private final ItemClient client;
 
-    @PostMapping
-    public ResponseEntity<Object> createItem(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
-                                             @RequestBody @Valid ItemDto item) {
-        return client.createItem(userId, item);
+    @Override
+    public ResponseEntity<Object> createItem(Long userId, ItemDto item, String idempotencyKey) {
+        return client.createItem(userId, item, idempotencyKey);
     }
 
-    @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItem(@PathVariable(name = "itemId") @Positive Long itemId) {
+    @Override
+    public ResponseEntity<Object> getItem(Long itemId) {
         return client.getItemById(itemId);
     }
 
-    @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
-                              @PathVariable(name = "itemId") @Positive Long itemId,
-                              @RequestBody ItemDto item) {
-        return client.updateItem(userId, itemId, item);
+    @Override
+    public ResponseEntity<Object> updateItem(Long userId, Long itemId, ItemDto item, String ifMatch) {
+        return client.updateItem(userId, itemId, item, ifMatch);
     }
 
-    @GetMapping
-    public ResponseEntity<Object> getUserItems(@RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+    @Override
+    public ResponseEntity<Object> getUserItems(Long userId) {
         return client.getUserItems(userId);
     }
 
-    @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
-                                     @RequestParam("text") @NotBlank String text) {
-        if (text == null || text.trim().isEmpty()) {
+    @Override
+    public ResponseEntity<Object> searchItems(Long userId, String text) {
+        if (ItemApi.isEmptySearch(text)) {
             return ResponseEntity.ok(Collections.emptyList());
         }
         return client.searchItems(userId, text);
     }
 
-    @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> createdComment(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
-                                     @PathVariable(name = "itemId") @Positive Long itemId,
-                                     @RequestBody @Valid RequestCommentDto comment) {
-        return client.createdComment(comment, userId, itemId);
+    @Override
+    public ResponseEntity<Object> createdComment(Long userId, Long itemId, RequestCommentDto comment,
+                                                 String idempotencyKey) {
+        return client.createdComment(comment, userId, itemId, idempotencyKey);
     }
 }
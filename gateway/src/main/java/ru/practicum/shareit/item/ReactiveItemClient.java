@@ -0,0 +1,58 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.RequestCommentDto;
+
+import java.util.Map;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/items";
+
+    @Autowired
+    public ReactiveItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                              ClientHttpConnector connector) {
+        super(builder
+                .baseUrl(serverUrl + API_PREFIX)
+                .clientConnector(connector)
+                .build());
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createItem(Long userId, ItemDto item, String idempotencyKey) {
+        return post("", userId, item, idempotencyKey);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemById(Long itemId) {
+        return get("/" + itemId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUserItems(Long userId) {
+        return get("", userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateItem(Long userId, Long itemId, ItemDto item, String ifMatch) {
+        return patch("/" + itemId, userId, null, item, ifMatch);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createdComment(RequestCommentDto comment, long userId, long itemId,
+                                                                 String idempotencyKey) {
+        return post("/" + itemId + "/comment", userId, comment, idempotencyKey);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> searchItems(Long userId, String text) {
+        Map<String, Object> params = Map.of("text", text);
+        return get("/search?text={text}", userId, params);
+    }
+}
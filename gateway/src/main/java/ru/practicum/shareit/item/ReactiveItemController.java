@@ -0,0 +1,66 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.RequestCommentDto;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link ItemController} для профиля {@code reactive}: те же пути и проверки из {@link ItemApi},
+ * ответ сервера передается потоком.
+ */
+@RestController
+@RequiredArgsConstructor
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemController implements ItemApi<Mono<ResponseEntity<Flux<DataBuffer>>>> {
+    private static final byte[] EMPTY_LIST = "[]".getBytes(StandardCharsets.UTF_8);
+
+    private final ReactiveItemClient client;
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createItem(Long userId, ItemDto item, String idempotencyKey) {
+        return client.createItem(userId, item, idempotencyKey);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItem(Long itemId) {
+        return client.getItemById(itemId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateItem(Long userId, Long itemId, ItemDto item, String ifMatch) {
+        return client.updateItem(userId, itemId, item, ifMatch);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUserItems(Long userId) {
+        return client.getUserItems(userId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> searchItems(Long userId, String text) {
+        if (ItemApi.isEmptySearch(text)) {
+            return Mono.just(ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(EMPTY_LIST))));
+        }
+        return client.searchItems(userId, text);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createdComment(Long userId, Long itemId, RequestCommentDto comment,
+                                                                 String idempotencyKey) {
+        return client.createdComment(comment, userId, itemId, idempotencyKey);
+    }
+}
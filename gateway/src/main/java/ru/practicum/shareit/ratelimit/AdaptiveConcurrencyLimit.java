@@ -0,0 +1,78 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Предел одновременных запросов к серверу, который подстраивается под его ответы (AIMD).
+ * Быстрый ответ увеличивает предел на {@code 1/limit} — примерно на единицу за каждый «оборот» всех запросов;
+ * медленный ответ или 503/504 уменьшают его в {@code backoffRatio} раз. Запросы сверх предела отклоняются сразу.
+ */
+public class AdaptiveConcurrencyLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                    long latencyThresholdNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(
+                Math.max(minLimit, Math.min(maxLimit, initialLimit))));
+    }
+
+    public boolean tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Возвращает место, занятое {@link #tryAcquire()}, и учитывает время ответа.
+     *
+     * @param overloaded сервер ответил 503/504 или запрос завершился ошибкой ввода-вывода
+     */
+    public void release(long latencyNanos, boolean overloaded) {
+        inFlight.decrementAndGet();
+        boolean drop = overloaded || latencyNanos > latencyThresholdNanos;
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            double updated = drop
+                    ? Math.max(minLimit, limit * backoffRatio)
+                    : Math.min(maxLimit, limit + 1.0 / limit);
+            if (updated == limit || limitBits.compareAndSet(bits, Double.doubleToLongBits(updated))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Возвращает место запроса, который клиент отменил: время такого запроса ничего не говорит о сервере,
+     * поэтому предел не меняется.
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
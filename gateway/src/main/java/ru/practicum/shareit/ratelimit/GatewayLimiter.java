@@ -0,0 +1,153 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.util.AntPathMatcher;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Решение о пропуске запроса, общее для сервлетного и реактивного шлюза: сначала корзина пользователя
+ * для группы путей, затем общий предел одновременных запросов. Если {@link #acquire} вернул {@code null},
+ * вызывающий обязан вызвать {@link #release} после ответа. Пути actuator не ограничиваются ({@link #isExempt}).
+ */
+@Slf4j
+public class GatewayLimiter {
+    public static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final String ACTUATOR_PATTERN = "/actuator/**";
+
+    private final RateLimitProperties properties;
+    private final TokenBuckets buckets;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final MeterRegistry meterRegistry;
+    private final Counter shed;
+
+    public GatewayLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.buckets = new TokenBuckets(properties.getSweepInterval(), properties.getMaxBuckets(), System.nanoTime());
+        RateLimitProperties.Concurrency concurrency = properties.getConcurrency();
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(concurrency.getInitialLimit(), concurrency.getMinLimit(),
+                concurrency.getMaxLimit(), concurrency.getBackoffRatio(), concurrency.getLatencyThreshold().toNanos());
+
+        Gauge.builder("shareit.gateway.rate-limit.buckets", buckets, TokenBuckets::size)
+                .description("Корзины пользователей в памяти")
+                .register(meterRegistry);
+        Gauge.builder("shareit.gateway.concurrency.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .register(meterRegistry);
+        Gauge.builder("shareit.gateway.concurrency.in-flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .register(meterRegistry);
+        this.shed = rejectedCounter("concurrency", "all");
+    }
+
+    public boolean isExempt(String path) {
+        return pathMatcher.match(ACTUATOR_PATTERN, path);
+    }
+
+    /**
+     * @return {@code null}, если запрос пропущен, иначе ответ, который нужно вернуть клиенту
+     */
+    @Nullable
+    public Rejection acquire(String path, @Nullable String userHeader) {
+        if (properties.isEnabled()) {
+            Rejection rejection = checkRate(path, userHeader);
+            if (rejection != null) {
+                return rejection;
+            }
+        }
+        if (properties.getConcurrency().isEnabled() && !concurrencyLimit.tryAcquire()) {
+            shed.increment();
+            log.warn("Превышен предел одновременных запросов {}, запрос {} отклонен", concurrencyLimit.getLimit(), path);
+            return new Rejection(HttpStatus.SERVICE_UNAVAILABLE, 1,
+                    "Сервер перегружен, повторите запрос позже");
+        }
+        return null;
+    }
+
+    public void release(long latencyNanos, int status) {
+        if (properties.getConcurrency().isEnabled()) {
+            concurrencyLimit.release(latencyNanos, status == 503 || status == 504);
+        }
+    }
+
+    /**
+     * Как {@link #release(long, int)} для запроса, завершившегося исключением. Ошибка ввода-вывода
+     * (таймаут, отказ в соединении) считается признаком перегрузки сервера, остальные — нет.
+     */
+    public void release(long latencyNanos, Throwable error) {
+        if (properties.getConcurrency().isEnabled()) {
+            concurrencyLimit.release(latencyNanos, NestedExceptionUtils.getMostSpecificCause(error) instanceof IOException);
+        }
+    }
+
+    /**
+     * Как {@link #release(long, int)} для запроса, отмененного клиентом: место освобождается, предел не меняется.
+     */
+    public void cancel() {
+        if (properties.getConcurrency().isEnabled()) {
+            concurrencyLimit.cancel();
+        }
+    }
+
+    @Nullable
+    private Rejection checkRate(String path, @Nullable String userHeader) {
+        if (userHeader == null) {
+            return null;
+        }
+        long userId;
+        try {
+            userId = Long.parseLong(userHeader.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        for (Map.Entry<String, RateLimitProperties.Group> entry : properties.getGroups().entrySet()) {
+            RateLimitProperties.Group group = entry.getValue();
+            if (!pathMatcher.match(group.getPattern(), path)) {
+                continue;
+            }
+            long waitNanos = buckets.tryAcquire(userId, entry.getKey(), group.getCapacity(),
+                    group.getRefillPerSecond(), System.nanoTime());
+            if (waitNanos == 0) {
+                return null;
+            }
+            rejectedCounter("rate-limit", entry.getKey()).increment();
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            log.warn("Пользователь {} превысил частоту запросов группы {}, повтор через {} с",
+                    userId, entry.getKey(), retryAfter);
+            return new Rejection(HttpStatus.TOO_MANY_REQUESTS, retryAfter,
+                    "Слишком много запросов, повторите через " + retryAfter + " с");
+        }
+        return null;
+    }
+
+    private Counter rejectedCounter(String reason, String group) {
+        return Counter.builder("shareit.gateway.rejected")
+                .description("Запросы, отклоненные шлюзом до обращения к серверу")
+                .tag("reason", reason)
+                .tag("group", group)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ответ на отклоненный запрос.
+     *
+     * @param retryAfterSeconds значение заголовка Retry-After
+     */
+    public record Rejection(HttpStatus status, long retryAfterSeconds, String message) {
+
+        /**
+         * Тело ответа в том же виде, что у ErrorHandler.
+         */
+        public String body() {
+            return "{\"error\":\"" + message + "\"}";
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public GatewayLimiter gatewayLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        return new GatewayLimiter(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ограничение частоты запросов одного пользователя и общего числа запросов шлюза к серверу.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+
+    /**
+     * Группы путей со своими корзинами. Запрос попадает в первую группу, шаблон которой совпал с путем;
+     * запросы без заголовка X-Sharer-User-Id и пути вне групп не ограничиваются.
+     */
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    /**
+     * Как часто удалять полные корзины: такая корзина ничем не отличается от новой.
+     */
+    private Duration sweepInterval = Duration.ofMinutes(1);
+
+    /**
+     * Предел числа корзин. Когда он достигнут, полные корзины удаляются сразу, не дожидаясь sweep-interval
+     * (не чаще раза в секунду); если места все равно нет, запросы новых пользователей отклоняются с 429.
+     */
+    private int maxBuckets = 100_000;
+
+    private Concurrency concurrency = new Concurrency();
+
+    @Getter
+    @Setter
+    public static class Group {
+        /**
+         * Шаблон пути в формате AntPathMatcher, например /bookings/**.
+         */
+        private String pattern;
+
+        /**
+         * Сколько запросов подряд допускается без пауз.
+         */
+        private int capacity = 20;
+
+        /**
+         * Сколько запросов в секунду восстанавливается.
+         */
+        private double refillPerSecond = 10;
+    }
+
+    /**
+     * Адаптивный предел одновременных запросов (AIMD): растет на 1/limit после каждого быстрого ответа
+     * и умножается на backoff-ratio после медленного ответа, 503 или 504 от сервера.
+     * Верхняя граница должна быть меньше пула соединений shareit-server.http.max-total,
+     * чтобы лишние запросы отклонялись до того, как они встанут в очередь пула.
+     */
+    @Getter
+    @Setter
+    public static class Concurrency {
+        private boolean enabled = true;
+        private int initialLimit = 50;
+        private int minLimit = 10;
+        private int maxLimit = 180;
+        private double backoffRatio = 0.9;
+
+        /**
+         * Ответ дольше этого считается признаком перегрузки сервера.
+         */
+        private Duration latencyThreshold = Duration.ofMillis(500);
+    }
+}
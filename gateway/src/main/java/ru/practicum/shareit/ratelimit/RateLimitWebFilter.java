@@ -0,0 +1,61 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link GatewayLimiter} для реактивного шлюза. Место в пределе одновременных запросов освобождается,
+ * когда ответ записан клиенту или клиент отменил запрос; отмена не считается ни быстрым, ни медленным ответом.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class RateLimitWebFilter implements WebFilter, Ordered {
+    private final GatewayLimiter limiter;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (limiter.isExempt(path)) {
+            return chain.filter(exchange);
+        }
+
+        GatewayLimiter.Rejection rejection = limiter.acquire(path,
+                exchange.getRequest().getHeaders().getFirst(GatewayLimiter.USER_HEADER));
+        if (rejection != null) {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(rejection.status());
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(rejection.retryAfterSeconds()));
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            DataBuffer body = response.bufferFactory().wrap(rejection.body().getBytes(StandardCharsets.UTF_8));
+            return response.writeWith(Mono.just(body));
+        }
+
+        long started = System.nanoTime();
+        return chain.filter(exchange)
+                .doOnSuccess(done -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    limiter.release(System.nanoTime() - started, status != null ? status.value() : 200);
+                })
+                .doOnError(error -> limiter.release(System.nanoTime() - started, error))
+                .doOnCancel(limiter::cancel);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзины токенов по паре (пользователь, группа путей) без блокировок.
+ * <p>
+ * Состояние корзины — одно число: теоретическое время прихода следующего запроса (GCRA). Запрос пропускается,
+ * если это время опережает текущее не больше чем на {@code capacity - 1} интервалов, и сдвигает его на один
+ * интервал; обновление — один compareAndSet. Корзина, у которой это время уже прошло, полна и ничем не отличается
+ * от новой, поэтому ее можно удалить без потери состояния. Такие корзины удаляются раз в {@code sweepInterval}.
+ * Число корзин ограничено {@code maxBuckets}: если места нет и после внеочередной очистки (не чаще раза в
+ * {@link #OVERFLOW_SWEEP_GAP_NANOS}), новому ключу корзина не заводится и запрос отклоняется до следующей очистки.
+ * Разные ключи попадают в разные ячейки ConcurrentHashMap и не мешают друг другу.
+ */
+public class TokenBuckets {
+    /**
+     * Как часто можно чистить корзины при заполненной карте: очистка проходит по всем корзинам,
+     * и без этого ее запускал бы каждый новый ключ.
+     */
+    static final long OVERFLOW_SWEEP_GAP_NANOS = 1_000_000_000L;
+
+    private final ConcurrentMap<BucketKey, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long sweepIntervalNanos;
+    private final int maxBuckets;
+    private final AtomicLong nextSweep;
+    private final AtomicLong nextOverflowSweep;
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    public TokenBuckets(Duration sweepInterval, int maxBuckets, long now) {
+        this.sweepIntervalNanos = sweepInterval.toNanos();
+        this.maxBuckets = maxBuckets;
+        this.nextSweep = new AtomicLong(now + sweepIntervalNanos);
+        this.nextOverflowSweep = new AtomicLong(now);
+    }
+
+    /**
+     * Забирает токен из корзины.
+     *
+     * @param now {@link System#nanoTime()}
+     * @return 0, если токен выдан, иначе сколько наносекунд ждать следующего токена
+     * (или следующей очистки, если для нового ключа нет места)
+     */
+    public long tryAcquire(long userId, String group, int capacity, double refillPerSecond, long now) {
+        maybeSweep(now);
+        BucketKey key = new BucketKey(userId, group);
+        AtomicLong arrival = buckets.get(key);
+        if (arrival == null) {
+            if (buckets.size() >= maxBuckets && !sweepOverflow(now)) {
+                return Math.max(1, nextOverflowSweep.get() - now);
+            }
+            arrival = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        long interval = Math.max(1, Math.round(1_000_000_000L / refillPerSecond));
+        long tolerance = interval * (capacity - 1);
+        while (true) {
+            long stored = arrival.get();
+            long current = stored - now > 0 ? stored : now;
+            long allowedAt = current - tolerance;
+            if (allowedAt - now > 0) {
+                return allowedAt - now;
+            }
+            if (arrival.compareAndSet(stored, current + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Внеочередная очистка при заполненной карте.
+     *
+     * @return есть ли место для новой корзины
+     */
+    private boolean sweepOverflow(long now) {
+        long next = nextOverflowSweep.get();
+        if (now - next >= 0 && nextOverflowSweep.compareAndSet(next, now + OVERFLOW_SWEEP_GAP_NANOS)) {
+            sweep(now);
+        }
+        return buckets.size() < maxBuckets;
+    }
+
+    private void maybeSweep(long now) {
+        long next = nextSweep.get();
+        if (now - next >= 0 && nextSweep.compareAndSet(next, now + sweepIntervalNanos)) {
+            sweep(now);
+        }
+    }
+
+    /**
+     * Удаляет полные корзины — те, у которых время следующего запроса строго в прошлом; только что созданная
+     * корзина ({@code arrival == now}) остается. Если другой поток в этот момент забирает токен из удаляемой
+     * корзины, он может получить один лишний токен — это допустимо.
+     */
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.values().removeIf(arrival -> arrival.get() - now < 0);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private record BucketKey(long userId, String group) {
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.QueryTemplates;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.request.dto.RequestAddDto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRequestClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/requests";
+
+    @Autowired
+    public ReactiveRequestClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                                 ClientHttpConnector connector) {
+        super(builder
+                .baseUrl(serverUrl + API_PREFIX)
+                .clientConnector(connector)
+                .build());
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createRequest(RequestAddDto request, Long userId, String idempotencyKey) {
+        return post("", userId, request, idempotencyKey);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getRequestsByUser(Long userId) {
+        return get("", userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getRequests(Long userId, Integer size, LocalDateTime afterCreated,
+                                                              Long afterId) {
+        Map<String, Object> parameters = RequestQueries.page(size, afterCreated, afterId);
+        return get("/all?" + QueryTemplates.of(parameters), userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getRequestById(Long requestId, Long userId) {
+        return get("/" + requestId, userId);
+    }
+}
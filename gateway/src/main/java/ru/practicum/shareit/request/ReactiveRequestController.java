@@ -0,0 +1,45 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.request.dto.RequestAddDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@link RequestController} для профиля {@code reactive}: те же пути и проверки из {@link RequestApi},
+ * ответ сервера передается потоком.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRequestController implements RequestApi<Mono<ResponseEntity<Flux<DataBuffer>>>> {
+    private final ReactiveRequestClient client;
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createRequest(RequestAddDto request, Long userId,
+                                                                String idempotencyKey) {
+        return client.createRequest(request, userId, idempotencyKey);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getRequestsByUser(Long userId) {
+        return client.getRequestsByUser(userId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getRequests(Long userId, Integer size, LocalDateTime afterCreated,
+                                                              Long afterId) {
+        return client.getRequests(userId, size, afterCreated, afterId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getRequestById(Long requestId, Long userId) {
+        return client.getRequestById(requestId, userId);
+    }
+}
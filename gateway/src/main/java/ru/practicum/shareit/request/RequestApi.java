@@ -0,0 +1,39 @@
+package ru.practicum.shareit.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.request.dto.RequestAddDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Пути, параметры и проверки {@code /requests}, общие для {@link RequestController} и
+ * {@link ReactiveRequestController}.
+ *
+ * @param <R> ответ контроллера
+ */
+@RequestMapping(path = "/requests")
+public interface RequestApi<R> {
+
+    @PostMapping
+    R createRequest(@RequestBody @Valid RequestAddDto request,
+                    @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                    @RequestHeader(value = BaseClient.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey);
+
+    @GetMapping
+    R getRequestsByUser(@RequestHeader("X-Sharer-User-Id") @Positive Long userId);
+
+    @GetMapping("/all")
+    R getRequests(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                  @RequestParam(name = "afterCreated", required = false)
+                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreated,
+                  @Positive @RequestParam(name = "afterId", required = false) Long afterId);
+
+    @GetMapping("/{requestId}")
+    R getRequestById(@PathVariable(name = "requestId") @Positive Long requestId,
+                     @RequestHeader("X-Sharer-User-Id") @Positive Long userId);
+}
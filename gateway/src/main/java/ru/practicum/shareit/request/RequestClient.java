@@ -1,35 +1,45 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.QueryTemplates;
+import ru.practicum.shareit.client.RequestCoalescer;
 import ru.practicum.shareit.request.dto.RequestAddDto;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ClientHttpRequestFactory requestFactory, RequestCoalescer coalescer,
+                         @Value("${shareit-server.passthrough:true}") boolean passthrough) {
         super(builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build());
+                .requestFactory(() -> requestFactory)
+                .build(), passthrough, coalescer);
     }
 
-    public ResponseEntity<Object> createRequest(RequestAddDto request, Long userId) {
-        return post("", userId, request);
+    public ResponseEntity<Object> createRequest(RequestAddDto request, Long userId, String idempotencyKey) {
+        return post("", userId, request, idempotencyKey);
     }
 
     public ResponseEntity<Object> getRequestsByUser(Long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getRequests(Long userId) {
-        return get("/all", userId);
+    public ResponseEntity<Object> getRequests(Long userId, Integer size, LocalDateTime afterCreated, Long afterId) {
+        Map<String, Object> parameters = RequestQueries.page(size, afterCreated, afterId);
+        return get("/all?" + QueryTemplates.of(parameters), userId, parameters);
     }
 
     public ResponseEntity<Object> getRequestById(Long requestId, Long userId) {
@@ -1,37 +1,36 @@
 package ru.practicum.shareit.request;
 
-import jakarta.validation.Valid;
-import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.request.dto.RequestAddDto;
 
+import java.time.LocalDateTime;
+
 @RestController
 @RequiredArgsConstructor
-@RequestMapping(path = "/requests")
-public class RequestController {
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RequestController implements RequestApi<ResponseEntity<Object>> {
     private final RequestClient client;
 
-    @PostMapping
-    public ResponseEntity<Object> createRequest(@RequestBody @Valid RequestAddDto request,
-                                                @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
-        return client.createRequest(request, userId);
+    @Override
+    public ResponseEntity<Object> createRequest(RequestAddDto request, Long userId, String idempotencyKey) {
+        return client.createRequest(request, userId, idempotencyKey);
     }
 
-    @GetMapping
-    public ResponseEntity<Object> getRequestsByUser(@RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+    @Override
+    public ResponseEntity<Object> getRequestsByUser(Long userId) {
         return client.getRequestsByUser(userId);
     }
 
-    @GetMapping("/all")
-    public ResponseEntity<Object> getRequests(@RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
-        return client.getRequests(userId);
+    @Override
+    public ResponseEntity<Object> getRequests(Long userId, Integer size, LocalDateTime afterCreated, Long afterId) {
+        return client.getRequests(userId, size, afterCreated, afterId);
     }
 
-    @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestById(@PathVariable(name = "requestId") @Positive Long requestId,
-                                         @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+    @Override
+    public ResponseEntity<Object> getRequestById(Long requestId, Long userId) {
         return client.getRequestById(requestId, userId);
     }
 }
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.request;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Параметры запросов к серверу, общие для {@link RequestClient} и {@link ReactiveRequestClient}.
+ */
+final class RequestQueries {
+
+    private RequestQueries() {
+    }
+
+    /**
+     * Страница чужих запросов; курсор передается, только если заданы обе его части.
+     */
+    static Map<String, Object> page(Integer size, LocalDateTime afterCreated, Long afterId) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("size", size);
+        if (afterCreated != null && afterId != null) {
+            parameters.put("afterCreated", afterCreated);
+            parameters.put("afterId", afterId);
+        }
+        return parameters;
+    }
+}
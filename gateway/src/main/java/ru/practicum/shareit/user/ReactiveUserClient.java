@@ -0,0 +1,47 @@
+package ru.practicum.shareit.user;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.user.dto.UserRequestDto;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/users";
+
+    @Autowired
+    public ReactiveUserClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                              ClientHttpConnector connector) {
+        super(
+                builder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(connector)
+                        .build()
+        );
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUserById(long userId) {
+        return get("/" + userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createUser(UserRequestDto userRequestDto) {
+        return post("", userRequestDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateUser(UserRequestDto userRequestDto, long userId) {
+        return patch("/" + userId, userRequestDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> deleteUser(long userId) {
+        return delete("/" + userId);
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.user.dto.UserRequestDto;
+
+/**
+ * {@link UserController} для профиля {@code reactive}: те же пути и проверки из {@link UserApi},
+ * ответ сервера передается потоком.
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController implements UserApi<Mono<ResponseEntity<Flux<DataBuffer>>>> {
+    private final ReactiveUserClient userClient;
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUserById(Long userId) {
+        return userClient.getUserById(userId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createUser(UserRequestDto user) {
+        return userClient.createUser(user);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateUser(UserRequestDto user, Long userId) {
+        return userClient.updateUser(user, userId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> deleteUser(Long userId) {
+        return userClient.deleteUser(userId);
+    }
+}
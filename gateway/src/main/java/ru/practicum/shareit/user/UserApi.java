@@ -0,0 +1,27 @@
+package ru.practicum.shareit.user;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.user.dto.UserRequestDto;
+
+/**
+ * Пути, параметры и проверки {@code /users}, общие для {@link UserController} и {@link ReactiveUserController}.
+ *
+ * @param <R> ответ контроллера
+ */
+@RequestMapping(path = "/users")
+public interface UserApi<R> {
+
+    @GetMapping("/{userId}")
+    R getUserById(@PathVariable(name = "userId") @Positive Long userId);
+
+    @PostMapping
+    R createUser(@RequestBody @Valid UserRequestDto user);
+
+    @PatchMapping("/{userId}")
+    R updateUser(@RequestBody UserRequestDto user, @PathVariable(name = "userId") @Positive Long userId);
+
+    @DeleteMapping("/{userId}")
+    R deleteUser(@PathVariable(name = "userId") @Positive Long userId);
+}
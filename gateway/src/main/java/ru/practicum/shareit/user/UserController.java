@@ -1,41 +1,38 @@
 package ru.practicum.shareit.user;
 
-import jakarta.validation.Valid;
-import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.user.dto.UserRequestDto;
 
 @Controller
-@RequestMapping(path = "/users")
 @RequiredArgsConstructor
 @Slf4j
 @Validated
-public class UserController {
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserController implements UserApi<ResponseEntity<Object>> {
     private final UserClient userClient;
 
-    @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUserById(@PathVariable(name = "userId") @Positive  Long userId) {
+    @Override
+    public ResponseEntity<Object> getUserById(Long userId) {
         return userClient.getUserById(userId);
     }
 
-    @PostMapping
-    public ResponseEntity<Object> createUser(@RequestBody @Valid UserRequestDto user) {
+    @Override
+    public ResponseEntity<Object> createUser(UserRequestDto user) {
         return userClient.createUser(user);
     }
 
-    @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(@RequestBody UserRequestDto user,
-                              @PathVariable(name = "userId") @Positive Long userId) {
+    @Override
+    public ResponseEntity<Object> updateUser(UserRequestDto user, Long userId) {
         return userClient.updateUser(user, userId);
     }
 
-    @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> deleteUser(@PathVariable(name = "userId") @Positive Long userId) {
+    @Override
+    public ResponseEntity<Object> deleteUser(Long userId) {
         return userClient.deleteUser(userId);
     }
 }
@@ -0,0 +1,150 @@
+package shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.client.CoalescingProperties;
+import ru.practicum.shareit.client.RequestCoalescer;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestCoalescerTest {
+    private static final URI ITEM = URI.create("http://localhost:9090/items/1");
+    private static final int JOINERS = 4;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RequestCoalescer coalescer = new RequestCoalescer(properties(), registry);
+    private final ExecutorService executor = Executors.newFixedThreadPool(JOINERS + 1);
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void joinersReceiveLeaderResponse() throws Exception {
+        ResponseEntity<Object> response = ResponseEntity.ok("item");
+
+        List<Future<ResponseEntity<Object>>> results = runConcurrently(1L, () -> response);
+
+        for (Future<ResponseEntity<Object>> result : results) {
+            assertSame(response, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, count("leader"));
+        assertEquals(JOINERS, count("joined"));
+        assertEquals((double) JOINERS / (JOINERS + 1),
+                registry.get("shareit.gateway.coalescing.ratio").tag("route", "/items/*").gauge().value());
+    }
+
+    @Test
+    public void joinersReceiveLeaderException() throws Exception {
+        IllegalStateException failure = new IllegalStateException("server unavailable");
+
+        List<Future<ResponseEntity<Object>>> results = runConcurrently(1L, () -> {
+            throw failure;
+        });
+
+        for (Future<ResponseEntity<Object>> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(failure, e.getCause());
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void nextRequestAfterResponseGoesToServer() {
+        coalescer.execute(ITEM, 1L, () -> ResponseEntity.ok(calls.incrementAndGet()));
+        assertThrows(IllegalStateException.class, () -> coalescer.execute(ITEM, 1L, () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException();
+        }));
+
+        ResponseEntity<Object> response = coalescer.execute(ITEM, 1L, () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+        assertEquals(3, response.getBody());
+        assertEquals(3, count("leader"));
+        assertEquals(0, count("joined"));
+    }
+
+    @Test
+    public void differentUsersAndOtherRoutesAreNotJoined() throws Exception {
+        Future<ResponseEntity<Object>> leader = executor.submit(() ->
+                coalescer.execute(ITEM, 1L, blocking(() -> ResponseEntity.ok("user 1"))));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        ResponseEntity<Object> otherUser = coalescer.execute(ITEM, 2L, () -> ResponseEntity.ok("user 2"));
+        ResponseEntity<Object> otherRoute = coalescer.execute(URI.create("http://localhost:9090/users/1"), 1L,
+                () -> ResponseEntity.ok("user"));
+        release.countDown();
+
+        assertEquals("user 2", otherUser.getBody());
+        assertEquals("user", otherRoute.getBody());
+        assertEquals("user 1", leader.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals(2, count("leader"));
+        assertEquals(0, count("joined"));
+    }
+
+    /**
+     * Запускает ведущий запрос, ждет, пока он дойдет до сервера, затем запускает {@link #JOINERS} таких же
+     * и отпускает ведущий, когда все они присоединились.
+     */
+    private List<Future<ResponseEntity<Object>>> runConcurrently(Long userId, Supplier<ResponseEntity<Object>> call)
+            throws InterruptedException {
+        List<Future<ResponseEntity<Object>>> results = new ArrayList<>();
+        results.add(executor.submit(() -> coalescer.execute(ITEM, userId, blocking(call))));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < JOINERS; i++) {
+            results.add(executor.submit(() -> coalescer.execute(ITEM, userId, blocking(call))));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("joined") < JOINERS && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        return results;
+    }
+
+    private Supplier<ResponseEntity<Object>> blocking(Supplier<ResponseEntity<Object>> call) {
+        return () -> {
+            calls.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return call.get();
+        };
+    }
+
+    private double count(String result) {
+        return registry.get("shareit.gateway.coalescing.requests").tag("result", result).counter().count();
+    }
+
+    private static CoalescingProperties properties() {
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setRoutes(List.of("/items/*"));
+        return properties;
+    }
+}
@@ -0,0 +1,35 @@
+package shareit.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import ru.practicum.shareit.ratelimit.GatewayLimiter;
+import ru.practicum.shareit.ratelimit.RateLimitProperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class GatewayLimiterTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    public void rejectsOverRateWithRetryAfter() {
+        RateLimitProperties.Group group = new RateLimitProperties.Group();
+        group.setPattern("/bookings/**");
+        group.setCapacity(1);
+        group.setRefillPerSecond(0.5);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getGroups().put("bookings", group);
+        properties.getConcurrency().setEnabled(false);
+        GatewayLimiter limiter = new GatewayLimiter(properties, registry);
+
+        assertNull(limiter.acquire("/bookings/1", "1"));
+        GatewayLimiter.Rejection rejection = limiter.acquire("/bookings/1", "1");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejection.status());
+        assertEquals(2, rejection.retryAfterSeconds());
+        assertNull(limiter.acquire("/bookings/1", "2"));
+        assertNull(limiter.acquire("/users/1", "1"));
+        assertEquals(1, registry.get("shareit.gateway.rejected").tag("group", "bookings").counter().count());
+    }
+}
@@ -0,0 +1,38 @@
+package shareit.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.ratelimit.GatewayLimiter;
+import ru.practicum.shareit.ratelimit.RateLimitProperties;
+import ru.practicum.shareit.ratelimit.RateLimitWebFilter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RateLimitWebFilterTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    public void cancelReleasesSlotWithoutChangingLimit() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getConcurrency().setInitialLimit(20);
+        RateLimitWebFilter filter = new RateLimitWebFilter(new GatewayLimiter(properties, registry));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/bookings"));
+
+        for (int i = 0; i < 40; i++) {
+            Disposable request = filter.filter(exchange, e -> Mono.never()).subscribe();
+            assertEquals(1, gauge("shareit.gateway.concurrency.in-flight"));
+            request.dispose();
+        }
+
+        assertEquals(0, gauge("shareit.gateway.concurrency.in-flight"));
+        assertEquals(20, gauge("shareit.gateway.concurrency.limit"));
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+}
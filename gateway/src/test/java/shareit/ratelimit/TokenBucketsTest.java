@@ -0,0 +1,95 @@
+package shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.ratelimit.TokenBuckets;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketsTest {
+    private static final long START = 1_000_000_000_000L;
+    private static final long SECOND = 1_000_000_000L;
+    private static final int CAPACITY = 3;
+    private static final double REFILL = 2;
+    private static final long INTERVAL = SECOND / 2;
+
+    @Test
+    public void admitsBurstThenRefillsOneTokenPerInterval() {
+        TokenBuckets buckets = new TokenBuckets(Duration.ofMinutes(1), 100, START);
+
+        for (int i = 0; i < CAPACITY; i++) {
+            assertEquals(0, buckets.tryAcquire(1, "bookings", CAPACITY, REFILL, START));
+        }
+        assertEquals(INTERVAL, buckets.tryAcquire(1, "bookings", CAPACITY, REFILL, START));
+        assertEquals(INTERVAL / 2, buckets.tryAcquire(1, "bookings", CAPACITY, REFILL, START + INTERVAL / 2));
+
+        assertEquals(0, buckets.tryAcquire(1, "bookings", CAPACITY, REFILL, START + INTERVAL));
+        assertEquals(INTERVAL, buckets.tryAcquire(1, "bookings", CAPACITY, REFILL, START + INTERVAL));
+    }
+
+    @Test
+    public void keysDoNotShareTokens() {
+        TokenBuckets buckets = new TokenBuckets(Duration.ofMinutes(1), 100, START);
+
+        assertEquals(0, buckets.tryAcquire(1, "bookings", 1, REFILL, START));
+        assertTrue(buckets.tryAcquire(1, "bookings", 1, REFILL, START) > 0);
+
+        assertEquals(0, buckets.tryAcquire(2, "bookings", 1, REFILL, START));
+        assertEquals(0, buckets.tryAcquire(1, "items", 1, REFILL, START));
+    }
+
+    @Test
+    public void sweepRemovesOnlyFullBuckets() {
+        TokenBuckets buckets = new TokenBuckets(Duration.ofSeconds(10), 100, START);
+        buckets.tryAcquire(1, "bookings", CAPACITY, REFILL, START);
+        buckets.tryAcquire(2, "bookings", CAPACITY, REFILL, START + 10 * SECOND - INTERVAL / 2);
+
+        buckets.tryAcquire(3, "bookings", CAPACITY, REFILL, START + 10 * SECOND);
+
+        assertEquals(2, buckets.size());
+        assertEquals(INTERVAL / 2, drain(buckets, 2, START + 10 * SECOND));
+    }
+
+    @Test
+    public void newBucketSurvivesOverflowSweep() {
+        TokenBuckets buckets = new TokenBuckets(Duration.ofMinutes(1), 2, START);
+        buckets.tryAcquire(1, "bookings", 1, REFILL, START);
+        buckets.tryAcquire(2, "bookings", 1, REFILL, START);
+        long now = START + 2 * SECOND;
+
+        assertEquals(0, buckets.tryAcquire(3, "bookings", 1, REFILL, now));
+
+        assertEquals(1, buckets.size());
+        assertTrue(buckets.tryAcquire(3, "bookings", 1, REFILL, now) > 0);
+    }
+
+    @Test
+    public void refusesNewKeysWhenAllBucketsAreDrained() {
+        TokenBuckets buckets = new TokenBuckets(Duration.ofMinutes(1), 2, START);
+        drain(buckets, 1, START);
+        drain(buckets, 2, START);
+
+        long wait = buckets.tryAcquire(3, "bookings", CAPACITY, REFILL, START);
+
+        assertTrue(wait > 0 && wait <= SECOND, "ждать до следующей очистки: " + wait);
+        assertEquals(2, buckets.size());
+        assertEquals(INTERVAL, buckets.tryAcquire(1, "bookings", CAPACITY, REFILL, START));
+
+        long refilled = START + CAPACITY * INTERVAL + 1;
+        assertEquals(0, buckets.tryAcquire(3, "bookings", CAPACITY, REFILL, refilled));
+        assertEquals(1, buckets.size());
+    }
+
+    /**
+     * Забирает все токены ключа и возвращает ожидание следующего.
+     */
+    private static long drain(TokenBuckets buckets, long userId, long now) {
+        long wait;
+        do {
+            wait = buckets.tryAcquire(userId, "bookings", CAPACITY, REFILL, now);
+        } while (wait == 0);
+        return wait;
+    }
+}
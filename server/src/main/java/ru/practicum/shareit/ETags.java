@@ -0,0 +1,62 @@
+package ru.practicum.shareit;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exception.PreconditionFailedException;
+
+/**
+ * ETag записи — ее версия ({@code @Version}). Клиент передает прочитанный ETag в If-Match, и изменение проходит,
+ * только если запись с тех пор не менялась; иначе ответ 412.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Ответ на изменение записи с ее новой версией.
+     */
+    public static <T> ResponseEntity<T> ok(T body, Long version) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (version != null) {
+            response.eTag(String.valueOf(version));
+        }
+        return response.body(body);
+    }
+
+    /**
+     * ETag для ответа на GET. Ставится прямо в ответ, а не через {@link ResponseEntity}: на GET с ETag Spring сам
+     * отвечает 304 по If-None-Match, а версия не учитывает вложенные данные (отзывы, брони, вещь брони).
+     */
+    public static void set(HttpServletResponse response, Long version) {
+        if (version != null) {
+            response.setHeader(HttpHeaders.ETAG, tag(version));
+        }
+    }
+
+    /**
+     * Проверяет If-Match по строгому сравнению: подходит {@code *} или тег с текущей версией.
+     * Без заголовка проверка не выполняется.
+     *
+     * @throws PreconditionFailedException если ни один тег не совпал с версией
+     */
+    public static void checkIfMatch(String ifMatch, Long version, String subject) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return;
+        }
+        String current = tag(version);
+        for (String candidate : ifMatch.split(",")) {
+            String trimmed = candidate.strip();
+            if (trimmed.equals("*") || trimmed.equals(current)) {
+                return;
+            }
+        }
+        throw new PreconditionFailedException(subject + " изменена: текущая версия " + current
+                + ", в If-Match " + ifMatch);
+    }
+
+    private static String tag(Long version) {
+        return "\"" + version + "\"";
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Страница с произвольным смещением: {@code from} не обязан быть кратен {@code size}, в отличие от
+ * {@link org.springframework.data.domain.PageRequest}, который округляет смещение до номера страницы.
+ * Порядок задается самим запросом.
+ */
+public record OffsetPageRequest(long offset, int size) implements Pageable {
+
+    public OffsetPageRequest {
+        if (offset < 0 || size <= 0) {
+            throw new IllegalArgumentException("Некорректная страница: offset = " + offset + ", size = " + size);
+        }
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / size);
+    }
+
+    @Override
+    public int getPageSize() {
+        return size;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return Sort.unsorted();
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetPageRequest(offset + size, size);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return new OffsetPageRequest(Math.max(0, offset - size), size);
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetPageRequest(0, size);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetPageRequest((long) pageNumber * size, size);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+}
@@ -37,4 +37,12 @@ public class Booking {
 
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
+
+    /**
+     * Версия строки: изменение, прочитанное до чужого, не сохранится. Отдается клиенту как ETag.
+     * Примитив, чтобы новизну записи Spring Data по-прежнему определял по id, а не по версии.
+     */
+    @Version
+    @Column(name = "version")
+    private long version;
 }
@@ -1,11 +1,19 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.ETags;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStatusBulkDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.service.BookingService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -28,24 +36,41 @@ public class BookingController {
     /**
      * Изменение состояния брони.
      * Patch /bookings/bookingId?approved
-     * Headers X-Sharer-User-Id
+     * Headers X-Sharer-User-Id, If-Match (необязательный)
      */
     @PatchMapping("/{bookingId}")
-    public BookingResponseDto approveBooking(@PathVariable("bookingId") Long bookingId,
+    public ResponseEntity<BookingResponseDto> approveBooking(@PathVariable("bookingId") Long bookingId,
                                      @RequestParam("approved") Boolean approved,
-                                     @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return bookingService.approveBooking(userId, bookingId, approved);
+                                     @RequestHeader("X-Sharer-User-Id") Long userId,
+                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        BookingResponseDto booking = bookingService.approveBooking(userId, bookingId, approved, ifMatch);
+        return ETags.ok(booking, booking.getVersion());
     }
 
     /**
      * Отмена бронирования
      * Patch /bookings/bookingId/canceled
-     * Headers X-Sharer-User-Id
+     * Headers X-Sharer-User-Id, If-Match (необязательный)
      */
     @PatchMapping("/{bookingId}/canceled")
-    public BookingResponseDto canceledBooking(@PathVariable("bookingId") Long bookingId,
-                                             @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return bookingService.canceledBooking(userId, bookingId);
+    public ResponseEntity<BookingResponseDto> canceledBooking(@PathVariable("bookingId") Long bookingId,
+                                             @RequestHeader("X-Sharer-User-Id") Long userId,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                             String ifMatch) {
+        BookingResponseDto booking = bookingService.canceledBooking(userId, bookingId, ifMatch);
+        return ETags.ok(booking, booking.getVersion());
+    }
+
+    /**
+     * Подтверждение или отклонение нескольких броней владельцем одной транзакцией.
+     * Patch /bookings/bulk?approved, тело — {"bookingIds": [...]}
+     * Headers X-Sharer-User-Id
+     */
+    @PatchMapping("/bulk")
+    public List<BookingStatusResultDto> changeBookingsStatus(@RequestParam("approved") Boolean approved,
+                                                             @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                             @RequestBody BookingStatusBulkDto request) {
+        return bookingService.changeBookingsStatus(userId, request.bookingIds(), approved);
     }
 
     /**
@@ -55,31 +80,48 @@ public class BookingController {
      */
     @GetMapping("/{bookingId}")
     public BookingResponseDto getBookingById(@PathVariable("bookingId") Long bookingId,
-                                        @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return bookingService.getBooking(userId, bookingId);
+                                        @RequestHeader("X-Sharer-User-Id") Long userId,
+                                        HttpServletResponse response) {
+        BookingResponseDto booking = bookingService.getBooking(userId, bookingId);
+        ETags.set(response, booking.getVersion());
+        return booking;
     }
 
     /**
      * Получение списка броней с определенным состоянием,
      * Список отсортированы по дату в порядке убывания
-     * GET /bookings?state={state}
+     * GET /bookings?state={state}&from={from}&size={size}
+     * Для постраничного обхода без смещения можно передать курсор afterStart и afterId —
+     * start и id последней брони предыдущей страницы.
      * Headers X-Sharer-User-Id
      */
     @GetMapping()
     public List<BookingResponseDto> getBookingsByState(@RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "afterStart", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStart,
+            @RequestParam(name = "afterId", required = false) Long afterId,
             @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return bookingService.getBookingByState(userId, state);
+        return bookingService.getBookingByState(userId, state, from, size, afterStart, afterId);
     }
 
     /**
      * Получение списка броней всех вещей пользователя,
      * Список отсортированы по дату в порядке убывания
-     * GET /bookings/owner?state={state}
+     * GET /bookings/owner?state={state}&from={from}&size={size}
+     * Поддерживает тот же курсор afterStart и afterId, что и GET /bookings.
      * Headers X-Sharer-User-Id
      */
     @GetMapping("/owner")
     public List<BookingResponseDto> getBookingsAllItemsByState(@RequestParam(name = "state", defaultValue = "ALL") String state,
+                                               @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                               @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                               @RequestParam(name = "afterStart", required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime afterStart,
+                                               @RequestParam(name = "afterId", required = false) Long afterId,
                                                @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return bookingService.getBookingsAllItemsByState(state, userId);
+        return bookingService.getBookingsAllItemsByState(state, userId, from, size, afterStart, afterId);
     }
 }
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Публикуется после создания брони (статус WAITING).
+ */
+public record BookingCreatedEvent(Long bookingId, Long itemId, LocalDateTime start) {
+}
@@ -1,11 +1,17 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingPeriodDto;
+import ru.practicum.shareit.booking.dto.CurrentBookingEndDto;
+import ru.practicum.shareit.booking.dto.WaitingBookingDto;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,7 +22,7 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
         WHERE b.item.id = :itemId
           AND b.end < :now
           AND b.status = 'APPROVED'
-        ORDER BY b.end DESC
+        ORDER BY b.end DESC, b.id
         LIMIT 1
     """)
     Optional<Booking> findLastBooking(@Param("itemId") Long itemId, @Param("now") LocalDateTime now);
@@ -26,18 +32,143 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
         WHERE b.item.id = :itemId
           AND b.start >= :now
           AND b.status = 'APPROVED'
-        ORDER BY b.start ASC
+        ORDER BY b.start ASC, b.id
         LIMIT 1
     """)
     Optional<Booking> findNextBooking(@Param("itemId") Long itemId, @Param("now") LocalDateTime now);
 
+    @Query("SELECT MIN(b.end) FROM Booking b " +
+            "WHERE b.item.id = :itemId AND b.status = 'APPROVED' AND b.start < :now AND b.end >= :now")
+    Optional<LocalDateTime> findCurrentBookingEnd(@Param("itemId") Long itemId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.CurrentBookingEndDto(b.item.id, MIN(b.end)) " +
+            "FROM Booking b " +
+            "WHERE b.item.id IN :itemIds AND b.status = 'APPROVED' AND b.start < :now AND b.end >= :now " +
+            "GROUP BY b.item.id")
+    List<CurrentBookingEndDto> findCurrentBookingEnds(@Param("itemIds") Collection<Long> itemIds,
+                                                      @Param("now") LocalDateTime now);
+
+    /**
+     * Последняя завершившаяся и ближайшая будущая подтвержденные брони сразу для набора вещей.
+     * Для каждой вещи возвращается не больше одной брони каждого вида (при совпадении времени — несколько,
+     * тогда берется первая по id, как в {@link #findLastBooking} и {@link #findNextBooking}).
+     */
+    @Query("""
+        SELECT b FROM Booking b
+        JOIN FETCH b.booker
+        JOIN FETCH b.item
+        WHERE b.item.id IN :itemIds
+          AND b.status = 'APPROVED'
+          AND (b.end = (SELECT MAX(l.end) FROM Booking l
+                        WHERE l.item = b.item AND l.status = 'APPROVED' AND l.end < :now)
+            OR b.start = (SELECT MIN(n.start) FROM Booking n
+                          WHERE n.item = b.item AND n.status = 'APPROVED' AND n.start >= :now))
+        ORDER BY b.id
+    """)
+    List<Booking> findLastAndNextBookings(@Param("itemIds") Collection<Long> itemIds,
+                                          @Param("now") LocalDateTime now);
+
+    /**
+     * Брони WAITING в порядке начала, после курсора (start, id).
+     */
+    @Query("SELECT new ru.practicum.shareit.booking.dto.WaitingBookingDto(b.id, b.item.id, b.start) " +
+            "FROM Booking b " +
+            "WHERE b.status = 'WAITING' " +
+            "AND (b.start > :afterStart OR (b.start = :afterStart AND b.id > :afterId)) " +
+            "ORDER BY b.start, b.id")
+    List<WaitingBookingDto> findWaitingAfter(@Param("afterStart") LocalDateTime afterStart,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+
+    /**
+     * Блокирует те из броней, что еще в статусе WAITING и начались до {@code startedBefore}. Строки,
+     * заблокированные другими транзакциями (другой узел или подтверждение владельцем), пропускаются.
+     */
+    @Query(value = "SELECT b.id FROM bookings b " +
+            "WHERE b.id IN (:ids) AND b.status = 'WAITING' AND b.start_time <= :startedBefore " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockStartedWaiting(@Param("ids") Collection<Long> ids,
+                                  @Param("startedBefore") LocalDateTime startedBefore);
+
+    /**
+     * То же, что {@link #lockStartedWaiting(Collection, LocalDateTime)}, но для любых броней: самые старые первыми.
+     */
+    @Query(value = "SELECT b.id FROM bookings b " +
+            "WHERE b.status = 'WAITING' AND b.start_time <= :startedBefore " +
+            "ORDER BY b.start_time LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockStartedWaiting(@Param("startedBefore") LocalDateTime startedBefore, @Param("limit") int limit);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.WaitingBookingDto(b.id, b.item.id, b.start) " +
+            "FROM Booking b WHERE b.id IN :ids")
+    List<WaitingBookingDto> findWaitingByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Брони из {@code ids}, принадлежащие вещам владельца {@code ownerId}; чужие и несуществующие в результат не попадают.
+     */
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingPeriodDto(b.id, b.item.id, b.start, b.end) " +
+            "FROM Booking b WHERE b.id IN :ids AND b.item.owner.id = :ownerId")
+    List<BookingPeriodDto> findOwnedByIds(@Param("ids") Collection<Long> ids, @Param("ownerId") Long ownerId);
+
+    /**
+     * Блокирует те из броней, что еще в статусе WAITING, в порядке id. В отличие от обхода по сроку ждет
+     * занятые строки: владелец должен получить ответ по каждой брони.
+     */
+    @Query(value = "SELECT b.id FROM bookings b WHERE b.id IN (:ids) AND b.status = 'WAITING' " +
+            "ORDER BY b.id FOR UPDATE", nativeQuery = true)
+    List<Long> lockWaiting(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Подтвержденные брони вещей, пересекающиеся с периодом от {@code start} до {@code end}.
+     */
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingPeriodDto(b.id, b.item.id, b.start, b.end) " +
+            "FROM Booking b WHERE b.item.id IN :itemIds AND b.status = 'APPROVED' " +
+            "AND b.start < :end AND b.end > :start")
+    List<BookingPeriodDto> findApprovedOverlapping(@Param("itemIds") Collection<Long> itemIds,
+                                                   @Param("start") LocalDateTime start,
+                                                   @Param("end") LocalDateTime end);
+
+    /**
+     * Меняет статус и версию: подтверждение или отмена, прочитавшие бронь раньше, не перезапишут этот статус.
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 WHERE b.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
+
+    @Query("""
+        SELECT COUNT(b) > 0 FROM Booking b
+        WHERE b.item.id = :itemId
+          AND b.status IN ('WAITING', 'APPROVED')
+          AND b.start < :end
+          AND b.end > :start
+    """)
+    boolean existsOverlapping(@Param("itemId") Long itemId,
+                              @Param("start") LocalDateTime start,
+                              @Param("end") LocalDateTime end);
+
     @Query("SELECT b " +
             "FROM Booking b " +
             "JOIN FETCH b.item i " +
             "JOIN FETCH i.owner " +
             "WHERE b.booker.id = :id " +
-            "ORDER BY b.start DESC")
-    List<Booking> getBookingByStateALL(@Param("id") Long id);
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> getBookingByStateALL(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Продолжение {@link #getBookingByStateALL} после брони (afterStart, afterId).
+     */
+    @Query("SELECT b " +
+            "FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH i.owner " +
+            "WHERE b.booker.id = :id " +
+            "AND b.start <= :afterStart " +
+            "AND (b.start < :afterStart OR b.id < :afterId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> getBookingByStateALLAfter(@Param("id") Long id,
+                                            @Param("afterStart") LocalDateTime afterStart,
+                                            @Param("afterId") Long afterId,
+                                            Pageable pageable);
 
     @Query("SELECT b " +
             "FROM Booking b " +
@@ -45,8 +176,28 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "JOIN FETCH i.owner " +
             "WHERE b.booker.id = :id " +
             "AND b.status = :status " +
-            "ORDER BY b.start DESC")
-    List<Booking> getBookingByStateStatus(@Param("id") Long id, @Param("status") BookingStatus status);
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> getBookingByStateStatus(@Param("id") Long id,
+                                          @Param("status") BookingStatus status,
+                                          Pageable pageable);
+
+    /**
+     * Продолжение {@link #getBookingByStateStatus} после брони (afterStart, afterId).
+     */
+    @Query("SELECT b " +
+            "FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH i.owner " +
+            "WHERE b.booker.id = :id " +
+            "AND b.status = :status " +
+            "AND b.start <= :afterStart " +
+            "AND (b.start < :afterStart OR b.id < :afterId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> getBookingByStateStatusAfter(@Param("id") Long id,
+                                               @Param("status") BookingStatus status,
+                                               @Param("afterStart") LocalDateTime afterStart,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
 
     @Query("SELECT b " +
             "FROM Booking b " +
@@ -56,9 +207,30 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "AND b.status = 'APPROVED' " +
             "AND b.start <= :currentTime " +
             "AND b.end >= :currentTime " +
-            "ORDER BY b.start DESC")
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> getBookingByStateCurrent(@Param("id") Long id,
-                                           @Param("currentTime")LocalDateTime currentTime);
+                                           @Param("currentTime") LocalDateTime currentTime,
+                                           Pageable pageable);
+
+    /**
+     * Продолжение {@link #getBookingByStateCurrent} после брони (afterStart, afterId).
+     */
+    @Query("SELECT b " +
+            "FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH i.owner " +
+            "WHERE b.booker.id = :id " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start <= :currentTime " +
+            "AND b.end >= :currentTime " +
+            "AND b.start <= :afterStart " +
+            "AND (b.start < :afterStart OR b.id < :afterId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> getBookingByStateCurrentAfter(@Param("id") Long id,
+                                                @Param("currentTime") LocalDateTime currentTime,
+                                                @Param("afterStart") LocalDateTime afterStart,
+                                                @Param("afterId") Long afterId,
+                                                Pageable pageable);
 
     @Query("SELECT b " +
             "FROM Booking b " +
@@ -67,9 +239,29 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "WHERE b.booker.id = :id " +
             "AND b.status = 'APPROVED' " +
             "AND b.start >= :currentTime " +
-            "ORDER BY b.start DESC")
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> getBookingByStateFuture(@Param("id") Long id,
-                                           @Param("currentTime")LocalDateTime currentTime);
+                                          @Param("currentTime") LocalDateTime currentTime,
+                                          Pageable pageable);
+
+    /**
+     * Продолжение {@link #getBookingByStateFuture} после брони (afterStart, afterId).
+     */
+    @Query("SELECT b " +
+            "FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH i.owner " +
+            "WHERE b.booker.id = :id " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start >= :currentTime " +
+            "AND b.start <= :afterStart " +
+            "AND (b.start < :afterStart OR b.id < :afterId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> getBookingByStateFutureAfter(@Param("id") Long id,
+                                               @Param("currentTime") LocalDateTime currentTime,
+                                               @Param("afterStart") LocalDateTime afterStart,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
 
     @Query("SELECT b " +
             "FROM Booking b " +
@@ -78,17 +270,53 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "WHERE b.booker.id = :id " +
             "AND b.status = 'APPROVED' " +
             "AND b.end <= :currentTime " +
-            "ORDER BY b.start DESC")
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> getBookingByStatePast(@Param("id") Long id,
-                                          @Param("currentTime")LocalDateTime currentTime);
+                                        @Param("currentTime") LocalDateTime currentTime,
+                                        Pageable pageable);
+
+    /**
+     * Продолжение {@link #getBookingByStatePast} после брони (afterStart, afterId).
+     */
+    @Query("SELECT b " +
+            "FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH i.owner " +
+            "WHERE b.booker.id = :id " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.end <= :currentTime " +
+            "AND b.start <= :afterStart " +
+            "AND (b.start < :afterStart OR b.id < :afterId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> getBookingByStatePastAfter(@Param("id") Long id,
+                                             @Param("currentTime") LocalDateTime currentTime,
+                                             @Param("afterStart") LocalDateTime afterStart,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
 
     @Query("SELECT b " +
             "FROM Booking b " +
             "JOIN FETCH b.item i " +
             "JOIN FETCH i.owner " +
             "WHERE i.owner.id = :id " +
-            "ORDER BY b.start DESC")
-    List<Booking> getBookingAllItemsByStateALL(@Param("id") Long id);
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> getBookingAllItemsByStateALL(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Продолжение {@link #getBookingAllItemsByStateALL} после брони (afterStart, afterId).
+     */
+    @Query("SELECT b " +
+            "FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH i.owner " +
+            "WHERE i.owner.id = :id " +
+            "AND b.start <= :afterStart " +
+            "AND (b.start < :afterStart OR b.id < :afterId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> getBookingAllItemsByStateALLAfter(@Param("id") Long id,
+                                                    @Param("afterStart") LocalDateTime afterStart,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable pageable);
 
     @Query("SELECT b " +
             "FROM Booking b " +
@@ -96,8 +324,28 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "JOIN FETCH i.owner " +
             "WHERE i.owner.id = :id " +
             "AND b.status = :status " +
-            "ORDER BY b.start DESC")
-    List<Booking> getBookingAllItemsByStateStatus(@Param("id") Long id, @Param("status") BookingStatus status);
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> getBookingAllItemsByStateStatus(@Param("id") Long id,
+                                                  @Param("status") BookingStatus status,
+                                                  Pageable pageable);
+
+    /**
+     * Продолжение {@link #getBookingAllItemsByStateStatus} после брони (afterStart, afterId).
+     */
+    @Query("SELECT b " +
+            "FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH i.owner " +
+            "WHERE i.owner.id = :id " +
+            "AND b.status = :status " +
+            "AND b.start <= :afterStart " +
+            "AND (b.start < :afterStart OR b.id < :afterId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> getBookingAllItemsByStateStatusAfter(@Param("id") Long id,
+                                                       @Param("status") BookingStatus status,
+                                                       @Param("afterStart") LocalDateTime afterStart,
+                                                       @Param("afterId") Long afterId,
+                                                       Pageable pageable);
 
     @Query("SELECT b " +
             "FROM Booking b " +
@@ -107,9 +355,30 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "AND b.status = 'APPROVED' " +
             "AND b.start <= :currentTime " +
             "AND b.end >= :currentTime " +
-            "ORDER BY b.start DESC")
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> getBookingAllItemsByStateCurrent(@Param("id") Long id,
-                                           @Param("currentTime")LocalDateTime currentTime);
+                                                   @Param("currentTime") LocalDateTime currentTime,
+                                                   Pageable pageable);
+
+    /**
+     * Продолжение {@link #getBookingAllItemsByStateCurrent} после брони (afterStart, afterId).
+     */
+    @Query("SELECT b " +
+            "FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH i.owner " +
+            "WHERE i.owner.id = :id " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start <= :currentTime " +
+            "AND b.end >= :currentTime " +
+            "AND b.start <= :afterStart " +
+            "AND (b.start < :afterStart OR b.id < :afterId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> getBookingAllItemsByStateCurrentAfter(@Param("id") Long id,
+                                                        @Param("currentTime") LocalDateTime currentTime,
+                                                        @Param("afterStart") LocalDateTime afterStart,
+                                                        @Param("afterId") Long afterId,
+                                                        Pageable pageable);
 
     @Query("SELECT b " +
             "FROM Booking b " +
@@ -118,9 +387,29 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "WHERE i.owner.id = :id " +
             "AND b.status = 'APPROVED' " +
             "AND b.start >= :currentTime " +
-            "ORDER BY b.start DESC")
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> getBookingAllItemsByStateFuture(@Param("id") Long id,
-                                          @Param("currentTime")LocalDateTime currentTime);
+                                                  @Param("currentTime") LocalDateTime currentTime,
+                                                  Pageable pageable);
+
+    /**
+     * Продолжение {@link #getBookingAllItemsByStateFuture} после брони (afterStart, afterId).
+     */
+    @Query("SELECT b " +
+            "FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH i.owner " +
+            "WHERE i.owner.id = :id " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start >= :currentTime " +
+            "AND b.start <= :afterStart " +
+            "AND (b.start < :afterStart OR b.id < :afterId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> getBookingAllItemsByStateFutureAfter(@Param("id") Long id,
+                                                       @Param("currentTime") LocalDateTime currentTime,
+                                                       @Param("afterStart") LocalDateTime afterStart,
+                                                       @Param("afterId") Long afterId,
+                                                       Pageable pageable);
 
     @Query("SELECT b " +
             "FROM Booking b " +
@@ -129,9 +418,29 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "WHERE i.owner.id = :id " +
             "AND b.status = 'APPROVED' " +
             "AND b.end <= :currentTime " +
-            "ORDER BY b.start DESC")
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> getBookingAllItemsByStatePast(@Param("id") Long id,
-                                        @Param("currentTime")LocalDateTime currentTime);
+                                                @Param("currentTime") LocalDateTime currentTime,
+                                                Pageable pageable);
+
+    /**
+     * Продолжение {@link #getBookingAllItemsByStatePast} после брони (afterStart, afterId).
+     */
+    @Query("SELECT b " +
+            "FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH i.owner " +
+            "WHERE i.owner.id = :id " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.end <= :currentTime " +
+            "AND b.start <= :afterStart " +
+            "AND (b.start < :afterStart OR b.id < :afterId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> getBookingAllItemsByStatePastAfter(@Param("id") Long id,
+                                                     @Param("currentTime") LocalDateTime currentTime,
+                                                     @Param("afterStart") LocalDateTime afterStart,
+                                                     @Param("afterId") Long afterId,
+                                                     Pageable pageable);
 
     @Query("SELECT b " +
             "FROM Booking b " +
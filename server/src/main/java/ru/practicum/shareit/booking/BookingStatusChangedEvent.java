@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+/**
+ * Публикуется после подтверждения, отклонения или отмены брони.
+ */
+public record BookingStatusChangedEvent(Long bookingId, Long itemId, BookingStatus status) {
+}
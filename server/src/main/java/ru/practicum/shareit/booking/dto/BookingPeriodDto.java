@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Бронь для проверки пересечений: только id, вещь и период.
+ */
+public record BookingPeriodDto(Long id, Long itemId, LocalDateTime start, LocalDateTime end) {
+
+    public boolean overlaps(BookingPeriodDto other) {
+        return itemId.equals(other.itemId) && start.isBefore(other.end) && end.isAfter(other.start);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -16,4 +17,10 @@ public class BookingResponseDto {
     private ItemDto item;
     private UserDto booker;
     private String status;
+
+    /**
+     * Версия записи; уходит клиенту в заголовке ETag, а не в теле.
+     */
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.util.List;
+
+/**
+ * Брони, которые владелец подтверждает или отклоняет одним запросом.
+ */
+public record BookingStatusBulkDto(List<Long> bookingIds) {
+}
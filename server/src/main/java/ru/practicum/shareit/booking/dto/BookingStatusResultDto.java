@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.enums.BulkStatusOutcome;
+
+/**
+ * Итог изменения статуса одной брони из пакета. {@code status} — новый статус, если бронь изменена,
+ * иначе {@code message} объясняет причину.
+ */
+public record BookingStatusResultDto(Long bookingId, BulkStatusOutcome outcome, BookingStatus status,
+                                     String message) {
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Время окончания подтвержденной брони, которая идет у вещи сейчас.
+ */
+public record CurrentBookingEndDto(Long itemId, LocalDateTime end) {
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Бронь в статусе WAITING для колеса таймеров: только id, вещь и начало.
+ */
+public record WaitingBookingDto(Long id, Long itemId, LocalDateTime start) {
+}
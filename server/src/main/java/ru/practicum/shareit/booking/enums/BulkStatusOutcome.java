@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.enums;
+
+public enum BulkStatusOutcome {
+    UPDATED,
+    NOT_FOUND,
+    ALREADY_DECIDED,
+    OVERLAPPING
+}
@@ -0,0 +1,212 @@
+package ru.practicum.shareit.booking.lifecycle;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingCreatedEvent;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatusChangedEvent;
+import ru.practicum.shareit.booking.dto.WaitingBookingDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Отклоняет брони, которые так и остались в статусе WAITING, когда с их начала прошло
+ * {@code shareit.booking.lifecycle.expire-after}. Для каждой такой брони публикуется
+ * {@link BookingStatusChangedEvent} со статусом REJECTED.
+ * <p>
+ * Сроки броней этого узла лежат в {@link HierarchicalTimingWheel}: при старте туда загружаются будущие брони WAITING,
+ * после коммита создания добавляется новая, а раз в {@code tick} наступившие сроки отклоняются пачками.
+ * Брони, созданные на других узлах или пропущенные при остановке, раз в {@code sweep-interval} находит обход по базе.
+ * Оба пути блокируют строки с SKIP LOCKED и меняют только брони, которые все еще WAITING, поэтому несколько узлов
+ * не отклоняют одну бронь дважды и не ждут друг друга, а подтверждение владельцем не теряется.
+ */
+@Slf4j
+@Component
+public class BookingLifecycleScheduler {
+    private static final int WHEEL_LEVELS = 4;
+
+    private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration expireAfter;
+    private final int batchSize;
+
+    /**
+     * Колесо меняют поток таймера и обработчики создания броней. Не {@code synchronized}, чтобы не закреплять
+     * виртуальный поток за потоком-носителем.
+     */
+    private final Lock wheelLock = new ReentrantLock();
+    private final HierarchicalTimingWheel<Long> wheel;
+    private final Counter expiredByWheel;
+    private final Counter expiredBySweep;
+
+    public BookingLifecycleScheduler(BookingRepository bookingRepository, ApplicationEventPublisher eventPublisher,
+                                     PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                     @Value("${shareit.booking.lifecycle.expire-after:PT1H}") Duration expireAfter,
+                                     @Value("${shareit.booking.lifecycle.tick:PT1S}") Duration tick,
+                                     @Value("${shareit.booking.lifecycle.batch-size:500}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expireAfter = expireAfter;
+        this.batchSize = batchSize;
+        this.wheel = new HierarchicalTimingWheel<>(tick.toMillis(), WHEEL_LEVELS, toMillis(LocalDateTime.now()));
+
+        Gauge.builder("shareit.booking.lifecycle.scheduled", this, BookingLifecycleScheduler::scheduled)
+                .description("Брони WAITING, ожидающие срока в колесе таймеров")
+                .register(meterRegistry);
+        this.expiredByWheel = expiredCounter(meterRegistry, "wheel");
+        this.expiredBySweep = expiredCounter(meterRegistry, "sweep");
+    }
+
+    /**
+     * Загружает в колесо брони WAITING, срок которых еще не наступил; уже просроченные отклонит обход.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime afterStart = startedBefore(LocalDateTime.now());
+        long afterId = Long.MAX_VALUE;
+        int loaded = 0;
+        while (true) {
+            List<WaitingBookingDto> page = bookingRepository.findWaitingAfter(afterStart, afterId,
+                    PageRequest.of(0, batchSize));
+            page.forEach(booking -> schedule(booking.id(), booking.start()));
+            loaded += page.size();
+            if (page.size() < batchSize) {
+                break;
+            }
+            WaitingBookingDto last = page.getLast();
+            afterStart = last.start();
+            afterId = last.id();
+        }
+        log.info("В колесо таймеров загружено {} броней WAITING", loaded);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingCreated(BookingCreatedEvent event) {
+        schedule(event.bookingId(), event.start());
+    }
+
+    /**
+     * Отклоняет брони, срок которых наступил по колесу.
+     *
+     * @return сколько броней отклонено
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking.lifecycle.tick:PT1S}")
+    public int tick() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = new ArrayList<>();
+        wheelLock.lock();
+        try {
+            wheel.advance(toMillis(now), due::add);
+        } finally {
+            wheelLock.unlock();
+        }
+        int expired = 0;
+        LocalDateTime startedBefore = startedBefore(now);
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(due.size(), from + batchSize));
+            expired += transactionTemplate.execute(status ->
+                    expire(bookingRepository.lockStartedWaiting(batch, startedBefore)));
+        }
+        expiredByWheel.increment(expired);
+        return expired;
+    }
+
+    /**
+     * Отклоняет просроченные брони по базе, самые старые первыми, пачками по {@code batch-size}.
+     *
+     * @return сколько броней отклонено
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking.lifecycle.sweep-interval:PT1M}",
+            initialDelayString = "${shareit.booking.lifecycle.sweep-initial-delay:PT10S}")
+    public int sweep() {
+        LocalDateTime startedBefore = startedBefore(LocalDateTime.now());
+        int expired = 0;
+        while (true) {
+            int batch = transactionTemplate.execute(status ->
+                    expire(bookingRepository.lockStartedWaiting(startedBefore, batchSize)));
+            expired += batch;
+            if (batch < batchSize) {
+                break;
+            }
+        }
+        expiredBySweep.increment(expired);
+        if (expired > 0) {
+            log.info("Обход отклонил {} просроченных броней WAITING", expired);
+        }
+        return expired;
+    }
+
+    public int scheduled() {
+        wheelLock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    /**
+     * Отклоняет заблокированные брони одним UPDATE; события уходят подписчикам после коммита.
+     */
+    private int expire(List<Long> lockedIds) {
+        if (lockedIds.isEmpty()) {
+            return 0;
+        }
+        List<WaitingBookingDto> bookings = bookingRepository.findWaitingByIds(lockedIds);
+        bookingRepository.updateStatus(lockedIds, BookingStatus.REJECTED);
+        for (WaitingBookingDto booking : bookings) {
+            log.debug("Бронь {} не подтверждена до начала {} и отклонена", booking.id(), booking.start());
+            eventPublisher.publishEvent(new BookingStatusChangedEvent(booking.id(), booking.itemId(),
+                    BookingStatus.REJECTED));
+        }
+        return lockedIds.size();
+    }
+
+    private void schedule(Long bookingId, LocalDateTime start) {
+        wheelLock.lock();
+        try {
+            wheel.schedule(bookingId, toMillis(start.plus(expireAfter)));
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    private LocalDateTime startedBefore(LocalDateTime now) {
+        return now.minus(expireAfter);
+    }
+
+    /**
+     * Время броней хранится без зоны; для колеса важна только разница, поэтому зона берется любая, но одна.
+     */
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static Counter expiredCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("shareit.booking.lifecycle.expired")
+                .description("Брони WAITING, отклоненные после начала без подтверждения")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
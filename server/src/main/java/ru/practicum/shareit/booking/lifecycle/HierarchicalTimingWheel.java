@@ -0,0 +1,124 @@
+package ru.practicum.shareit.booking.lifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Иерархическое колесо таймеров: добавление и срабатывание за O(1) независимо от числа отложенных задач.
+ * <p>
+ * Время делится на тики по {@code tickMillis}. Номер тика срабатывания записывается цифрами по основанию
+ * {@value #WHEEL_SIZE}; задача лежит на уровне старшей цифры, которой ее тик отличается от текущего, в ячейке
+ * с этой цифрой. Когда текущий тик доходит до ячейки верхнего уровня, ее задачи раскладываются по нижним уровням,
+ * и так до нулевого, где они срабатывают. Задачи дальше {@code WHEEL_SIZE^levels} тиков ждут в общем списке
+ * и раскладываются, когда до них дойдет очередь.
+ * <p>
+ * Не потокобезопасно; время передается вызывающим.
+ */
+public class HierarchicalTimingWheel<T> {
+    private static final int BITS = 6;
+    static final int WHEEL_SIZE = 1 << BITS;
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private final long tickMillis;
+    private final int levels;
+    private final List<List<Entry<T>>> buckets;
+    private List<Entry<T>> overflow = new ArrayList<>();
+    private List<Entry<T>> due = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMillis, int levels, long nowMillis) {
+        if (tickMillis <= 0 || levels <= 0 || levels * BITS >= Long.SIZE - 1) {
+            throw new IllegalArgumentException("Некорректные параметры колеса: tick = " + tickMillis
+                    + " мс, levels = " + levels);
+        }
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.buckets = new ArrayList<>(levels * WHEEL_SIZE);
+        for (int i = 0; i < levels * WHEEL_SIZE; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+    }
+
+    /**
+     * Откладывает задачу до момента {@code deadlineMillis}; задача с прошедшим сроком сработает
+     * при следующем {@link #advance}.
+     */
+    public void schedule(T task, long deadlineMillis) {
+        place(new Entry<>(task, Math.ceilDiv(deadlineMillis, tickMillis)));
+        size++;
+    }
+
+    /**
+     * Продвигает колесо до {@code nowMillis} и передает задачи, срок которых наступил.
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        fire(expired);
+        while (currentTick < targetTick) {
+            currentTick++;
+            if ((currentTick >>> (levels * BITS)) << (levels * BITS) == currentTick) {
+                List<Entry<T>> far = overflow;
+                overflow = new ArrayList<>();
+                far.forEach(this::place);
+            }
+            for (int level = levels - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (level * BITS)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+            cascade(0);
+            fire(expired);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void cascade(int level) {
+        List<Entry<T>> bucket = bucket(level, digit(currentTick, level));
+        if (bucket.isEmpty()) {
+            return;
+        }
+        List<Entry<T>> entries = new ArrayList<>(bucket);
+        bucket.clear();
+        entries.forEach(this::place);
+    }
+
+    private void place(Entry<T> entry) {
+        if (entry.tick() <= currentTick) {
+            due.add(entry);
+            return;
+        }
+        int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(entry.tick() ^ currentTick)) / BITS;
+        if (level >= levels) {
+            overflow.add(entry);
+        } else {
+            bucket(level, digit(entry.tick(), level)).add(entry);
+        }
+    }
+
+    private void fire(Consumer<T> expired) {
+        if (due.isEmpty()) {
+            return;
+        }
+        List<Entry<T>> fired = due;
+        due = new ArrayList<>();
+        size -= fired.size();
+        fired.forEach(entry -> expired.accept(entry.task()));
+    }
+
+    private List<Entry<T>> bucket(int level, int digit) {
+        return buckets.get(level * WHEEL_SIZE + digit);
+    }
+
+    private static int digit(long tick, int level) {
+        return (int) (tick >>> (level * BITS)) & MASK;
+    }
+
+    private record Entry<T>(T task, long tick) {
+    }
+}
@@ -2,20 +2,35 @@ package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface BookingService {
+    int MAX_BULK_SIZE = 100;
 
     BookingResponseDto createBooking(Long userId, BookingDto bookingDto);
 
-    BookingResponseDto approveBooking(Long userId, Long bookingId, Boolean approved);
+    /**
+     * @param ifMatch ETag брони, прочитанный клиентом; {@code null} — без проверки версии
+     */
+    BookingResponseDto approveBooking(Long userId, Long bookingId, Boolean approved, String ifMatch);
 
-    BookingResponseDto canceledBooking(Long userId, Long bookingId);
+    BookingResponseDto canceledBooking(Long userId, Long bookingId, String ifMatch);
+
+    /**
+     * Подтверждает или отклоняет брони вещей владельца одной транзакцией, не больше {@link #MAX_BULK_SIZE} за раз.
+     *
+     * @return итог по каждой брони в порядке {@code bookingIds}
+     */
+    List<BookingStatusResultDto> changeBookingsStatus(Long userId, List<Long> bookingIds, Boolean approved);
 
     BookingResponseDto getBooking(Long userId, Long bookingId);
 
-    List<BookingResponseDto> getBookingByState(Long userId, String state);
+    List<BookingResponseDto> getBookingByState(Long userId, String state, Integer from, Integer size,
+                                               LocalDateTime afterStart, Long afterId);
 
-    List<BookingResponseDto> getBookingsAllItemsByState(String state, Long userId);
+    List<BookingResponseDto> getBookingsAllItemsByState(String state, Long userId, Integer from, Integer size,
+                                                        LocalDateTime afterStart, Long afterId);
 }
@@ -1,79 +1,208 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.aop.MeterTag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.ETags;
+import ru.practicum.shareit.OffsetPageRequest;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingCreatedEvent;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatusChangedEvent;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPeriodDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.enums.BulkStatusOutcome;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.UnavailableActionError;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.pointer.ItemBookingPointers;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Списки броней учитываются отдельным таймером {@code shareit.booking.list} с тегом {@code state} — веткой выборки;
+ * остальные методы — таймером {@code shareit.service}.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
+@Timed("shareit.service")
 public class BookingServiceImpl implements BookingService {
     private final BookingRepository repository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingMapper bookingMapper;
+    private final ItemBookingPointers bookingPointers;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Ограничение из миграции V2, запрещающее пересечение ожидающих и подтвержденных броней одной вещи.
+     */
+    private static final String OVERLAP_CONSTRAINT = "excl_bookings_item_period";
+    private static final String EXCLUSION_VIOLATION_STATE = "23P01";
 
     @Override
     public BookingResponseDto createBooking(Long userId, BookingDto bookingDto) {
         log.info("Пользователь с id {} создает бронь", userId);
         User user = getUser(userId);
-        Item item = checkItem(bookingDto.getItemId());
+        Item item = lockItem(bookingDto.getItemId());
         if (!item.getAvailable()) {
             throw new UnavailableActionError("Вещь с id " + bookingDto.getItemId() + " недоступна для бронирования");
         }
+        if (repository.existsOverlapping(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
+            throw new ConflictException("Вещь с id " + item.getId() + " уже забронирована на пересекающийся период");
+        }
         bookingDto.setStatus(String.valueOf(BookingStatus.WAITING));
         Booking bookingEntity = bookingMapper.mapBooking(bookingDto, user, item);
-        return bookingMapper.mapBookingResponseDto(repository.save(bookingEntity));
+        try {
+            Booking saved = repository.save(bookingEntity);
+            eventPublisher.publishEvent(new BookingCreatedEvent(saved.getId(), item.getId(), saved.getStart()));
+            return bookingMapper.mapBookingResponseDto(saved);
+        } catch (DataIntegrityViolationException e) {
+            if (!isOverlapViolation(e)) {
+                throw e;
+            }
+            throw new ConflictException("Вещь с id " + item.getId() + " уже забронирована на пересекающийся период");
+        }
     }
 
     @Override
-    public BookingResponseDto approveBooking(Long userId, Long bookingId, Boolean approved) {
+    public BookingResponseDto approveBooking(Long userId, Long bookingId, Boolean approved, String ifMatch) {
         log.info("Пользователь с id {} изменяет статус брони {}", userId, bookingId);
         Booking booking = checkBooking(bookingId);
+        ETags.checkIfMatch(ifMatch, booking.getVersion(), "Бронь " + bookingId);
 
         if (booking.getStatus() != BookingStatus.WAITING) {
             throw new UnavailableActionError("Статус бронирования уже изменен");
         }
 
-        Item item = checkItem(booking.getItem().getId());
+        Item item = lockItem(booking.getItem().getId());
         if (!item.getOwner().getId().equals(userId)) {
             throw new UnavailableActionError("Пользователь с id " + userId + " не может редактировать статус этой вещи");
         }
 
+        // если бронь успели отменить или отклонить по сроку, версия не совпадет и UPDATE не пройдет
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        return bookingMapper.mapBookingResponseDto(repository.save(booking));
+        Booking saved = repository.saveAndFlush(booking);
+        if (approved) {
+            bookingPointers.refresh(item, ItemBookingPointers.now());
+        }
+        eventPublisher.publishEvent(new BookingStatusChangedEvent(saved.getId(), item.getId(), saved.getStatus()));
+        return bookingMapper.mapBookingResponseDto(saved);
     }
 
     @Override
-    public BookingResponseDto canceledBooking(Long userId, Long bookingId) {
+    public BookingResponseDto canceledBooking(Long userId, Long bookingId, String ifMatch) {
         log.info("Пользователь с id {} отменяет бронь {}", userId, bookingId);
         Booking booking = checkBooking(bookingId);
+        ETags.checkIfMatch(ifMatch, booking.getVersion(), "Бронь " + bookingId);
 
         if (!booking.getBooker().getId().equals(userId)) {
             throw new UnavailableActionError("Пользователь с id " + userId + " не может отменить бронь, так как она не " +
                     "принадлежит ему");
         }
 
+        Item item = lockItem(booking.getItem().getId());
+        BookingStatus previous = booking.getStatus();
         booking.setStatus(BookingStatus.CANCELED);
-        return bookingMapper.mapBookingResponseDto(repository.save(booking));
+        Booking saved = repository.saveAndFlush(booking);
+        if (previous == BookingStatus.APPROVED) {
+            bookingPointers.refresh(item, ItemBookingPointers.now());
+        }
+        eventPublisher.publishEvent(new BookingStatusChangedEvent(saved.getId(), saved.getItem().getId(),
+                saved.getStatus()));
+        return bookingMapper.mapBookingResponseDto(saved);
+    }
+
+    @Override
+    public List<BookingStatusResultDto> changeBookingsStatus(Long userId, List<Long> bookingIds, Boolean approved) {
+        log.info("Пользователь с id {} изменяет статус броней {}, approved = {}", userId, bookingIds, approved);
+        Set<Long> ids = checkBulkIds(bookingIds);
+        Map<Long, BookingPeriodDto> owned = repository.findOwnedByIds(ids, userId).stream()
+                .collect(Collectors.toMap(BookingPeriodDto::id, Function.identity()));
+        if (owned.isEmpty()) {
+            return ids.stream().map(BookingServiceImpl::notFound).toList();
+        }
+
+        // вещи блокируются раньше броней, как при подтверждении одной брони, чтобы не ждать друг друга по кругу
+        List<Item> items = approved
+                ? itemRepository.findAllByIdForUpdate(owned.values().stream().map(BookingPeriodDto::itemId)
+                        .collect(Collectors.toSet()))
+                : List.of();
+        Set<Long> waiting = new HashSet<>(repository.lockWaiting(owned.keySet()));
+        Map<Long, List<BookingPeriodDto>> approvedByItem = approved
+                ? findApprovedOverlapping(owned.values(), waiting)
+                : Map.of();
+
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        List<BookingStatusResultDto> results = new ArrayList<>(ids.size());
+        List<BookingPeriodDto> changed = new ArrayList<>();
+        for (Long id : ids) {
+            BookingPeriodDto booking = owned.get(id);
+            if (booking == null) {
+                results.add(notFound(id));
+                continue;
+            }
+            if (!waiting.contains(id)) {
+                results.add(new BookingStatusResultDto(id, BulkStatusOutcome.ALREADY_DECIDED, null,
+                        "Статус бронирования уже изменен"));
+                continue;
+            }
+            if (approved) {
+                List<BookingPeriodDto> itemApproved = approvedByItem.computeIfAbsent(booking.itemId(),
+                        itemId -> new ArrayList<>());
+                Optional<BookingPeriodDto> overlapping = itemApproved.stream().filter(booking::overlaps).findFirst();
+                if (overlapping.isPresent()) {
+                    results.add(new BookingStatusResultDto(id, BulkStatusOutcome.OVERLAPPING, null,
+                            "Пересекается с подтвержденной бронью " + overlapping.get().id()));
+                    continue;
+                }
+                itemApproved.add(booking);
+            }
+            changed.add(booking);
+            results.add(new BookingStatusResultDto(id, BulkStatusOutcome.UPDATED, status, null));
+        }
+
+        if (!changed.isEmpty()) {
+            repository.updateStatus(changed.stream().map(BookingPeriodDto::id).toList(), status);
+            if (approved) {
+                bookingPointers.refreshAll(items, ItemBookingPointers.now());
+            }
+            changed.forEach(booking -> eventPublisher.publishEvent(
+                    new BookingStatusChangedEvent(booking.id(), booking.itemId(), status)));
+        }
+        return results;
     }
 
     @Override
@@ -92,40 +221,117 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingResponseDto> getBookingByState(Long userId, String state) {
+    @Timed("shareit.booking.list")
+    public List<BookingResponseDto> getBookingByState(Long userId,
+                                                      @MeterTag(key = "state", resolver = BookingStateTagResolver.class)
+                                                      String state, Integer from, Integer size,
+                                                      LocalDateTime afterStart, Long afterId) {
         BookingState bookingState = checkState(state);
+        Pageable page = checkPage(from, size, afterStart, afterId);
         getUser(userId);
         LocalDateTime currentTime = LocalDateTime.now();
-        List<Booking> bookings = switch (bookingState) {
-            case WAITING -> repository.getBookingByStateStatus(userId, BookingStatus.WAITING);
-            case REJECTED -> repository.getBookingByStateStatus(userId, BookingStatus.REJECTED);
-            case CURRENT -> repository.getBookingByStateCurrent(userId, currentTime);
-            case PAST -> repository.getBookingByStatePast(userId, currentTime);
-            case FUTURE -> repository.getBookingByStateFuture(userId, currentTime);
-            default -> repository.getBookingByStateALL(userId);
-        };
+        List<Booking> bookings;
+        if (afterStart == null) {
+            bookings = switch (bookingState) {
+                case WAITING -> repository.getBookingByStateStatus(userId, BookingStatus.WAITING, page);
+                case REJECTED -> repository.getBookingByStateStatus(userId, BookingStatus.REJECTED, page);
+                case CURRENT -> repository.getBookingByStateCurrent(userId, currentTime, page);
+                case PAST -> repository.getBookingByStatePast(userId, currentTime, page);
+                case FUTURE -> repository.getBookingByStateFuture(userId, currentTime, page);
+                default -> repository.getBookingByStateALL(userId, page);
+            };
+        } else {
+            bookings = switch (bookingState) {
+                case WAITING -> repository.getBookingByStateStatusAfter(userId, BookingStatus.WAITING,
+                        afterStart, afterId, page);
+                case REJECTED -> repository.getBookingByStateStatusAfter(userId, BookingStatus.REJECTED,
+                        afterStart, afterId, page);
+                case CURRENT -> repository.getBookingByStateCurrentAfter(userId, currentTime,
+                        afterStart, afterId, page);
+                case PAST -> repository.getBookingByStatePastAfter(userId, currentTime, afterStart, afterId, page);
+                case FUTURE -> repository.getBookingByStateFutureAfter(userId, currentTime,
+                        afterStart, afterId, page);
+                default -> repository.getBookingByStateALLAfter(userId, afterStart, afterId, page);
+            };
+        }
 
         return bookingMapper.mapListBookingResponseDto(bookings);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingResponseDto> getBookingsAllItemsByState(String state, Long userId) {
+    @Timed("shareit.booking.list")
+    public List<BookingResponseDto> getBookingsAllItemsByState(@MeterTag(key = "state",
+                                                                       resolver = BookingStateTagResolver.class)
+                                                               String state, Long userId, Integer from, Integer size,
+                                                               LocalDateTime afterStart, Long afterId) {
         BookingState bookingState = checkState(state);
+        Pageable page = checkPage(from, size, afterStart, afterId);
         getUser(userId);
         LocalDateTime currentTime = LocalDateTime.now();
-        List<Booking> bookings = switch (bookingState) {
-            case WAITING -> repository.getBookingAllItemsByStateStatus(userId, BookingStatus.WAITING);
-            case REJECTED -> repository.getBookingAllItemsByStateStatus(userId, BookingStatus.REJECTED);
-            case CURRENT -> repository.getBookingAllItemsByStateCurrent(userId, currentTime);
-            case PAST -> repository.getBookingAllItemsByStatePast(userId, currentTime);
-            case FUTURE -> repository.getBookingAllItemsByStateFuture(userId, currentTime);
-            default -> repository.getBookingAllItemsByStateALL(userId);
-        };
+        List<Booking> bookings;
+        if (afterStart == null) {
+            bookings = switch (bookingState) {
+                case WAITING -> repository.getBookingAllItemsByStateStatus(userId, BookingStatus.WAITING, page);
+                case REJECTED -> repository.getBookingAllItemsByStateStatus(userId, BookingStatus.REJECTED, page);
+                case CURRENT -> repository.getBookingAllItemsByStateCurrent(userId, currentTime, page);
+                case PAST -> repository.getBookingAllItemsByStatePast(userId, currentTime, page);
+                case FUTURE -> repository.getBookingAllItemsByStateFuture(userId, currentTime, page);
+                default -> repository.getBookingAllItemsByStateALL(userId, page);
+            };
+        } else {
+            bookings = switch (bookingState) {
+                case WAITING -> repository.getBookingAllItemsByStateStatusAfter(userId, BookingStatus.WAITING,
+                        afterStart, afterId, page);
+                case REJECTED -> repository.getBookingAllItemsByStateStatusAfter(userId, BookingStatus.REJECTED,
+                        afterStart, afterId, page);
+                case CURRENT -> repository.getBookingAllItemsByStateCurrentAfter(userId, currentTime,
+                        afterStart, afterId, page);
+                case PAST -> repository.getBookingAllItemsByStatePastAfter(userId, currentTime,
+                        afterStart, afterId, page);
+                case FUTURE -> repository.getBookingAllItemsByStateFutureAfter(userId, currentTime,
+                        afterStart, afterId, page);
+                default -> repository.getBookingAllItemsByStateALLAfter(userId, afterStart, afterId, page);
+            };
+        }
 
         return bookingMapper.mapListBookingResponseDto(bookings);
     }
 
+    private Set<Long> checkBulkIds(List<Long> bookingIds) {
+        if (bookingIds == null || bookingIds.isEmpty() || bookingIds.size() > MAX_BULK_SIZE) {
+            throw new UnavailableActionError("Список броней должен содержать от 1 до " + MAX_BULK_SIZE + " id");
+        }
+        if (bookingIds.stream().anyMatch(Objects::isNull)) {
+            throw new UnavailableActionError("Список броней содержит пустой id");
+        }
+        return new LinkedHashSet<>(bookingIds);
+    }
+
+    /**
+     * Подтвержденные брони вещей, с которыми могут пересечься подтверждаемые, сгруппированные по вещам.
+     */
+    private Map<Long, List<BookingPeriodDto>> findApprovedOverlapping(Collection<BookingPeriodDto> bookings,
+                                                                      Set<Long> waiting) {
+        List<BookingPeriodDto> candidates = bookings.stream().filter(booking -> waiting.contains(booking.id()))
+                .toList();
+        if (candidates.isEmpty()) {
+            return new HashMap<>();
+        }
+        Set<Long> itemIds = candidates.stream().map(BookingPeriodDto::itemId).collect(Collectors.toSet());
+        LocalDateTime start = candidates.stream().map(BookingPeriodDto::start).min(Comparator.naturalOrder())
+                .orElseThrow();
+        LocalDateTime end = candidates.stream().map(BookingPeriodDto::end).max(Comparator.naturalOrder())
+                .orElseThrow();
+        return repository.findApprovedOverlapping(itemIds, start, end).stream()
+                .collect(Collectors.groupingBy(BookingPeriodDto::itemId, HashMap::new, Collectors.toList()));
+    }
+
+    private static BookingStatusResultDto notFound(Long bookingId) {
+        return new BookingStatusResultDto(bookingId, BulkStatusOutcome.NOT_FOUND, null,
+                "Бронь не найдена среди броней вещей пользователя");
+    }
+
     private User getUser(Long userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Не удалось найти пользователя с id:" + userId));
@@ -136,11 +342,34 @@ public class BookingServiceImpl implements BookingService {
                 .orElseThrow(() -> new NotFoundException("Не удалось найти вещь с id:" + itemId));
     }
 
+    /**
+     * Блокирует строку вещи до конца транзакции, чтобы проверка пересечений и вставка брони,
+     * а также пересчет ссылок вещи на брони для одной вещи выполнялись последовательно.
+     */
+    private Item lockItem(Long itemId) {
+        return itemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new NotFoundException("Не удалось найти вещь с id:" + itemId));
+    }
+
     private Booking checkBooking(Long bookingId) {
         return repository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Не удалось найти бронь с id:" + bookingId));
     }
 
+    /**
+     * Страница списка броней. Если передан курсор (start и id последней брони предыдущей страницы),
+     * выборка продолжается от него и смещение from не используется.
+     */
+    private Pageable checkPage(Integer from, Integer size, LocalDateTime afterStart, Long afterId) {
+        if (from < 0 || size <= 0) {
+            throw new UnavailableActionError("Некорректные параметры страницы: from = " + from + ", size = " + size);
+        }
+        if ((afterStart == null) != (afterId == null)) {
+            throw new UnavailableActionError("Курсор должен содержать оба параметра: afterStart и afterId");
+        }
+        return new OffsetPageRequest(afterStart == null ? from : 0, size);
+    }
+
     private BookingState checkState(String state) {
         try {
             return BookingState.valueOf(state.toUpperCase());
@@ -148,4 +377,22 @@ public class BookingServiceImpl implements BookingService {
             throw new UnavailableActionError("Не существует состояния " + state);
         }
     }
+
+    /**
+     * Нарушено ли ограничение на пересечение броней; остальные нарушения целостности (внешние ключи, NOT NULL)
+     * не являются конфликтом бронирования.
+     */
+    private static boolean isOverlapViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && OVERLAP_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName())) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException
+                    && EXCLUSION_VIOLATION_STATE.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.common.annotation.ValueResolver;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.enums.BookingState;
+
+/**
+ * Значение тега {@code state} для списков броней: ветка {@link BookingState}, по которой пойдет выборка,
+ * или {@code INVALID} для неизвестного состояния.
+ */
+@Component
+public class BookingStateTagResolver implements ValueResolver {
+
+    @Override
+    public String resolve(Object parameter) {
+        try {
+            return BookingState.valueOf(String.valueOf(parameter).toUpperCase()).name();
+        } catch (IllegalArgumentException e) {
+            return "INVALID";
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -19,6 +20,27 @@ public class ErrorHandler {
         return Map.of("notFound", ex.getMessage());
     }
 
+    @ExceptionHandler(ConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleConflictException(final ConflictException ex) {
+        log.error("Конфликт: {}", ex.getMessage());
+        return Map.of("conflict", ex.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleOptimisticLockingFailure(final OptimisticLockingFailureException ex) {
+        log.error("Конфликт версий: {}", ex.getMessage());
+        return Map.of("conflict", "Запись изменена другим запросом, прочитайте ее заново и повторите изменение");
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public Map<String, String> handlePreconditionFailed(final PreconditionFailedException ex) {
+        log.error("Не выполнено условие If-Match: {}", ex.getMessage());
+        return Map.of("preconditionFailed", ex.getMessage());
+    }
+
     @ExceptionHandler(UnavailableActionError.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public Map<String, String> handlerUnavailableAction(final UnavailableActionError ex) {
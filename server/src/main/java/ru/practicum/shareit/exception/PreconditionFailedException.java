@@ -0,0 +1,8 @@
+package ru.practicum.shareit.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(final String message) {
+        super(message);
+    }
+}
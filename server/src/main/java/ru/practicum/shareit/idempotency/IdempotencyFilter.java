@@ -0,0 +1,398 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Идемпотентное создание броней, вещей, запросов и отзывов: POST с заголовком {@value #HEADER} выполняется один раз,
+ * а повторы с тем же ключом от того же пользователя получают сохраненный ответ с заголовком {@value #REPLAYED_HEADER}.
+ * <p>
+ * Одновременные повторы на этом узле ждут ответа первого запроса, на разных узлах — пока в {@link IdempotencyStore}
+ * появится ответ, но не дольше {@code wait-timeout}; иначе получают 409. Повтор ключа с другим запросом (путь
+ * или тело) получает 422. Ответы 5xx не сохраняются: ключ освобождается, и повтор выполнится заново.
+ * Вместе с ответом сохраняются заголовки {@link #PASSTHROUGH_HEADERS}, иначе повтор не получит, например,
+ * ETag созданной записи.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 64;
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final List<String> PATHS = List.of("/bookings", "/items", "/requests", "/items/*/comment");
+    private static final long POLL_INTERVAL_MILLIS = 50;
+    private static final List<String> PASSTHROUGH_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.LOCATION,
+            HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED);
+    private static final TypeReference<Map<String, List<String>>> HEADERS_TYPE = new TypeReference<>() {
+    };
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Duration waitTimeout;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    /**
+     * Запросы этого узла, которые выполняются сейчас, по пользователю и ключу.
+     */
+    private final ConcurrentMap<IdempotencyRecord.Key, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore store, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                             @Value("${shareit.idempotency.wait-timeout:PT10S}") Duration waitTimeout) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.waitTimeout = waitTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || PATHS.stream().noneMatch(path -> pathMatcher.match(path, request.getRequestURI()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Long userId = userId(request);
+        if (userId == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String key = request.getHeader(HEADER).strip();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            String message = "Заголовок " + HEADER + " должен содержать от 1 до " + MAX_KEY_LENGTH + " символов";
+            log.warn("Ключ идемпотентности: {}", message);
+            writeError(response, HttpStatus.BAD_REQUEST, "error validation", message);
+            return;
+        }
+        byte[] body = request.getInputStream().readAllBytes();
+        long requestHash = fingerprint(request, body);
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+
+        IdempotencyRecord.Key id = new IdempotencyRecord.Key(userId, key);
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        InFlight own = new InFlight(requestHash, new CompletableFuture<>());
+        while (true) {
+            InFlight running = inFlight.putIfAbsent(id, own);
+            if (running == null) {
+                break;
+            }
+            if (running.requestHash() != requestHash) {
+                writeMismatch(response, key);
+                return;
+            }
+            try {
+                StoredResponse stored = running.response().get(remaining(deadline), TimeUnit.NANOSECONDS);
+                count("coalesced");
+                writeReplay(response, stored);
+                return;
+            } catch (ExecutionException e) {
+                // первый запрос упал, не получив ответа. Его запись убирается здесь, а не в его finally:
+                // иначе повтор до этого finally снова получит тот же упавший future
+                inFlight.remove(id, running);
+            } catch (TimeoutException e) {
+                writeInProgress(response, key);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            }
+        }
+
+        try {
+            own.response().complete(execute(id, requestHash, deadline, cachedRequest, response, chain));
+        } catch (Throwable e) {
+            own.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, own);
+        }
+    }
+
+    /**
+     * Выполняет запрос, если ключ свободен, иначе отдает сохраненный ответ или ждет его.
+     *
+     * @return ответ, который получат одновременные повторы на этом узле
+     */
+    private StoredResponse execute(IdempotencyRecord.Key id, long requestHash, long deadline,
+                                   HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        while (true) {
+            Optional<IdempotencyRecord> existing = store.claim(id.getUserId(), id.getKey(), requestHash);
+            if (existing.isEmpty()) {
+                count("executed");
+                return proceed(id, request, response, chain);
+            }
+            IdempotencyRecord record = existing.get();
+            while (record != null && !record.isCompleted() && record.getRequestHash() == requestHash) {
+                if (remaining(deadline) <= 0) {
+                    return writeInProgress(response, id.getKey());
+                }
+                sleep();
+                record = store.find(id.getUserId(), id.getKey()).orElse(null);
+            }
+            if (record == null) {
+                // запрос на другом узле не получил ответа и освободил ключ
+                continue;
+            }
+            if (record.getRequestHash() != requestHash) {
+                return writeMismatch(response, id.getKey());
+            }
+            StoredResponse stored = new StoredResponse(record.getStatus(), readHeaders(record.getHeaders()),
+                    record.getBody());
+            count("replayed");
+            writeReplay(response, stored);
+            return stored;
+        }
+    }
+
+    private StoredResponse proceed(IdempotencyRecord.Key id, HttpServletRequest request,
+                                   HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            chain.doFilter(request, cachedResponse);
+            StoredResponse stored = new StoredResponse(cachedResponse.getStatus(),
+                    passthroughHeaders(cachedResponse), cachedResponse.getContentAsByteArray());
+            if (stored.status() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                store.complete(id.getUserId(), id.getKey(), stored.status(), writeHeaders(stored.headers()),
+                        stored.body());
+                completed = true;
+            }
+            cachedResponse.copyBodyToResponse();
+            return stored;
+        } finally {
+            if (!completed) {
+                store.release(id.getUserId(), id.getKey());
+            }
+        }
+    }
+
+    private void writeReplay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        stored.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.body() != null && stored.body().length > 0) {
+            if (response.getContentType() == null) {
+                // ответ сохранен без заголовков
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            }
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+
+    private StoredResponse writeInProgress(HttpServletResponse response, String key) throws IOException {
+        count("in_progress");
+        log.info("Запрос с ключом идемпотентности {} еще выполняется, повтор получает 409", key);
+        return writeError(response, HttpStatus.CONFLICT, "conflict",
+                "Запрос с ключом " + key + " еще выполняется");
+    }
+
+    private StoredResponse writeMismatch(HttpServletResponse response, String key) throws IOException {
+        count("mismatch");
+        log.warn("Ключ идемпотентности {} уже использован для другого запроса", key);
+        return writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "error validation",
+                "Ключ " + key + " уже использован для другого запроса");
+    }
+
+    private StoredResponse writeError(HttpServletResponse response, HttpStatus status, String field, String message)
+            throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of(field, message));
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        return new StoredResponse(status.value(), Map.of(), body);
+    }
+
+    private static Map<String, List<String>> passthroughHeaders(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : PASSTHROUGH_HEADERS) {
+            Collection<String> values = response.getHeaders(name);
+            if (!values.isEmpty()) {
+                headers.put(name, List.copyOf(values));
+            }
+        }
+        if (!headers.containsKey(HttpHeaders.CONTENT_TYPE) && response.getContentType() != null) {
+            headers.put(HttpHeaders.CONTENT_TYPE, List.of(response.getContentType()));
+        }
+        return headers;
+    }
+
+    private String writeHeaders(Map<String, List<String>> headers) throws JsonProcessingException {
+        return headers.isEmpty() ? null : objectMapper.writeValueAsString(headers);
+    }
+
+    private Map<String, List<String>> readHeaders(String headers) throws JsonProcessingException {
+        return headers == null ? Map.of() : objectMapper.readValue(headers, HEADERS_TYPE);
+    }
+
+    private void count(String outcome) {
+        Counter.builder("shareit.idempotency.requests")
+                .description("Запросы с ключом идемпотентности по исходу")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static Long userId(HttpServletRequest request) {
+        String header = request.getHeader(USER_HEADER);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.strip());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Первые 8 байт SHA-256 от пути и тела: повтор ключа с другим запросом отличается от настоящего повтора.
+     */
+    private static long fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+            digest.update(body);
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long remaining(long deadline) {
+        return deadline - System.nanoTime();
+    }
+
+    private static void sleep() throws ServletException {
+        try {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException(e);
+        }
+    }
+
+    private record StoredResponse(int status, Map<String, List<String>> headers, byte[] body) {
+    }
+
+    private record InFlight(long requestHash, CompletableFuture<StoredResponse> response) {
+    }
+
+    /**
+     * Запрос с телом, прочитанным заранее для отпечатка.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8.name() : encoding));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.idempotency;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Ответ на запрос с заголовком {@value IdempotencyFilter#HEADER}. Пока запрос выполняется, статуса и тела нет,
+ * а {@code expiresAt} — конец аренды ключа; после выполнения — конец срока хранения ответа.
+ * Заголовки ответа хранятся в JSON: имя — список значений.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "idempotency_keys")
+@IdClass(IdempotencyRecord.Key.class)
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "idempotency_key", length = IdempotencyFilter.MAX_KEY_LENGTH)
+    private String key;
+
+    @Column(name = "request_hash", nullable = false)
+    private long requestHash;
+
+    @Column(name = "response_status")
+    private Integer status;
+
+    @Column(name = "response_headers", length = 4096)
+    private String headers;
+
+    @Column(name = "response_body", length = 1 << 20)
+    private byte[] body;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public boolean isCompleted() {
+        return status != null;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private String key;
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRepository extends JpaRepository<IdempotencyRecord, IdempotencyRecord.Key> {
+
+    /**
+     * Занимает ключ; если он уже есть, падает на первичном ключе, а не перезаписывает чужую запись.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (user_id, idempotency_key, request_hash, expires_at) " +
+            "VALUES (:userId, :key, :requestHash, :expiresAt)", nativeQuery = true)
+    int insert(@Param("userId") Long userId, @Param("key") String key, @Param("requestHash") long requestHash,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :status, r.headers = :headers, r.body = :body, " +
+            "r.expiresAt = :expiresAt WHERE r.userId = :userId AND r.key = :key AND r.status IS NULL")
+    int complete(@Param("userId") Long userId, @Param("key") String key, @Param("status") int status,
+                 @Param("headers") String headers, @Param("body") byte[] body,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Освобождает ключ, занятый запросом, который не удалось выполнить.
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.userId = :userId AND r.key = :key AND r.status IS NULL")
+    int release(@Param("userId") Long userId, @Param("key") String key);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r " +
+            "WHERE r.userId = :userId AND r.key = :key AND r.expiresAt < :now")
+    int deleteExpired(@Param("userId") Long userId, @Param("key") String key, @Param("now") LocalDateTime now);
+
+    /**
+     * Удаляет до {@code limit} записей с истекшим сроком, самые старые первыми.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE (user_id, idempotency_key) IN (" +
+            "SELECT k.user_id, k.idempotency_key FROM idempotency_keys k " +
+            "WHERE k.expires_at < :now ORDER BY k.expires_at LIMIT :limit)", nativeQuery = true)
+    int purgeExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Ключи идемпотентности в таблице {@code idempotency_keys}. Ключ занимается вставкой строки без ответа на время
+ * аренды {@code lease}: из одновременных вставок одного ключа проходит одна, в том числе на разных узлах.
+ * После выполнения запроса в строку записывается ответ, и она хранится {@code ttl}. Строка с истекшим сроком
+ * (ответ устарел или узел упал, не дождавшись ответа) освобождает ключ; остальные раз в {@code purge-interval}
+ * удаляет очистка пачками по {@code purge-batch-size}.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+    private final IdempotencyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration lease;
+    private final int purgeBatchSize;
+    private final Counter purged;
+
+    public IdempotencyStore(IdempotencyRepository repository, PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${shareit.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${shareit.idempotency.lease:PT1M}") Duration lease,
+                            @Value("${shareit.idempotency.purge-batch-size:1000}") int purgeBatchSize) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.lease = lease;
+        this.purgeBatchSize = purgeBatchSize;
+        this.purged = Counter.builder("shareit.idempotency.purged")
+                .description("Ключи идемпотентности, удаленные по истечении срока")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Занимает ключ для запроса с отпечатком {@code requestHash}.
+     *
+     * @return запись, которая уже занимает ключ, или пусто, если ключ занят этим вызовом
+     */
+    public Optional<IdempotencyRecord> claim(Long userId, String key, long requestHash) {
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            // обычный повтор приходит после ответа: ключ уже есть, и вставку с ошибкой можно не делать
+            Optional<IdempotencyRecord> existing = find(userId, key);
+            if (existing.isPresent()) {
+                if (!existing.get().getExpiresAt().isBefore(now)) {
+                    return existing;
+                }
+                transactionTemplate.executeWithoutResult(status -> repository.deleteExpired(userId, key, now));
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        repository.insert(userId, key, requestHash, now.plus(lease)));
+                return Optional.empty();
+            } catch (DataIntegrityViolationException e) {
+                // ключ одновременно занял другой запрос — читаем его запись
+                log.debug("Ключ идемпотентности {} пользователя {} уже занят", key, userId);
+            }
+        }
+    }
+
+    public Optional<IdempotencyRecord> find(Long userId, String key) {
+        return repository.findById(new IdempotencyRecord.Key(userId, key));
+    }
+
+    /**
+     * Сохраняет ответ на запрос, занявший ключ.
+     *
+     * @param headers заголовки ответа в JSON или {@code null}, если сохранять нечего
+     */
+    public void complete(Long userId, String key, int status, String headers, byte[] body) {
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+        int updated = transactionTemplate.execute(tx ->
+                repository.complete(userId, key, status, headers, body, expiresAt));
+        if (updated == 0) {
+            log.warn("Ответ по ключу идемпотентности {} пользователя {} не сохранен: аренда ключа истекла",
+                    key, userId);
+        }
+    }
+
+    /**
+     * Освобождает ключ, не сохраняя ответ, чтобы повтор запроса выполнился заново.
+     */
+    public void release(Long userId, String key) {
+        transactionTemplate.executeWithoutResult(status -> repository.release(userId, key));
+    }
+
+    /**
+     * Удаляет записи с истекшим сроком пачками, каждая пачка — отдельная транзакция.
+     *
+     * @return сколько записей удалено
+     */
+    @Scheduled(fixedDelayString = "${shareit.idempotency.purge-interval:PT10M}")
+    public int purge() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        while (true) {
+            int batch = transactionTemplate.execute(status -> repository.purgeExpired(now, purgeBatchSize));
+            total += batch;
+            if (batch < purgeBatchSize) {
+                break;
+            }
+        }
+        purged.increment(total);
+        if (total > 0) {
+            log.info("Удалено {} ключей идемпотентности с истекшим сроком", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item;
+
+/**
+ * Публикуется после добавления комментария к вещи.
+ */
+public record CommentCreatedEvent(Long itemId, Long commentId) {
+}
@@ -15,5 +15,8 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
             "WHERE c.item.id = :itemId")
     List<Comment> findCommentsByItemId(@Param("itemId") Long itemId);
 
-    List<Comment> findCommentByItemIdIn(Collection<Long> itemIds);
+    @Query("SELECT c FROM Comment c " +
+            "JOIN FETCH c.author " +
+            "WHERE c.item.id IN :itemIds")
+    List<Comment> findCommentByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
 }
@@ -2,15 +2,21 @@ package ru.practicum.shareit.item;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
+import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
+import java.time.LocalDateTime;
+
 @Getter
 @Setter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@DynamicUpdate
 @Table(name = "items", schema = "public")
 public class Item {
 
@@ -34,4 +40,36 @@ public class Item {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     private ItemRequest request;
+
+    /**
+     * Последняя завершившаяся и ближайшая будущая подтвержденные брони. Поддерживаются
+     * {@link ru.practicum.shareit.item.pointer.ItemBookingPointers} и верны до момента {@link #bookingsRefreshAt}.
+     * Это производные данные, поэтому их пересчет не меняет {@link #version}.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_booking_id")
+    @OptimisticLock(excluded = true)
+    private Booking lastBooking;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "next_booking_id")
+    @OptimisticLock(excluded = true)
+    private Booking nextBooking;
+
+    /**
+     * Когда начнется следующая бронь или закончится текущая; {@code null}, если ни того, ни другого не будет.
+     */
+    @Column(name = "bookings_refresh_at")
+    @OptimisticLock(excluded = true)
+    private LocalDateTime bookingsRefreshAt;
+
+    /**
+     * Версия строки: изменение, прочитанное до чужого, не сохранится. Отдается клиенту как ETag.
+     * Примитив, чтобы новизну записи Spring Data по-прежнему определял по id, а не по версии.
+     * UPDATE пишет только измененные столбцы ({@link DynamicUpdate}), чтобы изменение вещи
+     * и пересчет ссылок на брони не затирали друг друга.
+     */
+    @Version
+    @Column(name = "version")
+    private long version;
 }
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.dto.ItemDto;
+
+/**
+ * Публикуется после создания или изменения вещи.
+ */
+public record ItemChangedEvent(ItemDto item) {
+}
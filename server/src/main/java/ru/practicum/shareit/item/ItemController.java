@@ -1,7 +1,11 @@
 package ru.practicum.shareit.item;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.ETags;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithCommentDto;
@@ -33,20 +37,24 @@ public class ItemController {
      * GET /items/{itemId}
      */
     @GetMapping("/{itemId}")
-    public ItemWithCommentDto getItem(@PathVariable Long itemId) {
-        return itemService.getItem(itemId);
+    public ItemWithCommentDto getItem(@PathVariable Long itemId, HttpServletResponse response) {
+        ItemWithCommentDto item = itemService.getItem(itemId);
+        ETags.set(response, item.getVersion());
+        return item;
     }
 
     /**
      * Обновление данных о вещи.
      * GET /items/{itemId}
-     * Headers X-Sharer-User-Id
+     * Headers X-Sharer-User-Id, If-Match (необязательный)
      */
     @PatchMapping("/{itemId}")
-    public ItemDto updateItem(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public ResponseEntity<ItemDto> updateItem(@RequestHeader("X-Sharer-User-Id") Long userId,
                               @PathVariable Long itemId,
-                              @RequestBody ItemDto item) {
-        return itemService.updateItem(userId, itemId, item);
+                              @RequestBody ItemDto item,
+                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ItemDto updated = itemService.updateItem(userId, itemId, item, ifMatch);
+        return ETags.ok(updated, updated.getVersion());
     }
 
     /**
@@ -5,6 +5,7 @@ import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+import ru.practicum.shareit.item.dto.RequestItemDto;
 import ru.practicum.shareit.item.dto.ShortItemDto;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
@@ -35,6 +36,7 @@ public interface ItemMapper {
                 .available(item.getAvailable())
                 .owner(item.getOwner() != null ? item.getOwner().getId() : null)
                 .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
+                .version(item.getVersion())
                 .build();
     }
 
@@ -49,6 +51,7 @@ public interface ItemMapper {
                 .owner(item.getOwner() != null ? item.getOwner().getId() : null)
                 .lastBooking(lastBooking)
                 .nextBooking(nextBooking)
+                .version(item.getVersion())
                 .build();
     }
 
@@ -61,5 +64,14 @@ public interface ItemMapper {
                 .build();
     }
 
+    default ShortItemDto toShortItemDto(RequestItemDto item) {
+        return ShortItemDto.builder()
+                .id(item.id())
+                .name(item.name())
+                .description(item.description())
+                .userId(item.userId())
+                .build();
+    }
+
     List<ShortItemDto> toShortItemDtoList(List<Item> items);
 }
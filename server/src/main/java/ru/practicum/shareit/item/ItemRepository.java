@@ -1,24 +1,88 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.RequestItemDto;
 import ru.practicum.shareit.user.User;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> findByOwner(User user);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Блокирует вещи в порядке id, чтобы пакетные изменения не ждали друг друга по кругу.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids ORDER BY i.id")
+    List<Item> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
     List<Item> findByOwnerId(Long id);
 
-    List<Item> findByRequest_Id(Long id);
+    /**
+     * Вещь вместе с последней и следующей бронями и их авторами — карточка вещи одним запросом.
+     */
+    @Query("SELECT i FROM Item i " +
+            "LEFT JOIN FETCH i.lastBooking lb LEFT JOIN FETCH lb.booker " +
+            "LEFT JOIN FETCH i.nextBooking nb LEFT JOIN FETCH nb.booker " +
+            "WHERE i.id = :id")
+    Optional<Item> findWithBookingPointers(@Param("id") Long id);
+
+    @Query("SELECT i FROM Item i " +
+            "LEFT JOIN FETCH i.lastBooking lb LEFT JOIN FETCH lb.booker " +
+            "LEFT JOIN FETCH i.nextBooking nb LEFT JOIN FETCH nb.booker " +
+            "WHERE i.owner.id = :ownerId ORDER BY i.id")
+    List<Item> findByOwnerIdWithBookingPointers(@Param("ownerId") Long ownerId);
+
+    /**
+     * Вещи, у которых ссылки на брони устарели к моменту {@code now}. Строки, заблокированные другими
+     * транзакциями, пропускаются (SKIP LOCKED): их обновит тот, кто держит блокировку, или следующий обход.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT i FROM Item i WHERE i.bookingsRefreshAt < :now AND i.id > :afterId ORDER BY i.id")
+    List<Item> findBookingPointersDue(@Param("now") LocalDateTime now, @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
+    @Query("SELECT i.id FROM Item i WHERE i.id > :afterId ORDER BY i.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new ru.practicum.shareit.item.dto.RequestItemDto(i.request.id, i.id, i.owner.id, " +
+            "i.name, i.description) " +
+            "FROM Item i WHERE i.request.id IN :requestIds ORDER BY i.id")
+    List<RequestItemDto> findRequestItems(@Param("requestIds") Collection<Long> requestIds);
 
     @Modifying
     @Query("SELECT i FROM Item i JOIN FETCH i.owner WHERE i.available = true " +
             "AND (UPPER(i.name) LIKE UPPER(CONCAT('%', :text, '%')) " +
             "OR UPPER(i.description) LIKE UPPER(CONCAT('%', :text, '%')))")
     List<Item> searchItems(String text);
+
+    @Query(value = "SELECT i.* FROM items i " +
+            "WHERE i.available = true AND i.search_vector @@ to_tsquery('russian', :query) " +
+            "ORDER BY ts_rank(i.search_vector, to_tsquery('russian', :query)) DESC, i.id",
+            nativeQuery = true)
+    List<Item> searchItemsFullText(@Param("query") String query);
+
+    @Query("SELECT i FROM Item i WHERE i.available = true AND i.id > :afterId ORDER BY i.id")
+    List<Item> findAvailableAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    long countByAvailableTrue();
 }
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Настройки поиска вещей: {@code shareit.item.search-mode} выбирает, чем отвечает поиск,
+ * а {@code shareit.item.search-index.*} настраивает индекс в памяти для режима {@link ItemSearchMode#INDEX}.
+ */
+@ConfigurationProperties("shareit.item")
+public record ItemSearchProperties(@DefaultValue("LIKE") ItemSearchMode searchMode,
+                                   @DefaultValue SearchIndex searchIndex) {
+
+    /**
+     * @param maxItems сколько вещей помещается в индекс; при переполнении поиск идет через базу
+     */
+    public record SearchIndex(@DefaultValue("500000") int maxItems) {
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.BookingStatusChangedEvent;
+import ru.practicum.shareit.item.CommentCreatedEvent;
+import ru.practicum.shareit.item.ItemChangedEvent;
+import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Кэш собранной карточки вещи для {@code GET /items/{itemId}}.
+ * Запись живет не дольше {@code shareit.item.details-cache.ttl} и не дольше момента, когда
+ * сменится последняя или следующая бронь. Изменения вещи, новые комментарии и смена статуса брони
+ * удаляют запись после коммита.
+ */
+@Slf4j
+@Component
+public class ItemDetailsCache {
+    public static final String NAME = "itemDetails";
+
+    private final Cache<Long, Entry> cache;
+
+    @Autowired
+    public ItemDetailsCache(@Value("${shareit.item.details-cache.ttl:PT5M}") Duration ttl,
+                            @Value("${shareit.item.details-cache.maximum-size:10000}") long maximumSize,
+                            MeterRegistry meterRegistry) {
+        this(ttl, maximumSize, meterRegistry, Ticker.systemTicker());
+    }
+
+    public ItemDetailsCache(Duration ttl, long maximumSize, MeterRegistry meterRegistry, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new BoundaryExpiry(ttl))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    /**
+     * Возвращает карточку из кэша или собирает ее загрузчиком. Пока загрузчик работает,
+     * удаление той же записи ждет его завершения, поэтому устаревшая карточка в кэше не остается.
+     */
+    public ItemWithCommentDto get(Long itemId, Function<Long, Entry> loader) {
+        return cache.get(itemId, loader).item();
+    }
+
+    public void invalidate(Long itemId) {
+        log.debug("Удаление карточки вещи {} из кэша", itemId);
+        cache.invalidate(itemId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        invalidate(event.item().getId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentCreated(CommentCreatedEvent event) {
+        invalidate(event.itemId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        invalidate(event.itemId());
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Карточка вещи и время, через которое она устареет сама по себе
+     * (начнется следующая бронь или закончится текущая). {@code null}, если такой границы нет.
+     */
+    public record Entry(ItemWithCommentDto item, Duration validFor) {
+    }
+
+    private record BoundaryExpiry(Duration ttl) implements Expiry<Long, Entry> {
+
+        @Override
+        public long expireAfterCreate(Long key, Entry entry, long currentTime) {
+            if (entry.validFor() == null || entry.validFor().compareTo(ttl) > 0) {
+                return ttl.toNanos();
+            }
+            return Math.max(0, entry.validFor().toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
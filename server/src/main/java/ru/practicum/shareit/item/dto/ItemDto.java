@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 import lombok.Data;
 
@@ -12,4 +13,10 @@ public class ItemDto {
     private Boolean available;
     private Long owner;
     private Long requestId;
+
+    /**
+     * Версия записи; уходит клиенту в заголовке ETag, а не в теле.
+     */
+    @JsonIgnore
+    private Long version;
 }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.booking.dto.BookingDto;
@@ -17,4 +18,10 @@ public class ItemWithCommentDto {
     private List<CommentDto> comments;
     private BookingDto lastBooking;
     private BookingDto nextBooking;
+
+    /**
+     * Версия записи; уходит клиенту в заголовке ETag, а не в теле.
+     */
+    @JsonIgnore
+    private Long version;
 }
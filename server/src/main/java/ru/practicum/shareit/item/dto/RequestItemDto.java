@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * Вещь, созданная в ответ на запрос, без загрузки владельца и самого запроса.
+ */
+public record RequestItemDto(Long requestId, Long id, Long userId, String name, String description) {
+}
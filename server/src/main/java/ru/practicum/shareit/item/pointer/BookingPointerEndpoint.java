@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.pointer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code POST /actuator/itembookings} — сверка ссылок вещей на брони вне расписания, например после загрузки данных.
+ */
+@Component
+@Endpoint(id = "itembookings")
+@RequiredArgsConstructor
+public class BookingPointerEndpoint {
+    private final BookingPointerReconciler reconciler;
+
+    @WriteOperation
+    public BookingPointerReconciler.Result reconcile() {
+        return reconciler.reconcile();
+    }
+}
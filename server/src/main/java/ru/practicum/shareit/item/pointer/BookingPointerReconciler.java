@@ -0,0 +1,119 @@
+package ru.practicum.shareit.item.pointer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Сверяет ссылки на брони во всех вещах с самими бронями и исправляет расхождения — например, после
+ * изменения броней в обход сервиса или загрузки данных. Вещи проходятся пачками по id; расхождение
+ * пересчитывается еще раз под блокировкой строки вещи, чтобы не затереть параллельное подтверждение брони.
+ * Вещи, до которых еще не дошел {@link BookingPointerSweeper}, пропускаются.
+ */
+@Slf4j
+@Component
+public class BookingPointerReconciler {
+    private final ItemRepository itemRepository;
+    private final ItemBookingPointers bookingPointers;
+    private final ItemDetailsCache itemDetailsCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter drift;
+
+    public BookingPointerReconciler(ItemRepository itemRepository, ItemBookingPointers bookingPointers,
+                                    ItemDetailsCache itemDetailsCache, PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${shareit.item.booking-pointers.reconcile-batch-size:1000}") int batchSize) {
+        this.itemRepository = itemRepository;
+        this.bookingPointers = bookingPointers;
+        this.itemDetailsCache = itemDetailsCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.drift = Counter.builder("shareit.item.booking-pointers.drift")
+                .description("Вещи, у которых сверка нашла и исправила неверные ссылки на брони")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${shareit.item.booking-pointers.reconcile-cron:0 30 3 * * *}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    public Result reconcile() {
+        LocalDateTime now = ItemBookingPointers.now();
+        long started = System.nanoTime();
+        long afterId = 0;
+        long checked = 0;
+        List<Long> repaired = new ArrayList<>();
+        while (true) {
+            long from = afterId;
+            Batch batch = transactionTemplate.execute(status -> reconcileBatch(now, from));
+            checked += batch.size();
+            repaired.addAll(batch.repaired());
+            batch.repaired().forEach(itemDetailsCache::invalidate);
+            if (batch.size() < batchSize) {
+                break;
+            }
+            afterId = batch.lastId();
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        if (repaired.isEmpty()) {
+            log.info("Сверка ссылок на брони: проверено {} вещей за {} мс, расхождений нет", checked, millis);
+        } else {
+            drift.increment(repaired.size());
+            log.warn("Сверка ссылок на брони: проверено {} вещей за {} мс, исправлено {}",
+                    checked, millis, repaired.size());
+        }
+        return new Result(checked, repaired.size(), millis);
+    }
+
+    private Batch reconcileBatch(LocalDateTime now, long afterId) {
+        List<Long> ids = itemRepository.findIdsAfter(afterId, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return new Batch(0, List.of(), afterId);
+        }
+        Map<Long, BookingPointers> expected = bookingPointers.compute(ids, now);
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        List<Long> repaired = new ArrayList<>();
+        for (Long id : ids) {
+            Item item = items.get(id);
+            if (item == null || BookingPointers.of(item).isStale(now)
+                    || expected.getOrDefault(id, BookingPointers.EMPTY).matches(item)) {
+                continue;
+            }
+            Item locked = itemRepository.findByIdForUpdate(id).orElse(null);
+            if (locked != null && bookingPointers.refresh(locked, now)) {
+                log.debug("Исправлены ссылки на брони вещи {}", id);
+                repaired.add(id);
+            }
+        }
+        return new Batch(ids.size(), repaired, ids.getLast());
+    }
+
+    /**
+     * @param repaired вещи, в которых ссылки были неверны и исправлены
+     */
+    public record Result(long checked, int repaired, long millis) {
+    }
+
+    private record Batch(int size, List<Long> repaired, long lastId) {
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.item.pointer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Сдвигает ссылки на брони у вещей, для которых наступил {@code bookingsRefreshAt}: следующая бронь началась
+ * или текущая закончилась. Вещи берутся пачками по id, каждая пачка — отдельная транзакция; строки,
+ * заблокированные другими транзакциями, пропускаются до следующего запуска.
+ */
+@Slf4j
+@Component
+public class BookingPointerSweeper {
+    private final ItemRepository itemRepository;
+    private final ItemBookingPointers bookingPointers;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter advanced;
+
+    public BookingPointerSweeper(ItemRepository itemRepository, ItemBookingPointers bookingPointers,
+                                 PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                 @Value("${shareit.item.booking-pointers.sweep-batch-size:500}") int batchSize) {
+        this.itemRepository = itemRepository;
+        this.bookingPointers = bookingPointers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.advanced = Counter.builder("shareit.item.booking-pointers.advanced")
+                .description("Вещи, у которых обход сдвинул ссылки на последнюю и следующую брони")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return сколько вещей получили новые ссылки
+     */
+    @Scheduled(fixedDelayString = "${shareit.item.booking-pointers.sweep-interval:PT10S}")
+    public int sweep() {
+        LocalDateTime now = ItemBookingPointers.now();
+        long afterId = 0;
+        int updated = 0;
+        while (true) {
+            long from = afterId;
+            Batch batch = transactionTemplate.execute(status -> sweepBatch(now, from));
+            updated += batch.updated();
+            if (batch.size() < batchSize) {
+                break;
+            }
+            afterId = batch.lastId();
+        }
+        if (updated > 0) {
+            advanced.increment(updated);
+            log.debug("Обход ссылок на брони обновил {} вещей", updated);
+        }
+        return updated;
+    }
+
+    private Batch sweepBatch(LocalDateTime now, long afterId) {
+        List<Item> items = itemRepository.findBookingPointersDue(now, afterId, PageRequest.of(0, batchSize));
+        int updated = 0;
+        for (Item item : items) {
+            if (bookingPointers.refresh(item, now)) {
+                updated++;
+            }
+        }
+        long lastId = items.isEmpty() ? afterId : items.getLast().getId();
+        return new Batch(items.size(), updated, lastId);
+    }
+
+    private record Batch(int size, int updated, long lastId) {
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.item.pointer;
+
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.item.Item;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * Последняя и следующая подтвержденные брони вещи и момент, до которого они верны.
+ *
+ * @param refreshAt начало следующей брони или конец текущей, что раньше; {@code null} — ссылки не устареют,
+ *                  пока не изменится статус какой-нибудь брони
+ */
+public record BookingPointers(@Nullable Booking last, @Nullable Booking next, @Nullable LocalDateTime refreshAt) {
+    public static final BookingPointers EMPTY = new BookingPointers(null, null, null);
+
+    public static BookingPointers of(Item item) {
+        return new BookingPointers(item.getLastBooking(), item.getNextBooking(), item.getBookingsRefreshAt());
+    }
+
+    public boolean isStale(LocalDateTime now) {
+        return refreshAt != null && refreshAt.isBefore(now);
+    }
+
+    /**
+     * Совпадает ли с тем, что записано в вещи. Время сравнивается с точностью до микросекунд, как его хранит база.
+     */
+    public boolean matches(Item item) {
+        return Objects.equals(id(last), id(item.getLastBooking()))
+                && Objects.equals(id(next), id(item.getNextBooking()))
+                && Objects.equals(truncate(refreshAt), truncate(item.getBookingsRefreshAt()));
+    }
+
+    public void applyTo(Item item) {
+        item.setLastBooking(last);
+        item.setNextBooking(next);
+        item.setBookingsRefreshAt(refreshAt);
+    }
+
+    private static Long id(Booking booking) {
+        return booking == null ? null : booking.getId();
+    }
+
+    private static LocalDateTime truncate(LocalDateTime time) {
+        return time == null ? null : time.truncatedTo(ChronoUnit.MICROS);
+    }
+}
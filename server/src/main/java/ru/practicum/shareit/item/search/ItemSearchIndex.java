@@ -0,0 +1,323 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemChangedEvent;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSearchMode;
+import ru.practicum.shareit.item.ItemSearchProperties;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс по триграммам названия и описания доступных вещей.
+ * Отвечает на поиск так же, как {@link ItemRepository#searchItems(String)}, но без обращения к базе.
+ * Строится при старте приложения и обновляется после коммита создания или изменения вещи.
+ * Если вещей больше, чем {@code shareit.item.search-index.max-items}, индекс отключается и поиск идет через базу.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+    private static final int PAGE_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final ItemMapper itemMapper;
+    private final boolean enabled;
+    private final int maxItems;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Построения не идут параллельно. Не {@code synchronized}: внутри идут запросы к базе,
+     * а монитор на Java 21 закрепил бы виртуальный поток за потоком-носителем.
+     */
+    private final Lock rebuildLock = new ReentrantLock();
+    private final List<ItemDto> pending = new ArrayList<>();
+    private Index index;
+    private boolean rebuilding;
+    private boolean overflowed;
+    private LocalDateTime lastRebuildAt;
+    private long lastRebuildMillis;
+
+    public ItemSearchIndex(ItemRepository itemRepository, ItemMapper itemMapper, ItemSearchProperties properties) {
+        this.itemRepository = itemRepository;
+        this.itemMapper = itemMapper;
+        this.enabled = properties.searchMode() == ItemSearchMode.INDEX;
+        this.maxItems = properties.searchIndex().maxItems();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                pending.add(event.item());
+            }
+            if (index != null) {
+                index.put(event.item());
+                checkSize();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ищет вещи по индексу. Проверка готовности и поиск идут под одной блокировкой: индекс может отключиться
+     * при переполнении между ними.
+     *
+     * @return найденные вещи или пусто, если индекс выключен, еще не построен или переполнен
+     */
+    public Optional<List<ItemDto>> trySearch(String text) {
+        lock.readLock().lock();
+        try {
+            if (!enabled || index == null) {
+                return Optional.empty();
+            }
+            return Optional.of(index.search(text.toLowerCase(Locale.ROOT)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Перечитывает все доступные вещи из базы. Изменения, пришедшие во время чтения,
+     * применяются к новому индексу перед подменой.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            log.info("Построение индекса поиска вещей");
+            long started = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                rebuilding = true;
+                pending.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Index fresh = new Index();
+            long afterId = 0;
+            List<Item> page;
+            do {
+                page = itemRepository.findAvailableAfter(afterId, PageRequest.of(0, PAGE_SIZE));
+                for (Item item : page) {
+                    fresh.put(itemMapper.mapItemDto(item));
+                    afterId = item.getId();
+                }
+            } while (page.size() == PAGE_SIZE && fresh.size() <= maxItems);
+
+            lock.writeLock().lock();
+            try {
+                pending.forEach(fresh::put);
+                pending.clear();
+                rebuilding = false;
+                overflowed = false;
+                index = fresh;
+                checkSize();
+                lastRebuildAt = LocalDateTime.now();
+                lastRebuildMillis = (System.nanoTime() - started) / 1_000_000;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Индекс поиска вещей построен за {} мс", lastRebuildMillis);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("enabled", enabled);
+            stats.put("ready", enabled && index != null);
+            stats.put("overflowed", overflowed);
+            stats.put("maxItems", maxItems);
+            stats.put("items", index == null ? 0 : index.size());
+            stats.put("trigrams", index == null ? 0 : index.postings.size());
+            stats.put("postings", index == null ? 0 : index.postingCount());
+            stats.put("postingBytes", index == null ? 0 : index.postingBytes());
+            stats.put("lastRebuildAt", lastRebuildAt);
+            stats.put("lastRebuildMillis", lastRebuildMillis);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Сравнивает ответ индекса с SQL-поиском по тому же тексту и число проиндексированных вещей
+     * с числом доступных вещей в базе.
+     */
+    public Map<String, Object> checkConsistency(String text) {
+        Set<Long> sqlIds = new TreeSet<>();
+        itemRepository.searchItems(text).forEach(item -> sqlIds.add(item.getId()));
+        long available = itemRepository.countByAvailableTrue();
+
+        Set<Long> indexIds = new TreeSet<>();
+        int indexed;
+        lock.readLock().lock();
+        try {
+            if (index == null) {
+                throw new IllegalStateException("Индекс поиска вещей не построен");
+            }
+            index.search(text.toLowerCase(Locale.ROOT)).forEach(item -> indexIds.add(item.getId()));
+            indexed = index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Set<Long> missing = new TreeSet<>(sqlIds);
+        missing.removeAll(indexIds);
+        Set<Long> extra = new TreeSet<>(indexIds);
+        extra.removeAll(sqlIds);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("text", text);
+        result.put("consistent", missing.isEmpty() && extra.isEmpty() && indexed == available);
+        result.put("indexedItems", indexed);
+        result.put("availableItems", available);
+        result.put("sqlMatches", sqlIds.size());
+        result.put("indexMatches", indexIds.size());
+        result.put("missing", missing);
+        result.put("extra", extra);
+        return result;
+    }
+
+    private void checkSize() {
+        if (index.size() > maxItems) {
+            log.warn("Вещей для индекса поиска больше {}, поиск переключен на базу", maxItems);
+            index = null;
+            overflowed = true;
+        }
+    }
+
+    private static final class Index {
+        private final Map<Long, ItemDto> documents = new HashMap<>();
+        private final Map<Long, PostingList> postings = new HashMap<>();
+
+        void put(ItemDto item) {
+            ItemDto old = documents.remove(item.getId());
+            if (old != null) {
+                for (long gram : grams(old)) {
+                    PostingList list = postings.get(gram);
+                    list.remove(old.getId());
+                    if (list.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+            if (!Boolean.TRUE.equals(item.getAvailable())) {
+                return;
+            }
+            documents.put(item.getId(), item);
+            for (long gram : grams(item)) {
+                postings.computeIfAbsent(gram, key -> new PostingList()).add(item.getId());
+            }
+        }
+
+        List<ItemDto> search(String text) {
+            if (text.length() < GRAM) {
+                return documents.values().stream()
+                        .filter(item -> matches(item, text))
+                        .sorted(Comparator.comparing(ItemDto::getId))
+                        .toList();
+            }
+            Set<Long> grams = new HashSet<>();
+            addGrams(text, grams);
+            List<PostingList> lists = new ArrayList<>(grams.size());
+            for (long gram : grams) {
+                PostingList list = postings.get(gram);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(PostingList::size));
+
+            PostingList smallest = lists.get(0);
+            List<ItemDto> result = new ArrayList<>();
+            candidates:
+            for (int i = 0; i < smallest.size(); i++) {
+                long id = smallest.get(i);
+                for (int j = 1; j < lists.size(); j++) {
+                    if (!lists.get(j).contains(id)) {
+                        continue candidates;
+                    }
+                }
+                ItemDto item = documents.get(id);
+                if (matches(item, text)) {
+                    result.add(item);
+                }
+            }
+            return result;
+        }
+
+        int size() {
+            return documents.size();
+        }
+
+        long postingCount() {
+            return postings.values().stream().mapToLong(PostingList::size).sum();
+        }
+
+        long postingBytes() {
+            return postings.values().stream().mapToLong(PostingList::capacityBytes).sum();
+        }
+
+        private static boolean matches(ItemDto item, String text) {
+            return lower(item.getName()).contains(text) || lower(item.getDescription()).contains(text);
+        }
+
+        private static long[] grams(ItemDto item) {
+            Set<Long> grams = new HashSet<>();
+            addGrams(lower(item.getName()), grams);
+            addGrams(lower(item.getDescription()), grams);
+            return grams.stream().mapToLong(Long::longValue).toArray();
+        }
+
+        private static void addGrams(String text, Set<Long> grams) {
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+            }
+        }
+
+        private static String lower(String value) {
+            return value == null ? "" : value.toLowerCase(Locale.ROOT);
+        }
+    }
+}
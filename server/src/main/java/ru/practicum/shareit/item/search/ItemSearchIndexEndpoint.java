@@ -0,0 +1,38 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/itemsearch} — размер индекса и время последнего построения,
+ * {@code GET /actuator/itemsearch/{text}} — сверка с SQL-поиском,
+ * {@code POST /actuator/itemsearch} — перестроение индекса.
+ */
+@Component
+@Endpoint(id = "itemsearch")
+@RequiredArgsConstructor
+public class ItemSearchIndexEndpoint {
+    private final ItemSearchIndex searchIndex;
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return searchIndex.stats();
+    }
+
+    @ReadOperation
+    public Map<String, Object> consistency(@Selector String text) {
+        return searchIndex.checkConsistency(text);
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        searchIndex.rebuild();
+        return searchIndex.stats();
+    }
+}
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
@@ -19,12 +21,14 @@ import java.time.LocalDateTime;
 @Service
 @Slf4j
 @Transactional
+@Timed("shareit.service")
 public class CommentServiceImpl implements CommentService {
     private final CommentRepository repository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
     private final CommentMapper commentMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public CommentDto createdComment(Long userId, Long itemId, CommentDto commentDto) {
@@ -34,7 +38,9 @@ public class CommentServiceImpl implements CommentService {
         checkBooking(itemId, user.getId());
         commentDto.setCreated(LocalDateTime.now());
         Comment commentEntity = commentMapper.mapComment(commentDto, user, item);
-        return commentMapper.mapCommentDto(repository.save(commentEntity));
+        Comment saved = repository.save(commentEntity);
+        eventPublisher.publishEvent(new CommentCreatedEvent(itemId, saved.getId()));
+        return commentMapper.mapCommentDto(saved);
     }
 
     private User checkUser(Long userId) {
@@ -8,7 +8,10 @@ import java.util.List;
 public interface ItemService {
     ItemDto createItem(Long userId, ItemDto item);
 
-    ItemDto updateItem(Long userId, Long itemId, ItemDto item);
+    /**
+     * @param ifMatch ETag вещи, прочитанный клиентом; {@code null} — без проверки версии
+     */
+    ItemDto updateItem(Long userId, Long itemId, ItemDto item, String ifMatch);
 
     ItemWithCommentDto getItem(Long itemId);
 
@@ -1,55 +1,74 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.ETags;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingMapper;
-import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UnavailableActionError;
 import ru.practicum.shareit.item.*;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
 import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+import ru.practicum.shareit.item.pointer.BookingPointers;
+import ru.practicum.shareit.item.pointer.ItemBookingPointers;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.RequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
+@Timed("shareit.service")
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
-    private final BookingRepository bookingRepository;
     private final RequestRepository requestRepository;
 
     private final ItemMapper itemMapper;
     private final CommentMapper commentMapper;
     private final BookingMapper bookingMapper;
 
+    private final ItemSearchIndex searchIndex;
+    private final ItemDetailsCache itemDetailsCache;
+    private final ItemBookingPointers bookingPointers;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ItemSearchProperties searchProperties;
+
     @Override
     public ItemDto createItem(Long userId, ItemDto item) {
         log.info("Пользователь с id = {} создает вещь {}", userId, item);
         User user = getOwner(userId);
         ItemRequest request = checkItemRequest(item.getRequestId());
         Item itemEntity = itemMapper.mapItem(item, user, request);
-        return itemMapper.mapItemDto(itemRepository.save(itemEntity));
+        ItemDto created = itemMapper.mapItemDto(itemRepository.save(itemEntity));
+        eventPublisher.publishEvent(new ItemChangedEvent(created));
+        return created;
     }
 
     @Override
-    public ItemDto updateItem(Long userId, Long itemId, ItemDto item) {
+    public ItemDto updateItem(Long userId, Long itemId, ItemDto item, String ifMatch) {
         log.info("Пользователь с id = {} обновляет вещь с id {}", userId, itemId);
         User itemOwner = getOwner(userId);
         Item oldItem = itemRepository.findById(itemId)
@@ -57,6 +76,7 @@ public class ItemServiceImpl implements ItemService {
         if (oldItem.getOwner() == null || !oldItem.getOwner().equals(itemOwner)) {
             throw new UnavailableActionError("Пользователь с id = " + userId + "не может редактировать эту вещь");
         }
+        ETags.checkIfMatch(ifMatch, oldItem.getVersion(), "Вещь " + itemId);
 
         if (item.getDescription() != null && !item.getDescription().equals(oldItem.getDescription())) {
             oldItem.setDescription(item.getDescription());
@@ -70,35 +90,48 @@ public class ItemServiceImpl implements ItemService {
             oldItem.setAvailable(item.getAvailable());
         }
 
-        return itemMapper.mapItemDto(itemRepository.save(oldItem));
+        // версия в ответе должна быть уже увеличенной, а конфликт версий — стать ошибкой этого запроса
+        ItemDto updated = itemMapper.mapItemDto(itemRepository.saveAndFlush(oldItem));
+        eventPublisher.publishEvent(new ItemChangedEvent(updated));
+        return updated;
     }
 
 
-    @Transactional(readOnly = true)
+    /**
+     * Карточка вещи берется из кэша. Транзакция не открывается, чтобы попадание в кэш
+     * не занимало соединение с базой; при промахе каждый запрос идет в своей транзакции.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     @Override
     public ItemWithCommentDto getItem(Long itemId) {
-        LocalDateTime now = LocalDateTime.now().minusSeconds(2); //костыль для прохождения теста постмана
         log.info("Запрос на получение вещи с id {}", itemId);
-        Item item = itemRepository.findById(itemId)
+        return itemDetailsCache.get(itemId, this::loadItem);
+    }
+
+    private ItemDetailsCache.Entry loadItem(Long itemId) {
+        LocalDateTime now = ItemBookingPointers.now();
+        Item item = itemRepository.findWithBookingPointers(itemId)
                 .orElseThrow(() -> new NotFoundException("Не удается найти вещь с id " + itemId));
         List<CommentDto> comment = commentMapper.mapListCommentDto(commentRepository.findCommentsByItemId(itemId));
-        log.error("Время: {}", now);
-        Booking lastBooking = bookingRepository.findLastBooking(itemId, now)
-                .orElse(null);
-        Booking nextBooking =  bookingRepository.findNextBooking(itemId, now)
-                .orElse(null);
-
-        return itemMapper.toItemWithCommentDto(item, comment,
-                nextBooking == null ? null : bookingMapper.mapBookingDto(nextBooking),
-                lastBooking == null ? null : bookingMapper.mapBookingDto(lastBooking));
+        BookingPointers pointers = bookingPointers.current(item, now);
+
+        ItemWithCommentDto dto = itemMapper.toItemWithCommentDto(item, comment,
+                mapBooking(pointers.next()), mapBooking(pointers.last()));
+        LocalDateTime boundary = pointers.refreshAt();
+        return new ItemDetailsCache.Entry(dto, boundary == null ? null : Duration.between(now, boundary));
     }
 
     @Transactional(readOnly = true)
     @Override
     public List<ItemWithCommentDto> getUserItems(Long userId) {
         log.info("Запрос на получение вещей пользователя с id {}", userId);
-        LocalDateTime now = LocalDateTime.now();
-        List<Long> itemsId = itemRepository.findByOwnerId(userId).stream()
+        LocalDateTime now = ItemBookingPointers.now();
+        User owner = getOwner(userId);
+        List<Item> items = itemRepository.findByOwnerIdWithBookingPointers(owner.getId());
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        List<Long> itemsId = items.stream()
                 .map(Item::getId)
                 .toList();
 
@@ -108,22 +141,24 @@ public class ItemServiceImpl implements ItemService {
                         Collectors.mapping(commentMapper::mapCommentDto, Collectors.toList())
                 ));
 
-        return itemRepository.findByOwner(getOwner(userId)).stream()
+        Map<Long, BookingPointers> pointersByItem = bookingPointers.current(items, now);
+
+        return items.stream()
                 .map(item -> {
                     List<CommentDto> comment = commentsByItem.getOrDefault(item.getId(), List.of());
-                    Booking nextBooking =  bookingRepository.findNextBooking(item.getId(), now)
-                            .orElse(null);
-                    Booking lastBooking = bookingRepository.findLastBooking(item.getId(), now)
-                            .orElse(null);
+                    BookingPointers pointers = pointersByItem.get(item.getId());
 
                     return itemMapper
                             .toItemWithCommentDto(item, comment,
-                                    nextBooking == null ? null : bookingMapper.mapBookingDto(nextBooking),
-                                    lastBooking == null ? null : bookingMapper.mapBookingDto(lastBooking));
+                                    mapBooking(pointers.next()), mapBooking(pointers.last()));
                 })
                 .toList();
     }
 
+    private BookingDto mapBooking(Booking booking) {
+        return booking == null ? null : bookingMapper.mapBookingDto(booking);
+    }
+
     @Transactional(readOnly = true)
     @Override
     public List<ItemDto> searchItems(Long userId, String text) {
@@ -132,11 +167,37 @@ public class ItemServiceImpl implements ItemService {
         if (text.isEmpty()) {
             return new ArrayList<ItemDto>();
         }
-        return itemRepository.searchItems(text)
-                .stream().map(itemMapper::mapItemDto)
+        if (searchProperties.searchMode() == ItemSearchMode.INDEX) {
+            Optional<List<ItemDto>> found = searchIndex.trySearch(text);
+            if (found.isPresent()) {
+                return found.get();
+            }
+        }
+        List<Item> items;
+        if (searchProperties.searchMode() == ItemSearchMode.FULLTEXT) {
+            String query = toPrefixQuery(text);
+            if (query.isEmpty()) {
+                return new ArrayList<ItemDto>();
+            }
+            items = itemRepository.searchItemsFullText(query);
+        } else {
+            items = itemRepository.searchItems(text);
+        }
+        return items.stream().map(itemMapper::mapItemDto)
                 .toList();
     }
 
+    /**
+     * Превращает строку поиска в запрос to_tsquery: каждое слово ищется по префиксу,
+     * слова объединяются через И. Служебные символы tsquery отбрасываются.
+     */
+    private static String toPrefixQuery(String text) {
+        return Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
     private User getOwner(Long userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Не удалось найти пользователя с id " + userId));
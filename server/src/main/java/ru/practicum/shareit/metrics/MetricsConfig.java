@@ -0,0 +1,21 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.aop.MeterTagAnnotationHandler;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Метрики сервисов: {@code @Timed} на классах *ServiceImpl пишет таймер {@code shareit.service}
+ * (теги class, method, exception), а время запросов репозиториев Spring Boot пишет в
+ * {@code spring.data.repository.invocations}. Здесь подключаются теги из параметров методов ({@code @MeterTag}):
+ * их значения вычисляют бины-резолверы, чтобы в тег не попадал произвольный ввод пользователя.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterTagAnnotationHandler meterTagAnnotationHandler(BeanFactory beanFactory) {
+        return new MeterTagAnnotationHandler(beanFactory::getBean, beanFactory::getBean);
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.metrics;
+
+/**
+ * Счетчик SQL-запросов текущего потока. Запросы считаются, только пока открыта область {@link #open()}:
+ * на сервере ее открывает {@link SqlStatementFilter} на время HTTP-запроса, в тестах — SqlStatementCountExtension.
+ * Области вкладываются: при закрытии внутренней ее запросы добавляются к внешней.
+ */
+public final class SqlStatementCounter {
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static void record(long statements, long elapsedMillis) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.statements += statements;
+            scope.elapsedMillis += elapsedMillis;
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final Scope parent;
+        private long statements;
+        private long elapsedMillis;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        /**
+         * Число обращений к базе; пакет (batch) считается одним обращением.
+         */
+        public long getStatements() {
+            return statements;
+        }
+
+        /**
+         * Суммарное время выполнения запросов в JDBC-драйвере.
+         */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public void close() {
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                parent.statements += statements;
+                parent.elapsedMillis += elapsedMillis;
+                CURRENT.set(parent);
+            }
+        }
+    }
+}
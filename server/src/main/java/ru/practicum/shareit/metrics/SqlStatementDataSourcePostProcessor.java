@@ -0,0 +1,29 @@
+package ru.practicum.shareit.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Оборачивает источник данных в прокси, который сообщает о каждом запросе в {@link SqlStatementCounter}.
+ * Включается свойством {@code shareit.sql-statements.enabled} (тестовый профиль), в рабочем профиле прокси нет.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.sql-statements.enabled", havingValue = "true")
+public class SqlStatementDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(new SqlStatementListener())
+                    .build();
+        }
+        return bean;
+    }
+}
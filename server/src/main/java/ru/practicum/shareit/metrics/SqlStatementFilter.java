@@ -0,0 +1,94 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Считает SQL-запросы и время JDBC за один HTTP-запрос. Итог пишется в метрики {@code shareit.sql.statements}
+ * и {@code shareit.sql.time} с тегом {@code uri} (шаблон пути), в заголовки ответа {@value #STATEMENTS_HEADER}
+ * и {@value #TIME_HEADER}, а если запросов больше порога — в журнал как вероятная проблема N+1.
+ * Чтобы заголовки успели попасть в ответ, тело придерживается в памяти до конца обработки,
+ * поэтому фильтр включается только вне рабочего профиля.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "shareit.sql-statements.enabled", havingValue = "true")
+public class SqlStatementFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String TIME_HEADER = "X-Sql-Time-Ms";
+
+    private final MeterRegistry meterRegistry;
+    private final int warnThreshold;
+    private final boolean headers;
+
+    public SqlStatementFilter(MeterRegistry meterRegistry,
+                              @Value("${shareit.sql-statements.warn-threshold:10}") int warnThreshold,
+                              @Value("${shareit.sql-statements.headers:true}") boolean headers) {
+        this.meterRegistry = meterRegistry;
+        this.warnThreshold = warnThreshold;
+        this.headers = headers;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper cachedResponse = headers ? new ContentCachingResponseWrapper(response) : null;
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open();
+        try {
+            chain.doFilter(request, cachedResponse == null ? response : cachedResponse);
+        } finally {
+            scope.close();
+            report(request, scope);
+            if (cachedResponse != null) {
+                response.setHeader(STATEMENTS_HEADER, String.valueOf(scope.getStatements()));
+                response.setHeader(TIME_HEADER, String.valueOf(scope.getElapsedMillis()));
+                cachedResponse.copyBodyToResponse();
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlStatementCounter.Scope scope) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        DistributionSummary.builder("shareit.sql.statements")
+                .description("SQL-запросы за один HTTP-запрос")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(scope.getStatements());
+        Timer.builder("shareit.sql.time")
+                .description("Время JDBC за один HTTP-запрос")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(scope.getElapsedMillis(), TimeUnit.MILLISECONDS);
+        if (scope.getStatements() > warnThreshold) {
+            log.warn("{} {} выполнил {} SQL-запросов за {} мс (порог {}), возможна проблема N+1",
+                    request.getMethod(), request.getRequestURI(), scope.getStatements(), scope.getElapsedMillis(),
+                    warnThreshold);
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.FullRequestDto;
 import ru.practicum.shareit.request.dto.RequestAddDto;
 import ru.practicum.shareit.request.dto.RequestDto;
 import ru.practicum.shareit.request.service.RequestService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -37,13 +39,20 @@ public class ItemRequestController {
     }
 
     /**
-     * Получение запросов, созданных другим пользователем
-     * GET /requests/all
+     * Получение запросов, созданных другим пользователем, от новых к старым
+     * GET /requests/all?size={size}
+     * Следующая страница запрашивается курсором afterCreated и afterId — значениями
+     * последнего запроса предыдущей страницы.
      * Headers X-Sharer-User-Id
      */
     @GetMapping("/all")
-    public List<RequestDto> getRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return requestService.getAllRequests(userId);
+    public List<RequestDto> getRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                        @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                        @RequestParam(name = "afterCreated", required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                        LocalDateTime afterCreated,
+                                        @RequestParam(name = "afterId", required = false) Long afterId) {
+        return requestService.getAllRequests(userId, size, afterCreated, afterId);
     }
 
     /**
@@ -1,18 +1,33 @@
 package ru.practicum.shareit.request;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface RequestRepository extends JpaRepository<ItemRequest, Long> {
 
     @Query("SELECT r FROM ItemRequest r " +
-            "JOIN FETCH r.requester " +
             "WHERE r.requester.id != :userId " +
-            "ORDER BY r.created DESC")
-    List<ItemRequest> findByNotUserId(@Param("userId") Long userId);
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findOthersFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Продолжение ленты после запроса с (afterCreated, afterId). Условие на created <= afterCreated
+     * задает границу для индекса по (created DESC, id DESC), поэтому глубина страницы не влияет на время запроса.
+     */
+    @Query("SELECT r FROM ItemRequest r " +
+            "WHERE r.requester.id != :userId " +
+            "AND r.created <= :afterCreated " +
+            "AND (r.created < :afterCreated OR r.id < :afterId) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findOthersAfter(@Param("userId") Long userId,
+                                      @Param("afterCreated") LocalDateTime afterCreated,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
 
     List<ItemRequest> findByRequester_IdOrderByCreatedDesc(Long requesterId);
 }
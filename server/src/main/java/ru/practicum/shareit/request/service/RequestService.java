@@ -4,6 +4,7 @@ import ru.practicum.shareit.request.dto.FullRequestDto;
 import ru.practicum.shareit.request.dto.RequestAddDto;
 import ru.practicum.shareit.request.dto.RequestDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface RequestService {
@@ -14,5 +15,5 @@ public interface RequestService {
 
     List<FullRequestDto> getRequestByUser(Long userId);
 
-    List<RequestDto> getAllRequests(Long userId);
+    List<RequestDto> getAllRequests(Long userId, Integer size, LocalDateTime afterCreated, Long afterId);
 }
@@ -1,12 +1,15 @@
 package ru.practicum.shareit.request.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.NotFoundException;
-import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.exception.UnavailableActionError;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.RequestItemDto;
 import ru.practicum.shareit.item.dto.ShortItemDto;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.RequestMapper;
@@ -18,12 +21,15 @@ import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Service
 @Slf4j
+@Timed("shareit.service")
 public class RequestServiceImpl implements RequestService {
     private final RequestRepository requestRepository;
     private final UserRepository userRepository;
@@ -49,7 +55,9 @@ public class RequestServiceImpl implements RequestService {
     public FullRequestDto getRequestById(Long requestId, Long userId) {
         log.info("Пользователь с id {} запрашивает информацию о запросе {}", userId, requestId);
         checkUser(userId);
-        return requestMapper.mapFullRequestDto(checkRequest(requestId), getItems(requestId));
+        ItemRequest request = checkRequest(requestId);
+        return requestMapper.mapFullRequestDto(request,
+                getItems(List.of(requestId)).getOrDefault(requestId, List.of()));
     }
 
     @Override
@@ -57,17 +65,32 @@ public class RequestServiceImpl implements RequestService {
         log.info("Запрос на получение списка запросов пользователя с  id {}", userId);
 
         List<ItemRequest> requests = requestRepository.findByRequester_IdOrderByCreatedDesc(userId);
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<ShortItemDto>> itemsByRequest = getItems(requests.stream()
+                .map(ItemRequest::getId)
+                .toList());
         return  requests.stream()
-                .map(request -> requestMapper.mapFullRequestDto(request, getItems(request.getId())))
+                .map(request -> requestMapper.mapFullRequestDto(request,
+                        itemsByRequest.getOrDefault(request.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<RequestDto> getAllRequests(Long userId) {
+    public List<RequestDto> getAllRequests(Long userId, Integer size, LocalDateTime afterCreated, Long afterId) {
         log.info("Пользователь с id {} отправил запрос на получение списка запросов", userId);
+        if (size <= 0) {
+            throw new UnavailableActionError("Некорректный размер страницы: size = " + size);
+        }
+        if ((afterCreated == null) != (afterId == null)) {
+            throw new UnavailableActionError("Курсор должен содержать оба параметра: afterCreated и afterId");
+        }
 
         User user = checkUser(userId);
-        List<ItemRequest> requests = requestRepository.findByNotUserId(user.getId());
+        List<ItemRequest> requests = afterCreated == null
+                ? requestRepository.findOthersFirstPage(user.getId(), PageRequest.of(0, size))
+                : requestRepository.findOthersAfter(user.getId(), afterCreated, afterId, PageRequest.of(0, size));
         return requestMapper.mapRequestDto(requests);
     }
 
@@ -81,8 +104,14 @@ public class RequestServiceImpl implements RequestService {
                 .orElseThrow(() -> new NotFoundException("Не удалось найти запрос с id " + requestId));
     }
 
-    private List<ShortItemDto> getItems(Long requestId) {
-        List<Item> itemsEntity = itemRepository.findByRequest_Id(requestId);
-        return itemMapper.toShortItemDtoList(itemsEntity);
+    /**
+     * Вещи по всем запросам одним запросом к базе, сгруппированные по id запроса.
+     */
+    private Map<Long, List<ShortItemDto>> getItems(Collection<Long> requestIds) {
+        return itemRepository.findRequestItems(requestIds).stream()
+                .collect(Collectors.groupingBy(
+                        RequestItemDto::requestId,
+                        Collectors.mapping(itemMapper::toShortItemDto, Collectors.toList())
+                ));
     }
 }
@@ -0,0 +1,5 @@
+-- ==========================================
+-- Заголовки сохраненного ответа (ETag, Location, Content-Type): повтор по ключу идемпотентности
+-- получает их вместе со статусом и телом
+-- ==========================================
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS response_headers VARCHAR(4096);
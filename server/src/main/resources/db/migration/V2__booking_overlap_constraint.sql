@@ -0,0 +1,73 @@
+-- ==========================================
+-- Запрет пересечения ожидающих и подтвержденных броней одной вещи
+-- ==========================================
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Пересечения, накопленные до ограничения. Подтвержденные брони выбрать между собой нельзя:
+-- миграция останавливается со списком пар, их нужно разобрать вручную
+DO
+$$
+    DECLARE
+        conflicts TEXT;
+    BEGIN
+        SELECT string_agg(a.id || '/' || b.id, ', ' ORDER BY a.id, b.id)
+        INTO conflicts
+        FROM bookings a
+                 JOIN bookings b ON b.item_id = a.item_id AND b.id > a.id
+        WHERE a.status = 'APPROVED'
+          AND b.status = 'APPROVED'
+          AND tsrange(a.start_time, a.end_time) && tsrange(b.start_time, b.end_time);
+        IF conflicts IS NOT NULL THEN
+            RAISE EXCEPTION 'Пересекаются подтвержденные брони (id/id): %. Отмените лишние и повторите миграцию',
+                conflicts;
+        END IF;
+    END
+$$;
+
+-- Ожидающая бронь, пересекающая подтвержденную или более раннюю ожидающую, отклоняется.
+-- Брони обходятся по id, поэтому из цепочки пересечений остается первая, а не все отклоняются разом
+DO
+$$
+    DECLARE
+        waiting  RECORD;
+        rejected INT := 0;
+    BEGIN
+        FOR waiting IN
+            SELECT w.id, w.item_id, w.start_time, w.end_time
+            FROM bookings w
+            WHERE w.status = 'WAITING'
+              AND EXISTS (SELECT 1
+                          FROM bookings o
+                          WHERE o.item_id = w.item_id
+                            AND o.id <> w.id
+                            AND o.status IN ('WAITING', 'APPROVED')
+                            AND tsrange(o.start_time, o.end_time) && tsrange(w.start_time, w.end_time))
+            ORDER BY w.id
+            LOOP
+                IF EXISTS (SELECT 1
+                           FROM bookings o
+                           WHERE o.item_id = waiting.item_id
+                             AND o.id <> waiting.id
+                             AND (o.status = 'APPROVED' OR (o.status = 'WAITING' AND o.id < waiting.id))
+                             AND tsrange(o.start_time, o.end_time) && tsrange(waiting.start_time, waiting.end_time))
+                THEN
+                    UPDATE bookings SET status = 'REJECTED' WHERE id = waiting.id;
+                    rejected := rejected + 1;
+                END IF;
+            END LOOP;
+        RAISE NOTICE 'Отклонено пересекающихся ожидающих броней: %', rejected;
+    END
+$$;
+
+DO
+$$
+    BEGIN
+        IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'excl_bookings_item_period') THEN
+            ALTER TABLE bookings
+                ADD CONSTRAINT excl_bookings_item_period EXCLUDE USING gist (
+                    item_id WITH =,
+                    tsrange(start_time, end_time) WITH &&
+                ) WHERE (status IN ('WAITING', 'APPROVED'));
+        END IF;
+    END
+$$;
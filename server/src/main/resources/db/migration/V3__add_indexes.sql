@@ -0,0 +1,30 @@
+-- ==========================================
+-- Индексы под запросы репозиториев
+-- ==========================================
+
+-- BookingRepository.getBookingByState*: фильтр по booker, сортировка start_time DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker, start_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker, status, start_time DESC, id DESC);
+
+-- BookingRepository.getBookingAllItemsByState*, existsOverlapping: брони вещей владельца по времени начала
+-- на базах с baseline V1 остался индекс (item_id, start_time) из schema.sql: IF NOT EXISTS его бы не заменил
+DROP INDEX IF EXISTS idx_bookings_item_start;
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_time DESC, id DESC);
+
+-- BookingRepository.findNextBooking, findLastAndNextBookings, getBookingAllItemsByStateStatus
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_time);
+
+-- BookingRepository.findLastBooking, findLastAndNextBookings, getPostBooking
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_end ON bookings (item_id, status, end_time);
+
+-- ItemRepository.findByOwnerId, соединение броней с вещами владельца
+CREATE INDEX IF NOT EXISTS idx_items_user ON items (user_id);
+
+-- ItemRepository.findByRequest_Id
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+-- CommentRepository.findCommentsByItemId, findCommentByItemIdIn
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+
+-- RequestRepository.findByRequester_IdOrderByCreatedDesc
+CREATE INDEX IF NOT EXISTS idx_requests_user_created ON requests (user_id, created DESC);
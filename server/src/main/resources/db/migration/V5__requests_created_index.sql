@@ -0,0 +1,5 @@
+-- ==========================================
+-- Лента чужих запросов: ORDER BY created DESC, id DESC с курсором
+-- RequestRepository.findOthersFirstPage, RequestRepository.findOthersAfter
+-- ==========================================
+CREATE INDEX IF NOT EXISTS idx_requests_created_id ON requests (created DESC, id DESC);
@@ -0,0 +1,31 @@
+-- ==========================================
+-- Последняя и следующая подтвержденные брони хранятся в строке вещи
+-- (ItemBookingPointers), чтобы карточка вещи не искала их по истории броней
+-- ==========================================
+ALTER TABLE items ADD COLUMN IF NOT EXISTS last_booking_id BIGINT;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS next_booking_id BIGINT;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS bookings_refresh_at TIMESTAMP WITHOUT TIME ZONE;
+
+ALTER TABLE items ADD CONSTRAINT fk_items_last_booking
+    FOREIGN KEY (last_booking_id) REFERENCES bookings (id) ON DELETE SET NULL;
+ALTER TABLE items ADD CONSTRAINT fk_items_next_booking
+    FOREIGN KEY (next_booking_id) REFERENCES bookings (id) ON DELETE SET NULL;
+
+-- ItemRepository.findBookingPointersDue: вещи, у которых ссылки пора сдвинуть
+CREATE INDEX IF NOT EXISTS idx_items_bookings_refresh_at ON items (bookings_refresh_at)
+    WHERE bookings_refresh_at IS NOT NULL;
+
+-- Заполнение для существующих вещей; расхождения с часами приложения исправит сверка
+UPDATE items i SET
+    last_booking_id = (SELECT b.id FROM bookings b
+                       WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.end_time < LOCALTIMESTAMP
+                       ORDER BY b.end_time DESC, b.id LIMIT 1),
+    next_booking_id = (SELECT b.id FROM bookings b
+                       WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_time >= LOCALTIMESTAMP
+                       ORDER BY b.start_time, b.id LIMIT 1),
+    bookings_refresh_at = LEAST(
+        (SELECT MIN(b.start_time) FROM bookings b
+         WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_time >= LOCALTIMESTAMP),
+        (SELECT MIN(b.end_time) FROM bookings b
+         WHERE b.item_id = i.id AND b.status = 'APPROVED'
+           AND b.start_time < LOCALTIMESTAMP AND b.end_time >= LOCALTIMESTAMP));
@@ -0,0 +1,5 @@
+-- ==========================================
+-- Брони, ожидающие подтверждения, по времени начала
+-- BookingRepository.lockStartedWaiting, BookingRepository.findWaitingAfter
+-- ==========================================
+CREATE INDEX IF NOT EXISTS idx_bookings_waiting_start ON bookings (start_time, id) WHERE status = 'WAITING';
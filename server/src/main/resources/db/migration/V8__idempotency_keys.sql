@@ -0,0 +1,16 @@
+-- ==========================================
+-- Ответы на запросы с заголовком Idempotency-Key (IdempotencyFilter):
+-- повтор запроса с тем же ключом получает сохраненный ответ, а не создает запись второй раз
+-- ==========================================
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    user_id         BIGINT                      NOT NULL,
+    idempotency_key VARCHAR(64)                 NOT NULL,
+    request_hash    BIGINT                      NOT NULL,
+    response_status SMALLINT,
+    response_body   BYTEA,
+    expires_at      TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_idempotency_keys PRIMARY KEY (user_id, idempotency_key)
+);
+
+-- IdempotencyRepository.purgeExpired: очистка записей с истекшим сроком
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
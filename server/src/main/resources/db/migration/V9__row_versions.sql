@@ -0,0 +1,6 @@
+-- ==========================================
+-- Версии строк броней и вещей (@Version): изменение по устаревшему чтению не сохраняется (409),
+-- а клиент может изменить запись условно, передав версию из ETag в If-Match (412 при несовпадении)
+-- ==========================================
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,182 @@
+package shareit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Проверяет, что горячие запросы репозиториев на заполненной базе обслуживаются индексами
+ * из миграций, а не последовательным чтением таблиц.
+ * SQL повторяет запросы, которые Hibernate строит по JPQL из репозиториев.
+ */
+public class SchemaIndexTest extends PostgresTest {
+    private static final int USERS = 5_000;
+    private static final int ITEMS = 20_000;
+    private static final int BOOKINGS_PER_ITEM = 10;
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        try (Connection connection = connection(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (name, email) " +
+                    "SELECT 'user' || g, 'user' || g || '@ya.ru' FROM generate_series(1, " + USERS + ") g");
+            statement.execute("INSERT INTO requests (user_id, description, created) " +
+                    "SELECT (g % " + USERS + ") + 1, 'request' || g, TIMESTAMP '2020-01-01' + g * INTERVAL '1 minute' " +
+                    "FROM generate_series(1, " + USERS + ") g");
+            statement.execute("INSERT INTO items (user_id, name, description, available, request_id) " +
+                    "SELECT (g % " + USERS + ") + 1, 'item' || g, 'description' || g, g % 5 <> 0, " +
+                    "CASE WHEN g % 10 = 0 THEN (g % " + USERS + ") + 1 END " +
+                    "FROM generate_series(1, " + ITEMS + ") g");
+            statement.execute("INSERT INTO bookings (start_time, end_time, booker, item_id, status) " +
+                    "SELECT TIMESTAMP '2020-01-01' + k * INTERVAL '10 days', " +
+                    "TIMESTAMP '2020-01-01' + k * INTERVAL '10 days' + INTERVAL '5 days', " +
+                    "((i * 7 + k * 13) % " + USERS + ") + 1, i, " +
+                    "CASE k % 10 WHEN 0 THEN 'REJECTED' WHEN 1 THEN 'WAITING' ELSE 'APPROVED' END " +
+                    "FROM generate_series(1, " + ITEMS + ") i, generate_series(1, " + BOOKINGS_PER_ITEM + ") k");
+            statement.execute("INSERT INTO comments (text, user_id, item_id, created) " +
+                    "SELECT 'comment' || g, (g % " + USERS + ") + 1, (g % " + ITEMS + ") + 1, " +
+                    "TIMESTAMP '2021-01-01' FROM generate_series(1, " + ITEMS + ") g");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                Arguments.of("getBookingByStateALL", """
+                        SELECT b.* FROM bookings b
+                        JOIN items i ON i.id = b.item_id
+                        JOIN users o ON o.id = i.user_id
+                        WHERE b.booker = 42
+                        ORDER BY b.start_time DESC, b.id DESC LIMIT 10""", List.of("bookings")),
+                Arguments.of("getBookingByStateStatus", """
+                        SELECT b.* FROM bookings b
+                        JOIN items i ON i.id = b.item_id
+                        JOIN users o ON o.id = i.user_id
+                        WHERE b.booker = 42 AND b.status = 'WAITING'
+                        ORDER BY b.start_time DESC, b.id DESC LIMIT 10""", List.of("bookings")),
+                Arguments.of("getBookingByStateALLAfter", """
+                        SELECT b.* FROM bookings b
+                        JOIN items i ON i.id = b.item_id
+                        JOIN users o ON o.id = i.user_id
+                        WHERE b.booker = 42 AND b.start_time <= TIMESTAMP '2020-03-01'
+                          AND (b.start_time < TIMESTAMP '2020-03-01' OR b.id < 42)
+                        ORDER BY b.start_time DESC, b.id DESC LIMIT 10""", List.of("bookings")),
+                Arguments.of("getBookingAllItemsByStateALL", """
+                        SELECT b.* FROM bookings b
+                        JOIN items i ON i.id = b.item_id
+                        JOIN users o ON o.id = i.user_id
+                        WHERE i.user_id = 42
+                        ORDER BY b.start_time DESC, b.id DESC LIMIT 10""", List.of("bookings", "items")),
+                Arguments.of("getBookingAllItemsByStateStatus", """
+                        SELECT b.* FROM bookings b
+                        JOIN items i ON i.id = b.item_id
+                        JOIN users o ON o.id = i.user_id
+                        WHERE i.user_id = 42 AND b.status = 'WAITING'
+                        ORDER BY b.start_time DESC, b.id DESC LIMIT 10""", List.of("bookings", "items")),
+                Arguments.of("getBookingAllItemsByStateALLAfter", """
+                        SELECT b.* FROM bookings b
+                        JOIN items i ON i.id = b.item_id
+                        JOIN users o ON o.id = i.user_id
+                        WHERE i.user_id = 42 AND b.start_time <= TIMESTAMP '2020-03-01'
+                          AND (b.start_time < TIMESTAMP '2020-03-01' OR b.id < 42)
+                        ORDER BY b.start_time DESC, b.id DESC LIMIT 10""", List.of("bookings", "items")),
+                Arguments.of("findLastBooking", """
+                        SELECT b.* FROM bookings b
+                        WHERE b.item_id = 42 AND b.end_time < TIMESTAMP '2020-03-01' AND b.status = 'APPROVED'
+                        ORDER BY b.end_time DESC, b.id LIMIT 1""", List.of("bookings")),
+                Arguments.of("findNextBooking", """
+                        SELECT b.* FROM bookings b
+                        WHERE b.item_id = 42 AND b.start_time >= TIMESTAMP '2020-03-01' AND b.status = 'APPROVED'
+                        ORDER BY b.start_time, b.id LIMIT 1""", List.of("bookings")),
+                Arguments.of("lockStartedWaiting", """
+                        SELECT b.id FROM bookings b
+                        WHERE b.status = 'WAITING' AND b.start_time <= TIMESTAMP '2020-03-01'
+                        ORDER BY b.start_time LIMIT 500
+                        FOR UPDATE SKIP LOCKED""", List.of("bookings")),
+                Arguments.of("findWaitingAfter", """
+                        SELECT b.id, b.item_id, b.start_time FROM bookings b
+                        WHERE b.status = 'WAITING'
+                          AND (b.start_time > TIMESTAMP '2020-03-01'
+                            OR (b.start_time = TIMESTAMP '2020-03-01' AND b.id > 42))
+                        ORDER BY b.start_time, b.id LIMIT 500""", List.of("bookings")),
+                Arguments.of("existsOverlapping", """
+                        SELECT COUNT(*) > 0 FROM bookings b
+                        WHERE b.item_id = 42 AND b.status IN ('WAITING', 'APPROVED')
+                          AND b.start_time < TIMESTAMP '2020-03-05' AND b.end_time > TIMESTAMP '2020-03-01'""",
+                        List.of("bookings")),
+                Arguments.of("getPostBooking", """
+                        SELECT b.* FROM bookings b
+                        JOIN items i ON i.id = b.item_id
+                        WHERE b.booker = 42 AND i.id = 42 AND b.status = 'APPROVED'
+                          AND b.end_time <= TIMESTAMP '2021-01-01'
+                        ORDER BY b.start_time DESC""", List.of("bookings")),
+                Arguments.of("findByOwnerId", "SELECT i.* FROM items i WHERE i.user_id = 42", List.of("items")),
+                Arguments.of("findByOwnerIdWithBookingPointers", """
+                        SELECT i.*, lb.*, lu.*, nb.*, nu.* FROM items i
+                        LEFT JOIN bookings lb ON lb.id = i.last_booking_id
+                        LEFT JOIN users lu ON lu.id = lb.booker
+                        LEFT JOIN bookings nb ON nb.id = i.next_booking_id
+                        LEFT JOIN users nu ON nu.id = nb.booker
+                        WHERE i.user_id = 42
+                        ORDER BY i.id""", List.of("items", "bookings")),
+                Arguments.of("findBookingPointersDue", """
+                        SELECT i.* FROM items i
+                        WHERE i.bookings_refresh_at < TIMESTAMP '2020-03-01' AND i.id > 0
+                        ORDER BY i.id LIMIT 500
+                        FOR UPDATE SKIP LOCKED""", List.of("items")),
+                Arguments.of("findRequestItems", "SELECT i.id, i.user_id, i.name, i.description, i.request_id " +
+                        "FROM items i WHERE i.request_id IN (40, 41, 42) ORDER BY i.id", List.of("items")),
+                Arguments.of("findCommentsByItemId", """
+                        SELECT c.* FROM comments c
+                        JOIN users a ON a.id = c.user_id
+                        WHERE c.item_id = 42""", List.of("comments")),
+                Arguments.of("findOthersFirstPage", """
+                        SELECT r.* FROM requests r
+                        WHERE r.user_id <> 42
+                        ORDER BY r.created DESC, r.id DESC LIMIT 10""", List.of("requests")),
+                Arguments.of("findOthersAfter", """
+                        SELECT r.* FROM requests r
+                        WHERE r.user_id <> 42
+                          AND r.created <= TIMESTAMP '2020-01-02'
+                          AND (r.created < TIMESTAMP '2020-01-02' OR r.id < 1440)
+                        ORDER BY r.created DESC, r.id DESC LIMIT 10""", List.of("requests")),
+                Arguments.of("findByRequester_IdOrderByCreatedDesc", """
+                        SELECT r.* FROM requests r
+                        WHERE r.user_id = 42
+                        ORDER BY r.created DESC""", List.of("requests"))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueryDoesNotScanTable(String name, String sql, List<String> indexedTables) throws SQLException {
+        List<String> plan = explain(sql);
+
+        for (String table : indexedTables) {
+            assertFalse(plan.stream().anyMatch(line -> line.contains("Seq Scan on " + table + " ")),
+                    name + " читает таблицу " + table + " целиком:\n" + String.join("\n", plan));
+        }
+    }
+
+    private static List<String> explain(String sql) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (Connection connection = connection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.add(rs.getString(1));
+            }
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,42 @@
+package shareit;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.metrics.SqlStatementCounter;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Проверка точного числа SQL-запросов в тестах с контекстом Spring:
+ * <pre>
+ * &#64;RegisterExtension
+ * final SqlStatementCountExtension sql = new SqlStatementCountExtension();
+ *
+ * List&lt;ItemWithCommentDto&gt; items = sql.assertStatements(4, () -&gt; itemService.getUserItems(ownerId));
+ * sql.assertStatements(4, () -&gt; mvc.perform(get("/items").header("X-Sharer-User-Id", ownerId)));
+ * </pre>
+ * Запросы к контроллерам через MockMvc выполняются в том же потоке и тоже учитываются.
+ */
+public class SqlStatementCountExtension implements BeforeEachCallback {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        DataSource dataSource = SpringExtension.getApplicationContext(context).getBean(DataSource.class);
+        assertInstanceOf(ProxyDataSource.class, dataSource,
+                "Подсчет SQL-запросов выключен: нужно shareit.sql-statements.enabled=true");
+    }
+
+    public <T> T assertStatements(long expected, ThrowingSupplier<T> call) throws Throwable {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            T result = call.get();
+            assertEquals(expected, scope.getStatements(), "Неверное число SQL-запросов");
+            return result;
+        }
+    }
+}
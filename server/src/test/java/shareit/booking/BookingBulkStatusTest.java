@@ -0,0 +1,179 @@
+package shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingStatusBulkDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.enums.BulkStatusOutcome;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.UnavailableActionError;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import shareit.SqlStatementCountExtension;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = ShareItServer.class)
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class BookingBulkStatusTest {
+    /**
+     * Брони владельца, блокировка вещей, блокировка броней WAITING, подтвержденные брони для проверки пересечений,
+     * UPDATE статусов, две выборки для ссылок вещи на брони и UPDATE этих ссылок — независимо от числа броней.
+     */
+    private static final long APPROVE_STATEMENTS = 8;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @RegisterExtension
+    final SqlStatementCountExtension sql = new SqlStatementCountExtension();
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void init() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@ya.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@ya.ru").build());
+        item = createItem(owner);
+    }
+
+    @Test
+    void approveReportsResultForEachBooking() throws Throwable {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(book(item, now.plusDays(2L * i + 1), now.plusDays(2L * i + 2), BookingStatus.WAITING));
+        }
+        Long rejected = book(item, now.plusDays(20), now.plusDays(21), BookingStatus.REJECTED);
+        Long foreign = book(createItem(booker), now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+        List<Long> request = new ArrayList<>(ids);
+        request.addAll(List.of(rejected, foreign, 1000L, ids.getFirst()));
+
+        List<BookingStatusResultDto> results = sql.assertStatements(APPROVE_STATEMENTS,
+                () -> bookingService.changeBookingsStatus(owner.getId(), request, true));
+
+        assertEquals(ids.size() + 3, results.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(ids.get(i), results.get(i).bookingId());
+            assertEquals(BulkStatusOutcome.UPDATED, results.get(i).outcome());
+            assertEquals(BookingStatus.APPROVED, results.get(i).status());
+            Booking booking = bookingRepository.findById(ids.get(i)).orElseThrow();
+            assertEquals(BookingStatus.APPROVED, booking.getStatus());
+            assertEquals(1L, booking.getVersion());
+        }
+        assertEquals(BulkStatusOutcome.ALREADY_DECIDED, results.get(ids.size()).outcome());
+        assertEquals(BulkStatusOutcome.NOT_FOUND, results.get(ids.size() + 1).outcome());
+        assertEquals(BulkStatusOutcome.NOT_FOUND, results.get(ids.size() + 2).outcome());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(foreign).orElseThrow().getStatus());
+        assertEquals(ids.getFirst(), itemRepository.findById(item.getId()).orElseThrow().getNextBooking().getId());
+    }
+
+    @Test
+    void approveSkipsOverlappingBookings() {
+        Long approved = book(item, now.plusDays(1), now.plusDays(3), BookingStatus.APPROVED);
+        Long overlapsApproved = book(item, now.plusDays(2), now.plusDays(4), BookingStatus.WAITING);
+        Long first = book(item, now.plusDays(5), now.plusDays(7), BookingStatus.WAITING);
+        Long overlapsFirst = book(item, now.plusDays(6), now.plusDays(8), BookingStatus.WAITING);
+
+        List<BookingStatusResultDto> results = bookingService.changeBookingsStatus(owner.getId(),
+                List.of(overlapsApproved, first, overlapsFirst), true);
+
+        assertEquals(BulkStatusOutcome.OVERLAPPING, results.get(0).outcome());
+        assertEquals("Пересекается с подтвержденной бронью " + approved, results.get(0).message());
+        assertEquals(BulkStatusOutcome.UPDATED, results.get(1).outcome());
+        assertEquals(BulkStatusOutcome.OVERLAPPING, results.get(2).outcome());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(overlapsFirst).orElseThrow().getStatus());
+    }
+
+    @Test
+    void rejectThroughController() throws Exception {
+        Long first = book(item, now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+        Long second = book(item, now.plusDays(3), now.plusDays(4), BookingStatus.WAITING);
+
+        mvc.perform(patch("/bookings/bulk")
+                        .param("approved", "false")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .content(mapper.writeValueAsString(new BookingStatusBulkDto(List.of(first, second))))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].outcome").value("UPDATED"))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"));
+
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(first).orElseThrow().getStatus());
+        assertNull(itemRepository.findById(item.getId()).orElseThrow().getNextBooking());
+    }
+
+    @Test
+    void rejectsEmptyOrTooLongList() {
+        assertThrows(UnavailableActionError.class,
+                () -> bookingService.changeBookingsStatus(owner.getId(), List.of(), true));
+        assertThrows(UnavailableActionError.class, () -> bookingService.changeBookingsStatus(owner.getId(),
+                Collections.nCopies(BookingService.MAX_BULK_SIZE + 1, 1L), true));
+    }
+
+    private Item createItem(User itemOwner) {
+        return itemRepository.save(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .owner(itemOwner)
+                .build());
+    }
+
+    private Long book(Item bookedItem, LocalDateTime start, LocalDateTime end, BookingStatus bookingStatus) {
+        return bookingRepository.save(Booking.builder()
+                .item(bookedItem)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(bookingStatus)
+                .build()).getId();
+    }
+}
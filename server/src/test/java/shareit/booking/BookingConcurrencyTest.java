@@ -0,0 +1,132 @@
+package shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(classes = ShareItServer.class)
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class BookingConcurrencyTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+    private Item item;
+
+    private final List<User> bookers = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@ya.ru").build());
+        item = itemRepository.save(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(userRepository.save(User.builder()
+                    .name("booker" + i)
+                    .email("booker" + i + "@ya.ru")
+                    .build()));
+        }
+    }
+
+    @Test
+    void onlyOneOfConcurrentOverlappingBookingsSucceeds() throws Exception {
+        AtomicInteger conflicts = new AtomicInteger();
+        int created = hammer(i -> booking(start.plusHours(i), start.plusHours(i).plusDays(1)), conflicts);
+
+        assertEquals(1, created, "Создано больше одной пересекающейся брони");
+        assertEquals(THREADS - 1, conflicts.get(), "Остальные запросы должны завершиться конфликтом");
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    void concurrentDisjointBookingsAllSucceed() throws Exception {
+        AtomicInteger conflicts = new AtomicInteger();
+        int created = hammer(i -> booking(start.plusDays(i), start.plusDays(i).plusHours(23)), conflicts);
+
+        assertEquals(THREADS, created);
+        assertEquals(0, conflicts.get());
+        assertEquals(THREADS, bookingRepository.count());
+    }
+
+    private BookingDto booking(LocalDateTime from, LocalDateTime to) {
+        return BookingDto.builder()
+                .itemId(item.getId())
+                .start(from)
+                .end(to)
+                .build();
+    }
+
+    private int hammer(IntFunction<BookingDto> bookingFactory, AtomicInteger conflicts) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                Long bookerId = bookers.get(i).getId();
+                BookingDto dto = bookingFactory.apply(i);
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    try {
+                        bookingService.createBooking(bookerId, dto);
+                        created.incrementAndGet();
+                    } catch (ConflictException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            startGate.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        return created.get();
+    }
+}
@@ -6,13 +6,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.PreconditionFailedException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.User;
@@ -104,7 +108,7 @@ public class BookingControllerTest {
 
     @Test
     void approveBooking() throws Exception {
-        when(bookingService.approveBooking(1L, 1L, true)).thenReturn(responseDto);
+        when(bookingService.approveBooking(1L, 1L, true, null)).thenReturn(responseDto);
 
         mvc.perform(patch("/bookings/1")
                         .param("approved", "true")
@@ -113,19 +117,39 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.id", is(1)))
                 .andExpect(jsonPath("$.status", is("WAITING")));
 
-        verify(bookingService).approveBooking(1L, 1L, true);
+        verify(bookingService).approveBooking(1L, 1L, true, null);
     }
 
     @Test
     void canceledBooking() throws Exception {
-        when(bookingService.canceledBooking(1L, 1L)).thenReturn(responseDto);
+        when(bookingService.canceledBooking(1L, 1L, null)).thenReturn(responseDto);
 
         mvc.perform(patch("/bookings/1/canceled")
                         .header("X-Sharer-User-Id", 1L))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(1)));
 
-        verify(bookingService).canceledBooking(1L, 1L);
+        verify(bookingService).canceledBooking(1L, 1L, null);
+    }
+
+    @Test
+    void approveBookingForwardsIfMatchAndReportsConflicts() throws Exception {
+        when(bookingService.approveBooking(1L, 1L, true, "\"0\""))
+                .thenThrow(new PreconditionFailedException("Бронь 1 изменена"));
+        when(bookingService.approveBooking(1L, 1L, false, null))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, 1L));
+
+        mvc.perform(patch("/bookings/1")
+                        .param("approved", "true")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.preconditionFailed", is("Бронь 1 изменена")));
+        mvc.perform(patch("/bookings/1")
+                        .param("approved", "false")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.conflict").exists());
     }
 
     @Test
@@ -142,7 +166,7 @@ public class BookingControllerTest {
 
     @Test
     void getBookingsByState() throws Exception {
-        when(bookingService.getBookingByState(1L, "ALL")).thenReturn(List.of(responseDto));
+        when(bookingService.getBookingByState(1L, "ALL", 0, 10, null, null)).thenReturn(List.of(responseDto));
 
         mvc.perform(get("/bookings")
                         .param("state", "ALL")
@@ -150,12 +174,12 @@ public class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id", is(1)));
 
-        verify(bookingService).getBookingByState(1L, "ALL");
+        verify(bookingService).getBookingByState(1L, "ALL", 0, 10, null, null);
     }
 
     @Test
     void getBookingsAllItemsByState() throws Exception {
-        when(bookingService.getBookingsAllItemsByState("ALL", 1L)).thenReturn(List.of(responseDto));
+        when(bookingService.getBookingsAllItemsByState("ALL", 1L, 0, 10, null, null)).thenReturn(List.of(responseDto));
 
         mvc.perform(get("/bookings/owner")
                         .param("state", "ALL")
@@ -163,6 +187,23 @@ public class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id", is(1)));
 
-        verify(bookingService).getBookingsAllItemsByState("ALL", 1L);
+        verify(bookingService).getBookingsAllItemsByState("ALL", 1L, 0, 10, null, null);
+    }
+
+    @Test
+    void getBookingsByStateWithCursor() throws Exception {
+        LocalDateTime afterStart = LocalDateTime.of(2025, 7, 25, 12, 0, 0);
+        when(bookingService.getBookingByState(1L, "ALL", 0, 5, afterStart, 7L)).thenReturn(List.of(responseDto));
+
+        mvc.perform(get("/bookings")
+                        .param("state", "ALL")
+                        .param("size", "5")
+                        .param("afterStart", "2025-07-25T12:00:00")
+                        .param("afterId", "7")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1)));
+
+        verify(bookingService).getBookingByState(1L, "ALL", 0, 5, afterStart, 7L);
     }
 }
@@ -0,0 +1,141 @@
+package shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.lifecycle.BookingLifecycleScheduler;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.UnavailableActionError;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(classes = ShareItServer.class)
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class BookingLifecycleTest {
+
+    @Autowired
+    private BookingLifecycleScheduler scheduler;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void init() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@ya.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@ya.ru").build());
+        item = itemRepository.save(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    @Test
+    void wheelRejectsBookingCreatedOnThisNode() {
+        Long started = book(now.minusHours(2), now.plusDays(1));
+        Long future = book(now.plusDays(2), now.plusDays(3));
+
+        assertEquals(1, scheduler.tick());
+
+        assertEquals(BookingStatus.REJECTED, status(started));
+        assertEquals(BookingStatus.WAITING, status(future));
+        assertEquals(1.0, meterRegistry.get("shareit.booking.lifecycle.expired")
+                .tag("source", "wheel").counter().count());
+        assertThrows(UnavailableActionError.class,
+                () -> bookingService.approveBooking(owner.getId(), started, true, null));
+    }
+
+    @Test
+    void approvedBookingIsNotRejected() {
+        Long bookingId = book(now.minusHours(2), now.plusDays(1));
+        bookingService.approveBooking(owner.getId(), bookingId, true, null);
+
+        assertEquals(0, scheduler.tick());
+        assertEquals(0, scheduler.sweep());
+
+        assertEquals(BookingStatus.APPROVED, status(bookingId));
+    }
+
+    @Test
+    void sweepRejectsBookingsUnknownToWheel() {
+        Booking started = save(now.minusDays(2), now.minusDays(1), BookingStatus.WAITING);
+        Booking approved = save(now.minusDays(4), now.minusDays(3), BookingStatus.APPROVED);
+        Booking future = save(now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+
+        assertEquals(1, scheduler.sweep());
+
+        assertEquals(BookingStatus.REJECTED, status(started.getId()));
+        assertEquals(BookingStatus.APPROVED, status(approved.getId()));
+        assertEquals(BookingStatus.WAITING, status(future.getId()));
+        assertEquals(0, scheduler.sweep());
+    }
+
+    @Test
+    void loadSchedulesFutureWaitingBookings() {
+        save(now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+        save(now.plusDays(3), now.plusDays(4), BookingStatus.APPROVED);
+        int before = scheduler.scheduled();
+
+        scheduler.load();
+
+        assertEquals(before + 1, scheduler.scheduled());
+    }
+
+    private Long book(LocalDateTime start, LocalDateTime end) {
+        return bookingService.createBooking(booker.getId(), BookingDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(end)
+                .build()).getId();
+    }
+
+    private Booking save(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+
+    private BookingStatus status(Long bookingId) {
+        return bookingRepository.findById(bookingId).orElseThrow().getStatus();
+    }
+}
@@ -0,0 +1,82 @@
+package shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.UnavailableActionError;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = ShareItServer.class)
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class BookingMetricsTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void bookingListTimerTaggedByState() {
+        Long userId = userService.createUser(UserDto.builder().name("booker").email("booker@ya.ru").build()).getId();
+
+        bookingService.getBookingByState(userId, "past", 0, 10, null, null);
+        bookingService.getBookingByState(userId, "PAST", 0, 10, null, null);
+        bookingService.getBookingsAllItemsByState("waiting", userId, 0, 10, null, null);
+        assertThrows(UnavailableActionError.class,
+                () -> bookingService.getBookingByState(userId, "unknown", 0, 10, null, null));
+
+        assertEquals(2, meterRegistry.get("shareit.booking.list")
+                .tags("method", "getBookingByState", "state", "PAST", "exception", "none")
+                .timer().count());
+        assertEquals(1, meterRegistry.get("shareit.booking.list")
+                .tags("method", "getBookingsAllItemsByState", "state", "WAITING")
+                .timer().count());
+        assertEquals(1, meterRegistry.get("shareit.booking.list")
+                .tags("state", "INVALID", "exception", "UnavailableActionError")
+                .timer().count());
+        assertEquals(1, meterRegistry.get("shareit.service")
+                .tags("class", "ru.practicum.shareit.user.service.UserServiceImpl", "method", "createUser")
+                .timer().count());
+        assertEquals(2, meterRegistry.get("spring.data.repository.invocations")
+                .tags("repository", "BookingRepository", "method", "getBookingByStatePast")
+                .timer().count());
+    }
+
+    @Test
+    void prometheusExposesSloBuckets() throws Exception {
+        Long userId = userService.createUser(UserDto.builder().name("booker").email("booker@ya.ru").build()).getId();
+        bookingService.getBookingByState(userId, "current", 0, 10, null, null);
+
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("shareit_booking_list_seconds_bucket{"
+                        + "class=\"ru.practicum.shareit.booking.service.BookingServiceImpl\",exception=\"none\","
+                        + "method=\"getBookingByState\",state=\"CURRENT\",le=\"0.1\"}")));
+    }
+}
@@ -0,0 +1,115 @@
+package shareit.booking;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Миграция V2 на базе, где пересекающиеся брони уже есть: ограничение добавляется только после того,
+ * как пересечения разобраны. Схема поднимается до V1, заполняется и только потом мигрирует дальше.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class BookingOverlapMigrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16.1")
+            .withDatabaseName("shareit")
+            .withUsername("shareit")
+            .withPassword("shareit");
+
+    @BeforeEach
+    void migrateToInitialSchema() throws SQLException {
+        flyway("1").clean();
+        flyway("1").migrate();
+        execute("INSERT INTO users (id, name, email) VALUES (1, 'owner', 'owner@ya.ru'), (2, 'booker', 'booker@ya.ru')",
+                "INSERT INTO items (id, user_id, name, description, available) " +
+                        "VALUES (1, 1, 'item', 'description', true), (2, 1, 'item', 'description', true)");
+    }
+
+    @Test
+    void rejectsLaterOverlappingWaitingBookings() throws SQLException {
+        book(1, 1, "2020-01-01", "2020-01-05", "WAITING");
+        book(2, 1, "2020-01-03", "2020-01-07", "WAITING");
+        book(3, 1, "2020-01-06", "2020-01-09", "WAITING");
+        book(4, 1, "2020-01-20", "2020-01-25", "WAITING");
+        book(5, 1, "2020-01-22", "2020-01-24", "APPROVED");
+        book(6, 1, "2020-01-01", "2020-01-05", "REJECTED");
+        book(7, 2, "2020-01-03", "2020-01-07", "WAITING");
+
+        flyway("2").migrate();
+
+        Map<Long, String> statuses = statuses();
+        assertEquals("WAITING", statuses.get(1L));
+        assertEquals("REJECTED", statuses.get(2L));
+        assertEquals("WAITING", statuses.get(3L), "Бронь пересекалась только с отклоненной");
+        assertEquals("REJECTED", statuses.get(4L), "Подтвержденная бронь важнее более ранней ожидающей");
+        assertEquals("APPROVED", statuses.get(5L));
+        assertEquals("REJECTED", statuses.get(6L));
+        assertEquals("WAITING", statuses.get(7L));
+        assertThrows(SQLException.class, () -> book(8, 1, "2020-01-02", "2020-01-03", "WAITING"));
+    }
+
+    @Test
+    void stopsOnOverlappingApprovedBookings() throws SQLException {
+        book(1, 1, "2020-01-01", "2020-01-05", "APPROVED");
+        book(2, 1, "2020-01-03", "2020-01-07", "APPROVED");
+        book(3, 1, "2020-01-04", "2020-01-06", "WAITING");
+
+        FlywayException e = assertThrows(FlywayException.class, () -> flyway("2").migrate());
+
+        assertTrue(e.getMessage().contains("1/2"), e.getMessage());
+        assertEquals("WAITING", statuses().get(3L));
+    }
+
+    private static Flyway flyway(String target) {
+        return Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .cleanDisabled(false)
+                .target(target)
+                .load();
+    }
+
+    private static void book(long id, long itemId, String start, String end, String status) throws SQLException {
+        execute("INSERT INTO bookings (id, start_time, end_time, booker, item_id, status) VALUES (" + id + ", " +
+                "TIMESTAMP '" + start + "', TIMESTAMP '" + end + "', 2, " + itemId + ", '" + status + "')");
+    }
+
+    private static Map<Long, String> statuses() throws SQLException {
+        Map<Long, String> statuses = new HashMap<>();
+        try (Connection connection = connection(); Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT id, status FROM bookings")) {
+            while (rows.next()) {
+                statuses.put(rows.getLong("id"), rows.getString("status"));
+            }
+        }
+        return statuses;
+    }
+
+    private static void execute(String... sql) throws SQLException {
+        try (Connection connection = connection(); Statement statement = connection.createStatement()) {
+            for (String query : sql) {
+                statement.execute(query);
+            }
+        }
+    }
+
+    private static Connection connection() throws SQLException {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+}
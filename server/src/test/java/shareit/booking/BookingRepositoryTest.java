@@ -5,10 +5,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.OffsetPageRequest;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.enums.BookingStatus;
@@ -136,7 +139,7 @@ public class BookingRepositoryTest {
 
     @Test
     public void getBookingByStateAll() {
-        List<Booking> bookingsUser = bookingRepository.getBookingByStateALL(user2.getId());
+        List<Booking> bookingsUser = bookingRepository.getBookingByStateALL(user2.getId(), Pageable.unpaged());
 
         log.info("Всего бронирований у user2: {}", bookingsUser.size());
         bookingsUser.forEach(b -> log.info("Booking id = {}, booker = {}", b.getId(), b.getBooker().getName()));
@@ -148,7 +151,7 @@ public class BookingRepositoryTest {
 
     @Test
     public void getBookingByStateStatus() {
-        List<Booking> bookings = bookingRepository.getBookingByStateStatus(user2.getId(), BookingStatus.APPROVED);
+        List<Booking> bookings = bookingRepository.getBookingByStateStatus(user2.getId(), BookingStatus.APPROVED, Pageable.unpaged());
 
         bookings.stream().forEach(booking -> log.info(booking.getId().toString()));
         assertEquals(2, bookings.size(), "Количество бронирований пользователя не совпадает");
@@ -158,7 +161,7 @@ public class BookingRepositoryTest {
 
     @Test
     public void getBookingByStateCurrent() {
-        List<Booking> bookings = bookingRepository.getBookingByStateCurrent(user2.getId(), testTime);
+        List<Booking> bookings = bookingRepository.getBookingByStateCurrent(user2.getId(), testTime, Pageable.unpaged());
 
         bookings.forEach(b -> log.info("Booking id = {}, booker = {}", b.getId(), b.getBooker().getName()));
 
@@ -168,7 +171,7 @@ public class BookingRepositoryTest {
 
     @Test
     public void getBookingByStateFuture() {
-        List<Booking> bookings = bookingRepository.getBookingByStateFuture(user2.getId(), testTime);
+        List<Booking> bookings = bookingRepository.getBookingByStateFuture(user2.getId(), testTime, Pageable.unpaged());
 
         assertEquals(1, bookings.size(), "Количество бронирований пользователя не совпадает");
         checkBooking(bookings.get(0), bookingFuture);
@@ -176,7 +179,7 @@ public class BookingRepositoryTest {
 
     @Test
     public void getBookingByStatePast() {
-        List<Booking> bookings = bookingRepository.getBookingByStatePast(user1.getId(), testTime);
+        List<Booking> bookings = bookingRepository.getBookingByStatePast(user1.getId(), testTime, Pageable.unpaged());
 
         assertEquals(1, bookings.size(), "Количество бронирований пользователя не совпадает");
         checkBooking(bookings.get(0), bookingPast);
@@ -184,7 +187,7 @@ public class BookingRepositoryTest {
 
     @Test
     public void getBookingAllItemsByStateAll() {
-        List<Booking> bookings = bookingRepository.getBookingAllItemsByStateALL(item1.getId());
+        List<Booking> bookings = bookingRepository.getBookingAllItemsByStateALL(item1.getId(), Pageable.unpaged());
 
         bookings.stream().forEach(booking -> log.info(booking.getId().toString()));
         assertEquals(4, bookings.size(), "Количество бронирований пользователя не совпадает");
@@ -196,7 +199,7 @@ public class BookingRepositoryTest {
 
     @Test
     public void getBookingAllItemsByStateStatus() {
-        List<Booking> bookings = bookingRepository.getBookingAllItemsByStateStatus(item1.getId(), BookingStatus.APPROVED);
+        List<Booking> bookings = bookingRepository.getBookingAllItemsByStateStatus(item1.getId(), BookingStatus.APPROVED, Pageable.unpaged());
 
         bookings.stream().forEach(booking -> log.info(booking.getId().toString()));
         assertEquals(3, bookings.size(), "Количество бронирований пользователя не совпадает");
@@ -204,4 +207,54 @@ public class BookingRepositoryTest {
         checkBooking(bookings.get(1), bookingCurrent);
         checkBooking(bookings.get(2), bookingPast);
     }
+
+    @Test
+    public void getBookingAllItemsByStateAllWithPage() {
+        List<Booking> bookings = bookingRepository.getBookingAllItemsByStateALL(user1.getId(), PageRequest.of(1, 2));
+
+        assertEquals(2, bookings.size(), "Количество бронирований на странице не совпадает");
+        checkBooking(bookings.get(0), bookingCurrent);
+        checkBooking(bookings.get(1), bookingPast);
+    }
+
+    @Test
+    public void getBookingAllItemsByStateAllWithOffset() {
+        List<Booking> bookings = bookingRepository.getBookingAllItemsByStateALL(user1.getId(),
+                new OffsetPageRequest(1, 2));
+
+        assertEquals(2, bookings.size(), "Количество бронирований на странице не совпадает");
+        checkBooking(bookings.get(0), bookingFuture);
+        checkBooking(bookings.get(1), bookingCurrent);
+    }
+
+    @Test
+    public void getBookingAllItemsByStateAllWithCursor() {
+        List<Booking> firstPage = bookingRepository.getBookingAllItemsByStateALL(user1.getId(), PageRequest.of(0, 2));
+        Booking last = firstPage.get(firstPage.size() - 1);
+
+        List<Booking> secondPage = bookingRepository.getBookingAllItemsByStateALLAfter(user1.getId(),
+                last.getStart(), last.getId(), PageRequest.of(0, 2));
+
+        assertEquals(2, secondPage.size(), "Количество бронирований на странице не совпадает");
+        checkBooking(secondPage.get(0), bookingCurrent);
+        checkBooking(secondPage.get(1), bookingPast);
+    }
+
+    @Test
+    public void getBookingByStateAllWithCursorOnEqualStart() {
+        Booking sameStart = bookingRepository.save(Booking.builder()
+                .start(bookingFuture.getStart())
+                .end(bookingFuture.getEnd())
+                .item(item2)
+                .booker(user2)
+                .status(BookingStatus.WAITING)
+                .build());
+
+        List<Booking> bookings = bookingRepository.getBookingByStateALLAfter(user2.getId(),
+                sameStart.getStart(), sameStart.getId(), PageRequest.of(0, 10));
+
+        assertEquals(2, bookings.size(), "Количество бронирований после курсора не совпадает");
+        checkBooking(bookings.get(0), bookingFuture);
+        checkBooking(bookings.get(1), bookingCurrent);
+    }
 }
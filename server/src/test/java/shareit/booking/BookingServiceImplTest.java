@@ -1,5 +1,6 @@
 package shareit.booking;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,6 +9,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.OffsetPageRequest;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.BookingMapper;
@@ -15,17 +21,21 @@ import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.UnavailableActionError;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.pointer.ItemBookingPointers;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserDto;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -50,6 +60,12 @@ public class BookingServiceImplTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private ItemBookingPointers bookingPointers;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Spy
     private final ItemMapper itemMapper = Mappers.getMapper(ItemMapper.class);  // Добавлено
 
@@ -142,12 +158,14 @@ public class BookingServiceImplTest {
         @Test
         void shouldCancelBooking() {
             when(bookingRepository.findById(booking1.getId())).thenReturn(Optional.of(booking1));
-            when(bookingRepository.save(any())).thenReturn(booking1);
+            when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
+            when(bookingRepository.saveAndFlush(any())).thenReturn(booking1);
             when(bookingMapper.mapBookingResponseDto(any())).thenReturn(responseDto);
 
-            BookingResponseDto result = service.canceledBooking(user1.getId(), booking1.getId());
+            BookingResponseDto result = service.canceledBooking(user1.getId(), booking1.getId(), null);
 
-            verify(bookingRepository).save(any());
+            verify(bookingRepository).saveAndFlush(any());
+            verify(bookingPointers).refresh(eq(item1), any(LocalDateTime.class));
         }
 
         @Test
@@ -156,11 +174,11 @@ public class BookingServiceImplTest {
             when(bookingRepository.findById(booking1.getId())).thenReturn(Optional.of(booking1));
 
             var ex = assertThrows(UnavailableActionError.class,
-                    () -> service.canceledBooking(otherUserId, booking1.getId()));
+                    () -> service.canceledBooking(otherUserId, booking1.getId(), null));
 
             assertEquals("Пользователь с id 99 не может отменить бронь, так как она не принадлежит ему",
                     ex.getMessage());
-            verify(bookingRepository, never()).save(any());
+            verify(bookingRepository, never()).saveAndFlush(any());
         }
     }
 
@@ -169,7 +187,7 @@ public class BookingServiceImplTest {
         @Test
         public void createBooking() {
             when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
-            when(itemRepository.findById(item1.getId())).thenReturn(Optional.of(item1));
+            when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
             when(bookingRepository.save(any())).thenReturn(booking1);
 
             when(bookingMapper.mapBookingResponseDto(any())).thenReturn(responseDto);
@@ -184,6 +202,49 @@ public class BookingServiceImplTest {
             assertEquals(dto.getEnd(), result.getEnd());
         }
 
+        @Test
+        public void createBookingWithOverlap() {
+            when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+            when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
+            when(bookingRepository.existsOverlapping(item1.getId(), booking1.getStart(), booking1.getEnd()))
+                    .thenReturn(true);
+
+            BookingDto dto = bookingMapper.mapBookingDto(booking1);
+
+            ConflictException ex = assertThrows(ConflictException.class,
+                    () -> service.createBooking(user1.getId(), dto));
+
+            assertEquals("Вещь с id 1 уже забронирована на пересекающийся период", ex.getMessage());
+            verify(bookingRepository, never()).save(any());
+        }
+
+        @Test
+        public void createBookingWithOverlapConstraintViolation() {
+            when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+            when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
+            when(bookingRepository.save(any())).thenThrow(new DataIntegrityViolationException("overlap",
+                    new ConstraintViolationException("overlap", new SQLException("overlap", "23P01"),
+                            "excl_bookings_item_period")));
+
+            BookingDto dto = bookingMapper.mapBookingDto(booking1);
+
+            assertThrows(ConflictException.class, () -> service.createBooking(user1.getId(), dto));
+        }
+
+        @Test
+        public void createBookingWithOtherIntegrityViolation() {
+            DataIntegrityViolationException violation = new DataIntegrityViolationException("fk",
+                    new ConstraintViolationException("fk", new SQLException("fk", "23503"), "fk_bookings_item"));
+            when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+            when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
+            when(bookingRepository.save(any())).thenThrow(violation);
+
+            BookingDto dto = bookingMapper.mapBookingDto(booking1);
+
+            assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+                    () -> service.createBooking(user1.getId(), dto)));
+        }
+
         @Test
         public void createBookingWithFailUser() {
             Long userId = 99L;
@@ -236,15 +297,15 @@ public class BookingServiceImplTest {
         @Test
         void getAllBookingsForOwnerItems() {
             when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
-            when(bookingRepository.getBookingAllItemsByStateALL(user1.getId()))
+            when(bookingRepository.getBookingAllItemsByStateALL(user1.getId(), new OffsetPageRequest(0, 10)))
                     .thenReturn(List.of(bookingPast, bookingCurrent, bookingFuture, bookingRejected));
             when(bookingMapper.mapListBookingResponseDto(anyList()))
                     .thenReturn(List.of(responsePast, responseCurrent, responseFuture, responseRejected));
 
-            List<BookingResponseDto> result = service.getBookingsAllItemsByState("ALL", user1.getId());
+            List<BookingResponseDto> result = service.getBookingsAllItemsByState("ALL", user1.getId(), 0, 10, null, null);
 
             assertEquals(4, result.size());
-            verify(bookingRepository).getBookingAllItemsByStateALL(user1.getId());
+            verify(bookingRepository).getBookingAllItemsByStateALL(user1.getId(), new OffsetPageRequest(0, 10));
         }
 
         @Test
@@ -253,7 +314,7 @@ public class BookingServiceImplTest {
             String invalidState = "invalid_state";
 
             UnavailableActionError ex = assertThrows(UnavailableActionError.class,
-                    () -> service.getBookingsAllItemsByState(invalidState, userId));
+                    () -> service.getBookingsAllItemsByState(invalidState, userId, 0, 10, null, null));
 
             assertEquals("Не существует состояния " + invalidState, ex.getMessage());
 
@@ -264,44 +325,46 @@ public class BookingServiceImplTest {
         @Test
         void getRejectedBookingsForOwnerItems() {
             when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
-            when(bookingRepository.getBookingAllItemsByStateStatus(user1.getId(), BookingStatus.REJECTED))
+            when(bookingRepository.getBookingAllItemsByStateStatus(user1.getId(), BookingStatus.REJECTED,
+                    new OffsetPageRequest(0, 10)))
                     .thenReturn(List.of(bookingRejected));
             when(bookingMapper.mapListBookingResponseDto(anyList()))
                     .thenReturn(List.of(responseRejected));
 
-            List<BookingResponseDto> result = service.getBookingsAllItemsByState("REJECTED", user1.getId());
+            List<BookingResponseDto> result = service.getBookingsAllItemsByState("REJECTED", user1.getId(), 0, 10, null, null);
 
             assertEquals(1, result.size());
             assertEquals(BookingStatus.REJECTED.toString(), result.get(0).getStatus());
-            verify(bookingRepository).getBookingAllItemsByStateStatus(user1.getId(), BookingStatus.REJECTED);
+            verify(bookingRepository).getBookingAllItemsByStateStatus(user1.getId(), BookingStatus.REJECTED,
+                    new OffsetPageRequest(0, 10));
         }
 
         @Test
         void getCurrentBookingsForOwnerItems() {
             when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
-            when(bookingRepository.getBookingAllItemsByStateCurrent(eq(user1.getId()), any(LocalDateTime.class)))
+            when(bookingRepository.getBookingAllItemsByStateCurrent(eq(user1.getId()), any(LocalDateTime.class), any(Pageable.class)))
                     .thenReturn(List.of(bookingCurrent));
             when(bookingMapper.mapListBookingResponseDto(anyList()))
                     .thenReturn(List.of(responseCurrent));
 
-            List<BookingResponseDto> result = service.getBookingsAllItemsByState("CURRENT", user1.getId());
+            List<BookingResponseDto> result = service.getBookingsAllItemsByState("CURRENT", user1.getId(), 0, 10, null, null);
 
             assertEquals(1, result.size());
-            verify(bookingRepository).getBookingAllItemsByStateCurrent(eq(user1.getId()), any(LocalDateTime.class));
+            verify(bookingRepository).getBookingAllItemsByStateCurrent(eq(user1.getId()), any(LocalDateTime.class), any(Pageable.class));
         }
 
         @Test
         void getFutureBookingsForOwnerItems() {
             when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
-            when(bookingRepository.getBookingAllItemsByStateFuture(eq(user1.getId()), any(LocalDateTime.class)))
+            when(bookingRepository.getBookingAllItemsByStateFuture(eq(user1.getId()), any(LocalDateTime.class), any(Pageable.class)))
                     .thenReturn(List.of(bookingCurrent));
             when(bookingMapper.mapListBookingResponseDto(anyList()))
                     .thenReturn(List.of(responseFuture));
 
-            List<BookingResponseDto> result = service.getBookingsAllItemsByState("FUTURE", user1.getId());
+            List<BookingResponseDto> result = service.getBookingsAllItemsByState("FUTURE", user1.getId(), 0, 10, null, null);
 
             assertEquals(1, result.size());
-            verify(bookingRepository).getBookingAllItemsByStateFuture(eq(user1.getId()), any(LocalDateTime.class));
+            verify(bookingRepository).getBookingAllItemsByStateFuture(eq(user1.getId()), any(LocalDateTime.class), any(Pageable.class));
         }
 
         @Test
@@ -310,80 +373,109 @@ public class BookingServiceImplTest {
             when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
             assertThrows(NotFoundException.class,
-                    () -> service.getBookingsAllItemsByState("ALL", userId));
+                    () -> service.getBookingsAllItemsByState("ALL", userId, 0, 10, null, null));
         }
 
         @Test
         void getAllBookingsForUser() {
             when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
-            when(bookingRepository.getBookingByStateALL(user1.getId()))
+            when(bookingRepository.getBookingByStateALL(user1.getId(), new OffsetPageRequest(0, 10)))
                     .thenReturn(List.of(bookingPast, bookingCurrent, bookingFuture, bookingRejected));
             when(bookingMapper.mapListBookingResponseDto(anyList()))
                     .thenReturn(List.of(responsePast, responseCurrent, responseFuture, responseRejected));
 
-            List<BookingResponseDto> result = service.getBookingByState(user1.getId(), "ALL");
+            List<BookingResponseDto> result = service.getBookingByState(user1.getId(), "ALL", 0, 10, null, null);
 
             assertEquals(4, result.size());
-            verify(bookingRepository).getBookingByStateALL(user1.getId());
+            verify(bookingRepository).getBookingByStateALL(user1.getId(), new OffsetPageRequest(0, 10));
+        }
+
+        @Test
+        void getBookingsForUserWithOffsetNotMultipleOfSize() {
+            when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+            when(bookingRepository.getBookingByStateALL(user1.getId(), new OffsetPageRequest(5, 10)))
+                    .thenReturn(List.of(bookingPast));
+            when(bookingMapper.mapListBookingResponseDto(anyList())).thenReturn(List.of(responsePast));
+
+            List<BookingResponseDto> result = service.getBookingByState(user1.getId(), "ALL", 5, 10, null, null);
+
+            assertEquals(1, result.size());
+            verify(bookingRepository).getBookingByStateALL(user1.getId(), new OffsetPageRequest(5, 10));
+        }
+
+        @Test
+        void getBookingsForUserAfterCursor() {
+            LocalDateTime afterStart = bookingFuture.getStart();
+            when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+            when(bookingRepository.getBookingByStateALLAfter(user1.getId(), afterStart, 7L, new OffsetPageRequest(0, 10)))
+                    .thenReturn(List.of(bookingPast));
+            when(bookingMapper.mapListBookingResponseDto(anyList())).thenReturn(List.of(responsePast));
+
+            List<BookingResponseDto> result = service.getBookingByState(user1.getId(), "ALL", 0, 10, afterStart, 7L);
+
+            assertEquals(1, result.size());
+            verify(bookingRepository, never()).getBookingByStateALL(anyLong(), any(Pageable.class));
         }
 
         @Test
         void getCurrentBookingsForUser() {
             when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
-            when(bookingRepository.getBookingByStateCurrent(eq(user1.getId()), any(LocalDateTime.class)))
+            when(bookingRepository.getBookingByStateCurrent(eq(user1.getId()), any(LocalDateTime.class), any(Pageable.class)))
                     .thenReturn(List.of(bookingCurrent));
             when(bookingMapper.mapListBookingResponseDto(anyList()))
                     .thenReturn(List.of(responseCurrent));
 
-            List<BookingResponseDto> result = service.getBookingByState(user1.getId(), "CURRENT");
+            List<BookingResponseDto> result = service.getBookingByState(user1.getId(), "CURRENT", 0, 10, null, null);
 
             assertEquals(1, result.size());
             assertEquals(responseCurrent.getStart(), result.get(0).getStart());
-            verify(bookingRepository).getBookingByStateCurrent(eq(user1.getId()), any(LocalDateTime.class));
+            verify(bookingRepository).getBookingByStateCurrent(eq(user1.getId()), any(LocalDateTime.class), any(Pageable.class));
         }
 
         @Test
         void getFutureBookingsForUser() {
             when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
-            when(bookingRepository.getBookingByStateFuture(eq(user1.getId()), any(LocalDateTime.class)))
+            when(bookingRepository.getBookingByStateFuture(eq(user1.getId()), any(LocalDateTime.class), any(Pageable.class)))
                     .thenReturn(List.of(bookingFuture));
             when(bookingMapper.mapListBookingResponseDto(anyList()))
                     .thenReturn(List.of(responseFuture));
 
-            List<BookingResponseDto> result = service.getBookingByState(user1.getId(), "FUTURE");
+            List<BookingResponseDto> result = service.getBookingByState(user1.getId(), "FUTURE", 0, 10, null, null);
 
             assertEquals(1, result.size());
             assertEquals(BookingStatus.APPROVED.toString(), result.get(0).getStatus());
-            verify(bookingRepository).getBookingByStateFuture(eq(user1.getId()), any(LocalDateTime.class));
+            verify(bookingRepository).getBookingByStateFuture(eq(user1.getId()), any(LocalDateTime.class), any(Pageable.class));
         }
 
         @Test
         void getPastBookingsForUser() {
             when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
-            when(bookingRepository.getBookingByStatePast(eq(user1.getId()), any(LocalDateTime.class)))
+            when(bookingRepository.getBookingByStatePast(eq(user1.getId()), any(LocalDateTime.class), any(Pageable.class)))
                     .thenReturn(List.of(bookingPast));
             when(bookingMapper.mapListBookingResponseDto(anyList()))
                     .thenReturn(List.of(responsePast));
 
-            List<BookingResponseDto> result = service.getBookingByState(user1.getId(), "PAST");
+            List<BookingResponseDto> result = service.getBookingByState(user1.getId(), "PAST", 0, 10, null, null);
 
             assertEquals(1, result.size());
-            verify(bookingRepository).getBookingByStatePast(eq(user1.getId()), any(LocalDateTime.class));
+            verify(bookingRepository).getBookingByStatePast(eq(user1.getId()), any(LocalDateTime.class), any(Pageable.class));
         }
 
         @Test
         void getRejectedBookingsForUser() {
             when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
-            when(bookingRepository.getBookingByStateStatus(user1.getId(), BookingStatus.REJECTED))
+            when(bookingRepository.getBookingByStateStatus(user1.getId(), BookingStatus.REJECTED,
+                    new OffsetPageRequest(0, 10)))
                     .thenReturn(List.of(bookingRejected));
             when(bookingMapper.mapListBookingResponseDto(anyList()))
                     .thenReturn(List.of(responseRejected));
 
-            List<BookingResponseDto> result = service.getBookingByState(user1.getId(), "REJECTED");
+            List<BookingResponseDto> result = service.getBookingByState(user1.getId(), "REJECTED", 0, 10, null, null);
 
             assertEquals(1, result.size());
             assertEquals(BookingStatus.REJECTED.toString(), result.get(0).getStatus());
-            verify(bookingRepository).getBookingByStateStatus(user1.getId(), BookingStatus.REJECTED);
+            verify(bookingRepository).getBookingByStateStatus(user1.getId(), BookingStatus.REJECTED,
+                    new OffsetPageRequest(0, 10));
         }
 
         @Test
@@ -392,7 +484,7 @@ public class BookingServiceImplTest {
             when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
             assertThrows(NotFoundException.class,
-                    () -> service.getBookingByState(userId, "ALL"));
+                    () -> service.getBookingByState(userId, "ALL", 0, 10, null, null));
         }
 
         @Test
@@ -401,7 +493,7 @@ public class BookingServiceImplTest {
             String invalidState = "invalid_state";
 
             UnavailableActionError ex = assertThrows(UnavailableActionError.class,
-                    () -> service.getBookingByState(userId, invalidState));
+                    () -> service.getBookingByState(userId, invalidState, 0, 10, null, null));
 
             assertEquals("Не существует состояния " + invalidState, ex.getMessage());
 
@@ -461,14 +553,15 @@ public class BookingServiceImplTest {
         @Test
         void shouldApproveBookingSuccessfully() {
             when(bookingRepository.findById(waitingBooking.getId())).thenReturn(Optional.of(waitingBooking));
-            when(itemRepository.findById(item1.getId())).thenReturn(Optional.of(item1));
-            when(bookingRepository.save(any())).thenReturn(waitingBooking);
+            when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
+            when(bookingRepository.saveAndFlush(any())).thenReturn(waitingBooking);
             when(bookingMapper.mapBookingResponseDto(any())).thenReturn(approvedResponseDto);
 
-            BookingResponseDto result = service.approveBooking(user1.getId(), waitingBooking.getId(), true);
+            BookingResponseDto result = service.approveBooking(user1.getId(), waitingBooking.getId(), true, null);
 
             assertEquals(BookingStatus.APPROVED.toString(), result.getStatus());
-            verify(bookingRepository).save(any());
+            verify(bookingRepository).saveAndFlush(any());
+            verify(bookingPointers).refresh(eq(item1), any(LocalDateTime.class));
         }
 
         @Test
@@ -478,10 +571,35 @@ public class BookingServiceImplTest {
             when(bookingRepository.findById(booking1.getId())).thenReturn(Optional.of(alreadyApproved));
 
             var ex = assertThrows(UnavailableActionError.class,
-                    () -> service.approveBooking(user1.getId(), booking1.getId(), true));
+                    () -> service.approveBooking(user1.getId(), booking1.getId(), true, null));
 
             assertEquals("Статус бронирования уже изменен", ex.getMessage());
-            verify(bookingRepository, never()).save(any());
+            verify(bookingRepository, never()).saveAndFlush(any());
+        }
+
+        @Test
+        void shouldThrowIfBookingExpiredMeanwhile() {
+            when(bookingRepository.findById(waitingBooking.getId())).thenReturn(Optional.of(waitingBooking));
+            when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
+            when(bookingRepository.saveAndFlush(any()))
+                    .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, waitingBooking.getId()));
+
+            assertThrows(ObjectOptimisticLockingFailureException.class,
+                    () -> service.approveBooking(user1.getId(), waitingBooking.getId(), true, null));
+
+            verify(bookingPointers, never()).refresh(any(), any());
+        }
+
+        @Test
+        void shouldThrowIfVersionNotMatch() {
+            waitingBooking.setVersion(3L);
+            when(bookingRepository.findById(waitingBooking.getId())).thenReturn(Optional.of(waitingBooking));
+
+            var ex = assertThrows(PreconditionFailedException.class,
+                    () -> service.approveBooking(user1.getId(), waitingBooking.getId(), true, "\"2\""));
+
+            assertEquals("Бронь 2 изменена: текущая версия \"3\", в If-Match \"2\"", ex.getMessage());
+            verify(bookingRepository, never()).saveAndFlush(any());
         }
 
         @Test
@@ -489,10 +607,10 @@ public class BookingServiceImplTest {
             Long wrongUserId = 99L;
 
             when(bookingRepository.findById(waitingBooking.getId())).thenReturn(Optional.of(waitingBooking));
-            when(itemRepository.findById(item1.getId())).thenReturn(Optional.of(item1));
+            when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
 
             var ex = assertThrows(UnavailableActionError.class,
-                    () -> service.approveBooking(wrongUserId, waitingBooking.getId(), true));
+                    () -> service.approveBooking(wrongUserId, waitingBooking.getId(), true, null));
 
             assertEquals("Пользователь с id 99 не может редактировать статус этой вещи", ex.getMessage());
             verify(bookingRepository, never()).save(any());
@@ -503,7 +621,7 @@ public class BookingServiceImplTest {
             when(bookingRepository.findById(100L)).thenReturn(Optional.empty());
 
             var ex = assertThrows(NotFoundException.class,
-                    () -> service.approveBooking(user1.getId(), 100L, true));
+                    () -> service.approveBooking(user1.getId(), 100L, true, null));
 
             assertEquals("Не удалось найти бронь с id:100", ex.getMessage());
             verify(bookingRepository, never()).save(any());
@@ -512,10 +630,10 @@ public class BookingServiceImplTest {
         @Test
         void shouldThrowIfItemNotFound() {
             when(bookingRepository.findById(waitingBooking.getId())).thenReturn(Optional.of(waitingBooking));
-            when(itemRepository.findById(item1.getId())).thenReturn(Optional.empty());
+            when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.empty());
 
             var ex = assertThrows(NotFoundException.class,
-                    () -> service.approveBooking(user1.getId(), waitingBooking.getId(), true));
+                    () -> service.approveBooking(user1.getId(), waitingBooking.getId(), true, null));
 
             assertEquals("Не удалось найти вещь с id:1", ex.getMessage());
             verify(bookingRepository, never()).save(any());
@@ -0,0 +1,154 @@
+package shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = ShareItServer.class)
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class BookingVersionTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void init() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@ya.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@ya.ru").build());
+        item = itemRepository.save(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        booking = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(start.plusDays(1))
+                .status(BookingStatus.WAITING)
+                .build());
+    }
+
+    @Test
+    void approveWithCurrentVersionAndCancelWithStaleOne() throws Exception {
+        mvc.perform(get("/bookings/{id}", booking.getId())
+                        .header("X-Sharer-User-Id", booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+
+        mvc.perform(patch("/bookings/{id}", booking.getId())
+                        .param("approved", "true")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.status").value("APPROVED"));
+
+        mvc.perform(patch("/bookings/{id}/canceled", booking.getId())
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void approvingBookingDoesNotChangeItemVersion() throws Exception {
+        mvc.perform(patch("/bookings/{id}", booking.getId())
+                        .param("approved", "true")
+                        .header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/items/{id}", item.getId())
+                        .header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+    }
+
+    @Test
+    void bulkStatusUpdateChangesVersion() {
+        Booking stale = bookingRepository.findById(booking.getId()).orElseThrow();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                bookingRepository.updateStatus(List.of(booking.getId()), BookingStatus.REJECTED));
+
+        assertEquals(1L, bookingRepository.findById(booking.getId()).orElseThrow().getVersion());
+        stale.setStatus(BookingStatus.APPROVED);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bookingRepository.save(stale));
+    }
+
+    @Test
+    void itemUpdateWithStaleVersionIsRejected() throws Exception {
+        ItemDto update = ItemDto.builder().description("new description").build();
+
+        mvc.perform(patch("/items/{id}", item.getId())
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .content(mapper.writeValueAsString(update))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mvc.perform(patch("/items/{id}", item.getId())
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .content(mapper.writeValueAsString(ItemDto.builder().name("other").build()))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals("item", itemRepository.findById(item.getId()).orElseThrow().getName());
+    }
+}
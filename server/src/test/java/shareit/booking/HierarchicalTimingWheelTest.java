@@ -0,0 +1,95 @@
+package shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.lifecycle.HierarchicalTimingWheel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HierarchicalTimingWheelTest {
+    private static final long TICK = 1000;
+    private static final long START = 1_700_000_000_000L;
+
+    private final HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, 2, START);
+    private final List<Long> fired = new ArrayList<>();
+
+    @Test
+    public void firesAtDeadline() {
+        wheel.schedule(1L, START + 5 * TICK);
+
+        wheel.advance(START + 4 * TICK, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(START + 5 * TICK, fired::add);
+        assertEquals(List.of(1L), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void pastDeadlineFiresOnNextAdvance() {
+        wheel.schedule(1L, START - 10 * TICK);
+        assertEquals(1, wheel.size());
+
+        wheel.advance(START, fired::add);
+
+        assertEquals(List.of(1L), fired);
+    }
+
+    @Test
+    public void partialTickRoundsUp() {
+        wheel.schedule(1L, START + TICK + 1);
+
+        wheel.advance(START + TICK, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(START + 2 * TICK, fired::add);
+        assertEquals(List.of(1L), fired);
+    }
+
+    @Test
+    public void cascadesFromUpperLevelsAndOverflow() {
+        long[] delays = {63, 64, 65, 4095, 4096, 4097, 100_000};
+        for (int i = 0; i < delays.length; i++) {
+            wheel.schedule((long) i, START + delays[i] * TICK);
+        }
+
+        for (int i = 0; i < delays.length; i++) {
+            wheel.advance(START + (delays[i] - 1) * TICK, fired::add);
+            assertEquals(i, fired.size(), "Раньше срока: " + delays[i]);
+            wheel.advance(START + delays[i] * TICK, fired::add);
+            assertEquals((long) i, fired.getLast(), "Не сработало в срок: " + delays[i]);
+        }
+    }
+
+    @Test
+    public void randomDeadlinesFireOnTimeWithUnevenAdvances() {
+        SplittableRandom random = new SplittableRandom(42);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long id = 0; id < 10_000; id++) {
+            long deadline = START + random.nextLong(-10 * TICK, 20_000 * TICK);
+            deadlines.put(id, deadline);
+            wheel.schedule(id, deadline);
+        }
+
+        long now = START;
+        while (wheel.size() > 0) {
+            long previous = now;
+            now += random.nextLong(1, 50 * TICK);
+            long current = now;
+            wheel.advance(current, id -> {
+                long deadline = deadlines.get(id);
+                assertTrue(deadline <= current, "Сработало раньше срока: " + id);
+                assertTrue(previous == START || deadline > previous - previous % TICK,
+                        "Сработало с опозданием: " + id);
+                fired.add(id);
+            });
+        }
+        assertEquals(deadlines.size(), fired.size());
+    }
+}
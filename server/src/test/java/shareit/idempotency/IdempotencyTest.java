@@ -0,0 +1,256 @@
+package shareit.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.idempotency.IdempotencyFilter;
+import ru.practicum.shareit.idempotency.IdempotencyRecord;
+import ru.practicum.shareit.idempotency.IdempotencyRepository;
+import ru.practicum.shareit.idempotency.IdempotencyStore;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.RequestRepository;
+import ru.practicum.shareit.request.dto.RequestAddDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(classes = ShareItServer.class)
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class IdempotencyTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private IdempotencyFilter filter;
+
+    @Autowired
+    private IdempotencyStore store;
+
+    @Autowired
+    private IdempotencyRepository idempotencyRepository;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void init() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@ya.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@ya.ru").build());
+    }
+
+    @Test
+    void repeatedKeyReplaysStoredResponse() throws Exception {
+        MockHttpServletResponse first = postRequest(owner, "key-1", "нужна дрель");
+        MockHttpServletResponse second = postRequest(owner, "key-1", "нужна дрель");
+
+        assertEquals(200, first.getStatus());
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(200, second.getStatus());
+        assertEquals("true", second.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(first.getContentAsString(StandardCharsets.UTF_8),
+                second.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals(1, requestRepository.count());
+    }
+
+    @Test
+    void replayKeepsResponseHeaders() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        HttpServlet created = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                calls.incrementAndGet();
+                response.setHeader(HttpHeaders.ETAG, "\"0\"");
+                response.setHeader(HttpHeaders.LOCATION, "/bookings/1");
+                response.setHeader("X-Trace-Id", "trace");
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write("{\"id\":1}");
+            }
+        };
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(filterRequest("key-1"), first, new MockFilterChain(created));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(filterRequest("key-1"), second, new MockFilterChain(created));
+
+        assertEquals(1, calls.get());
+        assertEquals("true", second.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals("\"0\"", second.getHeader(HttpHeaders.ETAG));
+        assertEquals("/bookings/1", second.getHeader(HttpHeaders.LOCATION));
+        assertNull(second.getHeader("X-Trace-Id"));
+        assertTrue(second.getContentType().startsWith(MediaType.APPLICATION_JSON_VALUE));
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+    }
+
+    @Test
+    void keysAreScopedByUserAndOptional() throws Exception {
+        postRequest(owner, "key-1", "нужна дрель");
+        postRequest(booker, "key-1", "нужна дрель");
+        postRequest(owner, null, "нужна дрель");
+        postRequest(owner, null, "нужна дрель");
+
+        assertEquals(4, requestRepository.count());
+    }
+
+    @Test
+    void keyReusedForAnotherRequestIsRejected() throws Exception {
+        postRequest(owner, "key-1", "нужна дрель");
+
+        assertEquals(422, postRequest(owner, "key-1", "нужна лестница").getStatus());
+        assertEquals(400, postRequest(owner, "k".repeat(IdempotencyFilter.MAX_KEY_LENGTH + 1), "нужна дрель")
+                .getStatus());
+        assertEquals(1, requestRepository.count());
+    }
+
+    @Test
+    void concurrentDuplicatesCreateOneBooking() throws Exception {
+        Item item = itemRepository.save(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        String body = mapper.writeValueAsString(BookingDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusDays(1))
+                .build());
+
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                responses.add(executor.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    return mvc.perform(post("/bookings")
+                                    .header("X-Sharer-User-Id", booker.getId())
+                                    .header(IdempotencyFilter.HEADER, "booking-1")
+                                    .content(body)
+                                    .contentType(MediaType.APPLICATION_JSON))
+                            .andReturn().getResponse();
+                }));
+            }
+            Set<String> bodies = new HashSet<>();
+            for (Future<MockHttpServletResponse> response : responses) {
+                assertEquals(200, response.get().getStatus());
+                bodies.add(response.get().getContentAsString(StandardCharsets.UTF_8));
+            }
+            assertEquals(1, bodies.size(), "Повторы получили разные ответы");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    void purgeRemovesExpiredKeys() {
+        LocalDateTime now = LocalDateTime.now();
+        idempotencyRepository.saveAll(List.of(
+                record("expired-1", now.minusMinutes(1)),
+                record("expired-2", now.minusDays(1)),
+                record("alive", now.plusHours(1))));
+
+        assertEquals(2, store.purge());
+        assertEquals(0, store.purge());
+        assertTrue(store.find(owner.getId(), "alive").isPresent());
+        assertFalse(store.find(owner.getId(), "expired-1").isPresent());
+    }
+
+    @Test
+    void expiredKeyIsClaimedAgain() {
+        idempotencyRepository.save(record("key-1", LocalDateTime.now().minusMinutes(1)));
+
+        assertTrue(store.claim(owner.getId(), "key-1", 2L).isEmpty());
+        assertEquals(2L, store.find(owner.getId(), "key-1").orElseThrow().getRequestHash());
+        assertTrue(store.claim(owner.getId(), "key-1", 2L).isPresent());
+    }
+
+    private MockHttpServletResponse postRequest(User user, String key, String description) throws Exception {
+        MockHttpServletRequestBuilder request = post("/requests")
+                .header("X-Sharer-User-Id", user.getId())
+                .content(mapper.writeValueAsString(new RequestAddDto(description)))
+                .contentType(MediaType.APPLICATION_JSON);
+        if (key != null) {
+            request.header(IdempotencyFilter.HEADER, key);
+        }
+        return mvc.perform(request).andReturn().getResponse();
+    }
+
+    private MockHttpServletRequest filterRequest(String key) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/bookings");
+        request.addHeader("X-Sharer-User-Id", booker.getId());
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent("{}".getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private IdempotencyRecord record(String key, LocalDateTime expiresAt) {
+        return IdempotencyRecord.builder()
+                .userId(owner.getId())
+                .key(key)
+                .requestHash(1L)
+                .status(200)
+                .body("{}".getBytes(StandardCharsets.UTF_8))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
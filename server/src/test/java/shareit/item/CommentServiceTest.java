@@ -8,6 +8,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -42,6 +43,9 @@ public class CommentServiceTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Spy
     private final CommentMapper commentMapper = Mappers.getMapper(CommentMapper.class);
 
@@ -0,0 +1,165 @@
+package shareit.item;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+import ru.practicum.shareit.item.pointer.BookingPointerReconciler;
+import ru.practicum.shareit.item.pointer.BookingPointerSweeper;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(classes = ShareItServer.class)
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ItemBookingPointersTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingPointerSweeper sweeper;
+
+    @Autowired
+    private BookingPointerReconciler reconciler;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void init() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@ya.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@ya.ru").build());
+        item = itemRepository.save(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    @Test
+    void approveAndCancelUpdatePointers() {
+        Long later = book(now.plusDays(3), now.plusDays(4));
+        Long sooner = book(now.plusDays(1), now.plusDays(2));
+
+        bookingService.approveBooking(owner.getId(), later, true, null);
+        checkPointers(null, later, now.plusDays(3));
+
+        bookingService.approveBooking(owner.getId(), sooner, true, null);
+        checkPointers(null, sooner, now.plusDays(1));
+        assertEquals(sooner, itemService.getItem(item.getId()).getNextBooking().getId());
+
+        bookingService.canceledBooking(booker.getId(), sooner, null);
+        checkPointers(null, later, now.plusDays(3));
+        assertEquals(later, itemService.getItem(item.getId()).getNextBooking().getId());
+    }
+
+    @Test
+    void rejectDoesNotChangePointers() {
+        Long bookingId = book(now.plusDays(1), now.plusDays(2));
+
+        bookingService.approveBooking(owner.getId(), bookingId, false, null);
+
+        checkPointers(null, null, null);
+    }
+
+    @Test
+    void sweeperAdvancesPointers() {
+        Booking finished = saveBooking(now.minusDays(3), now.minusDays(2));
+        Booking next = saveBooking(now.plusDays(1), now.plusDays(2));
+        Item stored = itemRepository.findById(item.getId()).orElseThrow();
+        stored.setNextBooking(finished);
+        stored.setBookingsRefreshAt(finished.getStart());
+        itemRepository.save(stored);
+
+        ItemWithCommentDto beforeSweep = itemService.getItem(item.getId());
+        assertEquals(finished.getId(), beforeSweep.getLastBooking().getId());
+        assertEquals(next.getId(), beforeSweep.getNextBooking().getId());
+
+        assertEquals(1, sweeper.sweep());
+        checkPointers(finished.getId(), next.getId(), next.getStart());
+        assertEquals(0, sweeper.sweep());
+    }
+
+    @Test
+    void reconcilerRepairsDrift() {
+        Booking last = saveBooking(now.minusDays(3), now.minusDays(2));
+        saveBooking(now.minusDays(1), now.plusDays(1));
+        Booking next = saveBooking(now.plusDays(2), now.plusDays(3));
+
+        BookingPointerReconciler.Result result = reconciler.reconcile();
+
+        assertEquals(1, result.checked());
+        assertEquals(1, result.repaired());
+        assertEquals(1.0, meterRegistry.get("shareit.item.booking-pointers.drift").counter().count());
+        checkPointers(last.getId(), next.getId(), now.plusDays(1));
+        assertEquals(0, reconciler.reconcile().repaired());
+    }
+
+    private Long book(LocalDateTime start, LocalDateTime end) {
+        return bookingService.createBooking(booker.getId(), BookingDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(end)
+                .build()).getId();
+    }
+
+    private Booking saveBooking(LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(BookingStatus.APPROVED)
+                .build());
+    }
+
+    private void checkPointers(Long lastId, Long nextId, LocalDateTime refreshAt) {
+        Item stored = itemRepository.findWithBookingPointers(item.getId()).orElseThrow();
+        assertEquals(lastId, stored.getLastBooking() == null ? null : stored.getLastBooking().getId());
+        assertEquals(nextId, stored.getNextBooking() == null ? null : stored.getNextBooking().getId());
+        if (refreshAt == null) {
+            assertNull(stored.getBookingsRefreshAt());
+        } else {
+            assertEquals(refreshAt, stored.getBookingsRefreshAt());
+        }
+    }
+}
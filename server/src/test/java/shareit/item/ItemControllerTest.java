@@ -98,7 +98,7 @@ public class ItemControllerTest {
 
     @Test
     public void updateItem() throws Exception {
-        when(itemService.updateItem(eq(1L), eq(1L), any(ItemDto.class))).thenReturn(item);
+        when(itemService.updateItem(eq(1L), eq(1L), any(ItemDto.class), isNull())).thenReturn(item);
 
         mvc.perform(patch("/items/{itemId}", 1L)
                         .header("X-Sharer-User-Id", 1L)
@@ -112,7 +112,7 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.description", is(item.getDescription())))
                 .andExpect(jsonPath("$.available", is(item.getAvailable())));
 
-        verify(itemService, times(1)).updateItem(eq(1L), eq(1L), any(ItemDto.class));
+        verify(itemService, times(1)).updateItem(eq(1L), eq(1L), any(ItemDto.class), isNull());
     }
 
     @Test
@@ -0,0 +1,80 @@
+package shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingStatusChangedEvent;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.item.ItemChangedEvent;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ItemDetailsCacheTest {
+    private final AtomicLong time = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ItemDetailsCache cache = new ItemDetailsCache(Duration.ofMinutes(5), 100, meterRegistry, time::get);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ItemDetailsCache.Entry load(Long itemId, Duration validFor) {
+        loads.incrementAndGet();
+        return new ItemDetailsCache.Entry(ItemWithCommentDto.builder().id(itemId).build(), validFor);
+    }
+
+    private void advance(Duration duration) {
+        time.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    public void expiresAfterTtl() {
+        cache.get(1L, id -> load(id, null));
+        advance(Duration.ofMinutes(4));
+        cache.get(1L, id -> load(id, null));
+        assertEquals(1, loads.get());
+
+        advance(Duration.ofMinutes(2));
+        cache.get(1L, id -> load(id, null));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void expiresAtNextBookingBoundary() {
+        cache.get(1L, id -> load(id, Duration.ofSeconds(30)));
+        advance(Duration.ofSeconds(29));
+        cache.get(1L, id -> load(id, Duration.ofSeconds(30)));
+        assertEquals(1, loads.get());
+
+        advance(Duration.ofSeconds(2));
+        cache.get(1L, id -> load(id, null));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void invalidatedByEvents() {
+        cache.get(1L, id -> load(id, null));
+        cache.get(2L, id -> load(id, null));
+
+        cache.onItemChanged(new ItemChangedEvent(ItemDto.builder().id(1L).build()));
+        cache.onBookingStatusChanged(new BookingStatusChangedEvent(5L, 2L, BookingStatus.APPROVED));
+        cache.get(1L, id -> load(id, null));
+        cache.get(2L, id -> load(id, null));
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void recordsMetrics() {
+        cache.get(1L, id -> load(id, null));
+        cache.get(1L, id -> load(id, null));
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", ItemDetailsCache.NAME)
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", ItemDetailsCache.NAME)
+                .tag("result", "miss").functionCounter().count());
+    }
+}
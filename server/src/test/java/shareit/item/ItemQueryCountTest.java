@@ -0,0 +1,180 @@
+package shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.metrics.SqlStatementFilter;
+import shareit.SqlStatementCountExtension;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.item.Comment;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+import ru.practicum.shareit.item.pointer.BookingPointerReconciler;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = ShareItServer.class)
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ItemQueryCountTest {
+    /**
+     * Пользователь, вещи вместе с последней и следующей бронями, комментарии — по одному запросу
+     * независимо от количества вещей.
+     */
+    private static final long USER_ITEMS_STATEMENTS = 3;
+
+    /**
+     * Если обход еще не сдвинул ссылки на брони, брони и концы текущих броней читаются двумя запросами.
+     */
+    private static final long USER_ITEMS_STALE_STATEMENTS = USER_ITEMS_STATEMENTS + 2;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private BookingPointerReconciler bookingPointerReconciler;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @RegisterExtension
+    final SqlStatementCountExtension sql = new SqlStatementCountExtension();
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private User owner;
+
+    @BeforeEach
+    void init() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@ya.ru").build());
+    }
+
+    @Test
+    void getUserItemsWithFewItems() throws Throwable {
+        List<Item> items = createItems(3);
+
+        List<ItemWithCommentDto> result = sql.assertStatements(USER_ITEMS_STATEMENTS,
+                () -> itemService.getUserItems(owner.getId()));
+
+        checkBookings(items, result);
+    }
+
+    @Test
+    void getUserItemsWithManyItems() throws Throwable {
+        List<Item> items = createItems(30);
+
+        List<ItemWithCommentDto> result = sql.assertStatements(USER_ITEMS_STATEMENTS,
+                () -> itemService.getUserItems(owner.getId()));
+
+        checkBookings(items, result);
+    }
+
+    @Test
+    void getUserItemsEndpoint() throws Throwable {
+        createItems(30);
+
+        sql.assertStatements(USER_ITEMS_STATEMENTS, () -> mvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlStatementFilter.STATEMENTS_HEADER,
+                        String.valueOf(USER_ITEMS_STATEMENTS))));
+    }
+
+    @Test
+    void getUserItemsWithStalePointers() throws Throwable {
+        List<Item> items = createItems(30);
+        for (Item item : items) {
+            item = itemRepository.findById(item.getId()).orElseThrow();
+            item.setBookingsRefreshAt(now.minusDays(1));
+            itemRepository.save(item);
+        }
+
+        List<ItemWithCommentDto> result = sql.assertStatements(USER_ITEMS_STALE_STATEMENTS,
+                () -> itemService.getUserItems(owner.getId()));
+
+        checkBookings(items, result);
+    }
+
+    private void checkBookings(List<Item> items, List<ItemWithCommentDto> result) {
+        assertEquals(items.size(), result.size());
+        for (ItemWithCommentDto dto : result) {
+            assertEquals(now.minusDays(2), dto.getLastBooking().getEnd(), "Неверная последняя бронь");
+            assertEquals(now.plusDays(1), dto.getNextBooking().getStart(), "Неверная следующая бронь");
+            assertEquals(1, dto.getComments().size());
+        }
+    }
+
+    private List<Item> createItems(int count) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User booker = userRepository.save(User.builder()
+                    .name("booker" + i)
+                    .email("booker" + i + "@ya.ru")
+                    .build());
+            Item item = itemRepository.save(Item.builder()
+                    .name("item" + i)
+                    .description("description" + i)
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            saveBooking(item, booker, now.minusDays(5), now.minusDays(4));
+            saveBooking(item, booker, now.minusDays(3), now.minusDays(2));
+            saveBooking(item, booker, now.plusDays(1), now.plusDays(2));
+            saveBooking(item, booker, now.plusDays(3), now.plusDays(4));
+            commentRepository.save(Comment.builder()
+                    .text("comment" + i)
+                    .author(booker)
+                    .item(item)
+                    .createdAt(now)
+                    .build());
+            items.add(item);
+        }
+        bookingPointerReconciler.reconcile();
+        return items;
+    }
+
+    private void saveBooking(Item item, User booker, LocalDateTime start, LocalDateTime end) {
+        bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(BookingStatus.APPROVED)
+                .build());
+    }
+}
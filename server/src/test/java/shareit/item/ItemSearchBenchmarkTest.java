@@ -0,0 +1,82 @@
+package shareit.item;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import shareit.PostgresTest;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнивает поиск вещей через LIKE и через tsvector + GIN на миллионе вещей.
+ * Запускается только явно: {@code mvn test -Dtest=ItemSearchBenchmarkTest -Dbenchmark=true}, нужен Docker.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ItemSearchBenchmarkTest extends PostgresTest {
+    private static final int ITEMS = 1_000_000;
+    private static final int WARMUP = 5;
+    private static final int RUNS = 20;
+
+    private static final String LIKE_SQL = "SELECT i.* FROM items i WHERE i.available = true " +
+            "AND (UPPER(i.name) LIKE UPPER(CONCAT('%', ?, '%')) " +
+            "OR UPPER(i.description) LIKE UPPER(CONCAT('%', ?, '%')))";
+    private static final String FULL_TEXT_SQL = "SELECT i.* FROM items i " +
+            "WHERE i.available = true AND i.search_vector @@ to_tsquery('russian', ?) " +
+            "ORDER BY ts_rank(i.search_vector, to_tsquery('russian', ?)) DESC, i.id";
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        try (Connection connection = connection(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (name, email) " +
+                    "SELECT 'user' || g, 'user' || g || '@ya.ru' FROM generate_series(1, 1000) g");
+            statement.execute("INSERT INTO items (user_id, name, description, available) " +
+                    "SELECT (g % 1000) + 1, " +
+                    "(ARRAY['Дрель', 'Отвёртка', 'Палатка', 'Велосипед', 'Лыжи', 'Перфоратор', 'Рюкзак', " +
+                    "'Чайник'])[g % 8 + 1] || ' ' || g, " +
+                    "(ARRAY['ударная с аккумулятором', 'для походов в горы', 'складной для города', " +
+                    "'набор насадок в кейсе', 'почти новый, без царапин'])[g % 5 + 1] || ' #' || md5(g::text), " +
+                    "g % 7 <> 0 " +
+                    "FROM generate_series(1, " + ITEMS + ") g");
+            statement.execute("ANALYZE items");
+        }
+    }
+
+    @Test
+    void compareLikeAndFullText() throws SQLException {
+        for (String text : new String[]{"дрель", "аккумулятор", "палатк"}) {
+            long like = measure(LIKE_SQL, text);
+            long fullText = measure(FULL_TEXT_SQL, text + ":*");
+            System.out.printf("search '%s': LIKE median %d мкс, FULLTEXT median %d мкс%n", text, like, fullText);
+        }
+    }
+
+    private static long measure(String sql, String parameter) throws SQLException {
+        long[] times = new long[RUNS];
+        try (Connection connection = connection(); PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, parameter);
+            statement.setString(2, parameter);
+            for (int i = 0; i < WARMUP + RUNS; i++) {
+                long started = System.nanoTime();
+                int rows = 0;
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                    }
+                }
+                assertTrue(rows > 0, "Запрос не нашел ни одной вещи: " + parameter);
+                if (i >= WARMUP) {
+                    times[i - WARMUP] = (System.nanoTime() - started) / 1_000;
+                }
+            }
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+}
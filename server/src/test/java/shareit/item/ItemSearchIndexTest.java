@@ -0,0 +1,160 @@
+package shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemChangedEvent;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSearchMode;
+import ru.practicum.shareit.item.ItemSearchProperties;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.user.User;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository repository;
+
+    private final ItemMapper mapper = Mappers.getMapper(ItemMapper.class);
+
+    private ItemSearchIndex index;
+
+    private final User owner = User.builder()
+            .id(1L)
+            .name("user1")
+            .email("email1@ya.ru")
+            .build();
+
+    private final Item drill = item(1L, "Дрель ударная", "С аккумулятором", true);
+    private final Item tent = item(2L, "Палатка", "Четырехместная, легкая", true);
+    private final Item saw = item(3L, "Пила", "Дисковая, аккумуляторная", true);
+
+    private Item item(Long id, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .owner(owner)
+                .name(name)
+                .description(description)
+                .available(available)
+                .build();
+    }
+
+    private List<Long> ids(List<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).toList();
+    }
+
+    private static ItemSearchProperties properties(ItemSearchMode mode, int maxItems) {
+        return new ItemSearchProperties(mode, new ItemSearchProperties.SearchIndex(maxItems));
+    }
+
+    private List<ItemDto> search(String text) {
+        return index.trySearch(text).orElseThrow();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        index = new ItemSearchIndex(repository, mapper, properties(ItemSearchMode.INDEX, 100));
+        when(repository.findAvailableAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(drill, tent, saw));
+        index.rebuild();
+    }
+
+    @Test
+    public void searchByNameAndDescription() {
+        assertEquals(List.of(1L, 3L), ids(search("АККУМУЛЯТОР")));
+        assertEquals(List.of(2L), ids(search("латк")));
+        assertEquals(List.of(1L), ids(search("дрель")));
+        assertTrue(search("самокат").isEmpty());
+    }
+
+    @Test
+    public void searchShortText() {
+        assertEquals(List.of(1L, 2L, 3L), ids(search("ая")));
+    }
+
+    @Test
+    public void searchRequiresSubstringNotOnlyTrigrams() {
+        index.onItemChanged(new ItemChangedEvent(mapper.mapItemDto(item(4L, "Кокос", "Свежий", true))));
+
+        // обе триграммы "окок" есть у вещи, но самой подстроки нет
+        assertTrue(search("окок").isEmpty());
+        assertEquals(List.of(4L), ids(search("кокос")));
+    }
+
+    @Test
+    public void updateItem() {
+        ItemDto updated = mapper.mapItemDto(item(2L, "Тент", "Защита от дождя", true));
+
+        index.onItemChanged(new ItemChangedEvent(updated));
+
+        assertTrue(search("палатка").isEmpty());
+        assertEquals(List.of(2L), ids(search("дождя")));
+    }
+
+    @Test
+    public void createAndHideItem() {
+        index.onItemChanged(new ItemChangedEvent(mapper.mapItemDto(item(4L, "Дрель", "Сетевая", true))));
+        assertEquals(List.of(1L, 4L), ids(search("дрель")));
+
+        index.onItemChanged(new ItemChangedEvent(mapper.mapItemDto(item(1L, "Дрель ударная", "С аккумулятором",
+                false))));
+        assertEquals(List.of(4L), ids(search("дрель")));
+        assertEquals(3, index.stats().get("items"));
+    }
+
+    @Test
+    public void overflowDisablesIndex() {
+        ItemSearchIndex small = new ItemSearchIndex(repository, mapper, properties(ItemSearchMode.INDEX, 2));
+
+        small.rebuild();
+
+        assertTrue(small.trySearch("дрель").isEmpty());
+        assertEquals(true, small.stats().get("overflowed"));
+    }
+
+    @Test
+    public void overflowOnChangeDisablesIndex() {
+        ItemSearchIndex small = new ItemSearchIndex(repository, mapper, properties(ItemSearchMode.INDEX, 3));
+        small.rebuild();
+        assertTrue(small.trySearch("дрель").isPresent());
+
+        small.onItemChanged(new ItemChangedEvent(mapper.mapItemDto(item(4L, "Дрель", "Сетевая", true))));
+
+        assertTrue(small.trySearch("дрель").isEmpty());
+    }
+
+    @Test
+    public void consistencyWithSql() {
+        when(repository.searchItems("аккумулятор")).thenReturn(List.of(drill, saw));
+        when(repository.countByAvailableTrue()).thenReturn(3L);
+
+        Map<String, Object> result = index.checkConsistency("аккумулятор");
+
+        assertEquals(true, result.get("consistent"));
+        assertEquals(2, result.get("indexMatches"));
+    }
+
+    @Test
+    public void disabledIndexIgnoresChanges() {
+        ItemSearchIndex disabled = new ItemSearchIndex(repository, mapper, properties(ItemSearchMode.LIKE, 100));
+
+        disabled.onItemChanged(new ItemChangedEvent(mapper.mapItemDto(drill)));
+
+        assertTrue(disabled.trySearch("дрель").isEmpty());
+    }
+}
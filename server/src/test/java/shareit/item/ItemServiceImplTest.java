@@ -1,5 +1,7 @@
 package shareit.item;
 
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,30 +10,38 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingMapper;
-import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.exception.UnavailableActionError;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.*;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+import ru.practicum.shareit.item.pointer.BookingPointers;
+import ru.practicum.shareit.item.pointer.ItemBookingPointers;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.RequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,11 +58,24 @@ public class ItemServiceImplTest {
     private CommentRepository commentRepository;
 
     @Mock
-    private BookingRepository bookingRepository;
+    private ItemBookingPointers bookingPointers;
 
     @Mock
     private RequestRepository requestRepository;
 
+    @Mock
+    private ItemSearchIndex searchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ItemSearchProperties searchProperties;
+
+    @Spy
+    private final ItemDetailsCache itemDetailsCache = new ItemDetailsCache(Duration.ofMinutes(5), 100,
+            new SimpleMeterRegistry(), Ticker.systemTicker());
+
     @Spy
     private final ItemMapper mapper = Mappers.getMapper(ItemMapper.class);
 
@@ -139,6 +162,7 @@ public class ItemServiceImplTest {
             ItemDto result = service.createItem(user1.getId(), dto);
 
             verify(repository, times(1)).save(any());
+            verify(eventPublisher, times(1)).publishEvent(any(ItemChangedEvent.class));
             checkItem(dto, result);
         }
 
@@ -202,16 +226,16 @@ public class ItemServiceImplTest {
                     .available(false)
                     .build();
 
-            when(repository.save(any(Item.class))).thenAnswer(invocation ->
+            when(repository.saveAndFlush(any(Item.class))).thenAnswer(invocation ->
                     invocation.getArgument(0));
-            ItemDto result = service.updateItem(userId, itemId, updatedDto);
+            ItemDto result = service.updateItem(userId, itemId, updatedDto, null);
 
             assertEquals(updatedDto.getName(), result.getName());
             assertEquals(updatedDto.getDescription(), result.getDescription());
             assertEquals(updatedDto.getAvailable(), result.getAvailable());
 
             verify(repository).findById(itemId);
-            verify(repository).save(any(Item.class));
+            verify(repository).saveAndFlush(any(Item.class));
         }
 
         @Test
@@ -229,7 +253,7 @@ public class ItemServiceImplTest {
                     .available(false)
                     .build();
 
-            NotFoundException ex = assertThrows(NotFoundException.class, () -> service.updateItem(userId, itemId, dto));
+            NotFoundException ex = assertThrows(NotFoundException.class, () -> service.updateItem(userId, itemId, dto, null));
             assertEquals("Не удается найти вещь с id " + itemId, ex.getMessage());
 
             verify(repository).findById(itemId);
@@ -258,7 +282,7 @@ public class ItemServiceImplTest {
                     .build();
 
             UnavailableActionError ex = assertThrows(UnavailableActionError.class,
-                    () -> service.updateItem(userId, itemId, dto));
+                    () -> service.updateItem(userId, itemId, dto, null));
 
             assertEquals("Пользователь с id = " + userId + "не может редактировать эту вещь", ex.getMessage());
 
@@ -313,12 +337,12 @@ public class ItemServiceImplTest {
                     .createdAt(testTime)
                     .build();
 
-            when(repository.findById(item1.getId())).thenReturn(Optional.of(item1));
+            when(repository.findWithBookingPointers(item1.getId())).thenReturn(Optional.of(item1));
             when(commentRepository.findCommentsByItemId(item1.getId())).thenReturn(List.of(comment));
             when(bookingMapper.mapBookingDto(nextBooking)).thenReturn(nextBookingDto);
             when(bookingMapper.mapBookingDto(lastBooking)).thenReturn(lastBookingDto);
-            when(bookingRepository.findLastBooking(eq(item1.getId()), any(LocalDateTime.class))).thenReturn(Optional.of(lastBooking));
-            when(bookingRepository.findNextBooking(eq(item1.getId()), any(LocalDateTime.class))).thenReturn(Optional.of(nextBooking));
+            when(bookingPointers.current(eq(item1), any(LocalDateTime.class)))
+                    .thenReturn(new BookingPointers(lastBooking, nextBooking, nextBooking.getStart()));
 
             ItemWithCommentDto result = service.getItem(item1.getId());
 
@@ -330,17 +354,34 @@ public class ItemServiceImplTest {
             assertEquals(2L, result.getNextBooking().getId());
         }
 
+        @Test
+        void getItemFromCache() {
+            when(repository.findWithBookingPointers(item1.getId())).thenReturn(Optional.of(item1));
+            when(commentRepository.findCommentsByItemId(item1.getId())).thenReturn(Collections.emptyList());
+            when(bookingPointers.current(eq(item1), any(LocalDateTime.class))).thenReturn(BookingPointers.EMPTY);
+
+            ItemWithCommentDto first = service.getItem(item1.getId());
+            ItemWithCommentDto second = service.getItem(item1.getId());
+
+            assertSame(first, second);
+            verify(repository, times(1)).findWithBookingPointers(item1.getId());
+
+            itemDetailsCache.onCommentCreated(new CommentCreatedEvent(item1.getId(), 1L));
+            service.getItem(item1.getId());
+
+            verify(repository, times(2)).findWithBookingPointers(item1.getId());
+        }
+
         @Test
         public void getItemById() {
-            when(repository.findById(item1.getId())).thenReturn(Optional.of(item1));
+            when(repository.findWithBookingPointers(item1.getId())).thenReturn(Optional.of(item1));
             when(commentRepository.findCommentsByItemId(item1.getId())).thenReturn(Collections.EMPTY_LIST);
-            when(bookingRepository.findLastBooking(anyLong(), any())).thenReturn(Optional.empty());
-            when(bookingRepository.findNextBooking(anyLong(), any())).thenReturn(Optional.empty());
+            when(bookingPointers.current(eq(item1), any(LocalDateTime.class))).thenReturn(BookingPointers.EMPTY);
             ItemDto dto = mapper.mapItemDto(item1);
 
             ItemWithCommentDto result = service.getItem(item1.getId());
 
-            verify(repository, times(1)).findById(item1.getId());
+            verify(repository, times(1)).findWithBookingPointers(item1.getId());
 
             assertEquals(dto.getId(), result.getId());
             assertEquals(dto.getName(), result.getName());
@@ -351,10 +392,9 @@ public class ItemServiceImplTest {
 
         @Test
         void getItemDataMapping() {
-            when(repository.findById(item1.getId())).thenReturn(Optional.of(item1));
+            when(repository.findWithBookingPointers(item1.getId())).thenReturn(Optional.of(item1));
             when(commentRepository.findCommentsByItemId(item1.getId())).thenReturn(Collections.emptyList());
-            when(bookingRepository.findLastBooking(anyLong(), any())).thenReturn(Optional.empty());
-            when(bookingRepository.findNextBooking(anyLong(), any())).thenReturn(Optional.empty());
+            when(bookingPointers.current(eq(item1), any(LocalDateTime.class))).thenReturn(BookingPointers.EMPTY);
 
             ItemWithCommentDto result = service.getItem(item1.getId());
 
@@ -368,7 +408,7 @@ public class ItemServiceImplTest {
         @Test
         public void getItemByFailId() {
             Long failId = 99L;
-            when(repository.findById(failId)).thenReturn(Optional.empty());
+            when(repository.findWithBookingPointers(failId)).thenReturn(Optional.empty());
 
             NotFoundException ex = assertThrows(NotFoundException.class,
                     () -> service.getItem(failId));
@@ -384,14 +424,12 @@ public class ItemServiceImplTest {
 
             CommentDto commentDto = commentMapper.mapCommentDto(comment1);
 
-            when(repository.findByOwnerId(user1.getId())).thenReturn(items);
-            when(repository.findByOwner(user1)).thenReturn(items);
+            when(repository.findByOwnerIdWithBookingPointers(user1.getId())).thenReturn(items);
             when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
             when(commentRepository.findCommentByItemIdIn(itemIds)).thenReturn(List.of(comment1));
-            when(bookingRepository.findLastBooking(eq(item1.getId()), any())).thenReturn(Optional.of(booking1));
-            when(bookingRepository.findNextBooking(eq(item1.getId()), any())).thenReturn(Optional.empty());
-            when(bookingRepository.findLastBooking(eq(item2.getId()), any())).thenReturn(Optional.empty());
-            when(bookingRepository.findNextBooking(eq(item2.getId()), any())).thenReturn(Optional.empty());
+            when(bookingPointers.current(eq(items), any(LocalDateTime.class))).thenReturn(Map.of(
+                    item1.getId(), new BookingPointers(booking1, null, null),
+                    item2.getId(), BookingPointers.EMPTY));
 
             List<ItemWithCommentDto> result = service.getUserItems(user1.getId());
 
@@ -421,9 +459,10 @@ public class ItemServiceImplTest {
             assertNull(result2.getLastBooking());
             assertNull(result2.getNextBooking());
 
-            verify(repository, times(1)).findByOwnerId(user1.getId());
-            verify(repository, times(1)).findByOwner(user1);
+            verify(repository, times(1)).findByOwnerIdWithBookingPointers(user1.getId());
+            verify(repository, never()).findByOwner(any());
             verify(commentRepository, times(1)).findCommentByItemIdIn(itemIds);
+            verify(bookingPointers, times(1)).current(eq(items), any(LocalDateTime.class));
         }
 
         @Test
@@ -483,6 +522,76 @@ public class ItemServiceImplTest {
             assertEquals("Не удалось найти пользователя с id 99", ex.getMessage());
             verify(repository, never()).searchItems(any());
         }
+
+        @Test
+        void searchItemsFullText() {
+            when(searchProperties.searchMode()).thenReturn(ItemSearchMode.FULLTEXT);
+            when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+            when(repository.searchItemsFullText("дрель:* & ударн:*")).thenReturn(List.of(item1));
+
+            List<ItemDto> result = service.searchItems(user1.getId(), "дрель, ударн!");
+
+            assertEquals(1, result.size());
+            checkItem(mapper.mapItemDto(item1), result.get(0));
+            verify(repository, never()).searchItems(any());
+        }
+
+        @Test
+        void searchItemsFromIndex() {
+            when(searchProperties.searchMode()).thenReturn(ItemSearchMode.INDEX);
+            ItemDto dto = mapper.mapItemDto(item1);
+            when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+            when(searchIndex.trySearch("item")).thenReturn(Optional.of(List.of(dto)));
+
+            List<ItemDto> result = service.searchItems(user1.getId(), "item");
+
+            assertEquals(1, result.size());
+            checkItem(dto, result.get(0));
+            verify(repository, never()).searchItems(any());
+        }
+
+        @Test
+        void searchItemsWhenIndexNotReady() {
+            when(searchProperties.searchMode()).thenReturn(ItemSearchMode.INDEX);
+            when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+            when(searchIndex.trySearch("item")).thenReturn(Optional.empty());
+            when(repository.searchItems("item")).thenReturn(List.of(item1));
+
+            List<ItemDto> result = service.searchItems(user1.getId(), "item");
+
+            assertEquals(1, result.size());
+        }
+
+        @Test
+        void searchItemsWhenIndexOverflowed() {
+            ItemSearchIndex small = new ItemSearchIndex(repository, mapper,
+                    new ItemSearchProperties(ItemSearchMode.INDEX, new ItemSearchProperties.SearchIndex(1)));
+            when(repository.findAvailableAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(item1));
+            small.rebuild();
+            small.onItemChanged(new ItemChangedEvent(mapper.mapItemDto(item2)));
+            ItemServiceImpl withSmallIndex = new ItemServiceImpl(repository, userRepository, commentRepository,
+                    requestRepository, mapper, commentMapper, bookingMapper, small, itemDetailsCache, bookingPointers,
+                    eventPublisher, searchProperties);
+            when(searchProperties.searchMode()).thenReturn(ItemSearchMode.INDEX);
+            when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+            when(repository.searchItems("item")).thenReturn(List.of(item1, item2));
+
+            List<ItemDto> result = withSmallIndex.searchItems(user1.getId(), "item");
+
+            assertEquals(2, result.size());
+            verify(repository).searchItems("item");
+        }
+
+        @Test
+        void searchItemsFullTextWithoutWords() {
+            when(searchProperties.searchMode()).thenReturn(ItemSearchMode.FULLTEXT);
+            when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+
+            List<ItemDto> result = service.searchItems(user1.getId(), "&|!:*");
+
+            assertTrue(result.isEmpty());
+            verify(repository, never()).searchItemsFullText(any());
+        }
     }
 
     @Test
@@ -111,7 +111,7 @@ public class RequestControllerTest {
 
     @Test
     void getRequests() throws Exception {
-        when(requestService.getAllRequests(anyLong()))
+        when(requestService.getAllRequests(anyLong(), eq(10), isNull(), isNull()))
                 .thenReturn(List.of(requestDto));
 
         mockMvc.perform(get("/requests/all")
@@ -122,6 +122,23 @@ public class RequestControllerTest {
                 .andExpect(jsonPath("$[0].description").value(requestDto.getDescription()));
     }
 
+    @Test
+    void getRequestsAfterCursor() throws Exception {
+        LocalDateTime afterCreated = LocalDateTime.of(2025, 7, 25, 10, 0, 0);
+        when(requestService.getAllRequests(1L, 5, afterCreated, 7L))
+                .thenReturn(List.of(requestDto));
+
+        mockMvc.perform(get("/requests/all")
+                        .param("size", "5")
+                        .param("afterCreated", "2025-07-25T10:00:00")
+                        .param("afterId", "7")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1));
+
+        verify(requestService).getAllRequests(1L, 5, afterCreated, 7L);
+    }
+
     @Test
     void getRequestById() throws Exception {
         when(requestService.getRequestById(anyLong(), anyLong()))
@@ -0,0 +1,109 @@
+package shareit.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.RequestRepository;
+import ru.practicum.shareit.request.dto.FullRequestDto;
+import ru.practicum.shareit.request.service.RequestService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import shareit.SqlStatementCountExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(classes = ShareItServer.class)
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class RequestQueryCountTest {
+    /**
+     * Запросы пользователя и вещи по ним — по одному запросу независимо от количества запросов.
+     */
+    private static final long USER_REQUESTS_STATEMENTS = 2;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @RegisterExtension
+    final SqlStatementCountExtension sql = new SqlStatementCountExtension();
+
+    private User requester;
+
+    @BeforeEach
+    void init() {
+        requester = userRepository.save(User.builder().name("requester").email("requester@ya.ru").build());
+    }
+
+    @Test
+    void getRequestByUserWithFewRequests() throws Throwable {
+        createRequests(3);
+
+        List<FullRequestDto> result = sql.assertStatements(USER_REQUESTS_STATEMENTS,
+                () -> requestService.getRequestByUser(requester.getId()));
+
+        checkItems(3, result);
+    }
+
+    @Test
+    void getRequestByUserWithManyRequests() throws Throwable {
+        createRequests(50);
+
+        List<FullRequestDto> result = sql.assertStatements(USER_REQUESTS_STATEMENTS,
+                () -> requestService.getRequestByUser(requester.getId()));
+
+        checkItems(50, result);
+    }
+
+    private void checkItems(int count, List<FullRequestDto> result) {
+        assertEquals(count, result.size());
+        for (FullRequestDto dto : result) {
+            assertEquals(2, dto.getItems().size());
+            dto.getItems().forEach(item -> assertEquals(dto.getDescription().replace("request", "owner"),
+                    userRepository.findById(item.getUserId()).orElseThrow().getName()));
+        }
+    }
+
+    private void createRequests(int count) {
+        LocalDateTime created = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < count; i++) {
+            User owner = userRepository.save(User.builder()
+                    .name("owner" + i)
+                    .email("owner" + i + "@ya.ru")
+                    .build());
+            ItemRequest request = requestRepository.save(ItemRequest.builder()
+                    .requester(requester)
+                    .description("request" + i)
+                    .created(created.plusMinutes(i))
+                    .build());
+            for (int j = 0; j < 2; j++) {
+                itemRepository.save(Item.builder()
+                        .name("item" + i + "-" + j)
+                        .description("description" + i)
+                        .available(true)
+                        .owner(owner)
+                        .request(request)
+                        .build());
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package shareit.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.RequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@ContextConfiguration(classes = ShareItServer.class)
+public class RequestRepositoryTest {
+    private final LocalDateTime testTime = LocalDateTime.of(2025, 7, 25, 0, 0, 0);
+
+    @Autowired
+    private RequestRepository repository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user1;
+
+    private User user2;
+
+    @BeforeEach
+    public void setUp() {
+        user1 = userRepository.save(User.builder().name("user1").email("email1@ya.ru").build());
+        user2 = userRepository.save(User.builder().name("user2").email("email2@ya.ru").build());
+        // две пары запросов с одинаковым created, чтобы порядок внутри пары определял id
+        save(user2, testTime.plusHours(1));
+        save(user2, testTime.plusHours(1));
+        save(user1, testTime.plusHours(2));
+        save(user2, testTime.plusHours(3));
+        save(user2, testTime.plusHours(3));
+        save(user2, testTime.plusHours(4));
+    }
+
+    private void save(User requester, LocalDateTime created) {
+        repository.save(ItemRequest.builder()
+                .requester(requester)
+                .description("request")
+                .created(created)
+                .build());
+    }
+
+    @Test
+    public void findOthersFirstPage() {
+        List<ItemRequest> page = repository.findOthersFirstPage(user1.getId(), PageRequest.of(0, 2));
+
+        assertEquals(2, page.size());
+        assertEquals(testTime.plusHours(4), page.get(0).getCreated());
+        assertEquals(testTime.plusHours(3), page.get(1).getCreated());
+    }
+
+    @Test
+    public void walkFeedWithCursor() {
+        List<ItemRequest> feed = new ArrayList<>(repository.findOthersFirstPage(user1.getId(), PageRequest.of(0, 2)));
+        List<ItemRequest> page = feed;
+        while (page.size() == 2) {
+            ItemRequest last = page.get(page.size() - 1);
+            page = repository.findOthersAfter(user1.getId(), last.getCreated(), last.getId(), PageRequest.of(0, 2));
+            feed.addAll(page);
+        }
+
+        assertEquals(5, feed.size());
+        for (int i = 1; i < feed.size(); i++) {
+            ItemRequest previous = feed.get(i - 1);
+            ItemRequest current = feed.get(i);
+            assertTrue(previous.getCreated().isAfter(current.getCreated())
+                    || previous.getCreated().equals(current.getCreated()) && previous.getId() > current.getId());
+            assertEquals(user2.getId(), current.getRequester().getId());
+        }
+    }
+}
@@ -4,9 +4,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.UnavailableActionError;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.RequestItemDto;
 import ru.practicum.shareit.item.dto.ShortItemDto;
 import ru.practicum.shareit.request.*;
 import ru.practicum.shareit.request.dto.FullRequestDto;
@@ -19,9 +22,12 @@ import ru.practicum.shareit.user.UserRepository;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -82,8 +88,7 @@ class RequestServiceImplTest {
     void getRequestById() {
         when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
         when(requestRepository.findById(request.getId())).thenReturn(Optional.of(request));
-        when(itemRepository.findByRequest_Id(request.getId())).thenReturn(Collections.emptyList());
-        when(itemMapper.toShortItemDtoList(Collections.emptyList())).thenReturn(Collections.emptyList());
+        when(itemRepository.findRequestItems(List.of(request.getId()))).thenReturn(Collections.emptyList());
         when(requestMapper.mapFullRequestDto(request, Collections.emptyList())).thenReturn(fullRequest);
 
         FullRequestDto result = requestService.getRequestById(request.getId(), user1.getId());
@@ -95,7 +100,7 @@ class RequestServiceImplTest {
 
         verify(userRepository).findById(user1.getId());
         verify(requestRepository).findById(request.getId());
-        verify(itemRepository).findByRequest_Id(request.getId());
+        verify(itemRepository).findRequestItems(List.of(request.getId()));
         verify(requestMapper).mapFullRequestDto(request, Collections.emptyList());
     }
 
@@ -174,30 +179,54 @@ class RequestServiceImplTest {
     @Test
     void getAllRequests() {
         when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
-        when(requestRepository.findByNotUserId(user1.getId())).thenReturn(Collections.singletonList(request));
+        when(requestRepository.findOthersFirstPage(user1.getId(), PageRequest.of(0, 10)))
+                .thenReturn(Collections.singletonList(request));
         when(requestMapper.mapRequestDto(Collections.singletonList(request))).thenReturn(Collections.singletonList(RequestDto.builder()
                 .description(request.getDescription())
                 .userId(user1.getId())
                 .created(request.getCreated())
                 .build()));
 
-        var result = requestService.getAllRequests(user1.getId());
+        var result = requestService.getAllRequests(user1.getId(), 10, null, null);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(request.getDescription(), result.get(0).getDescription());
 
         verify(userRepository).findById(user1.getId());
-        verify(requestRepository).findByNotUserId(user1.getId());
+        verify(requestRepository).findOthersFirstPage(user1.getId(), PageRequest.of(0, 10));
         verify(requestMapper).mapRequestDto(Collections.singletonList(request));
     }
 
+    @Test
+    void getAllRequestsAfterCursor() {
+        when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+        when(requestRepository.findOthersAfter(user1.getId(), testTime, 5L, PageRequest.of(0, 20)))
+                .thenReturn(Collections.singletonList(request));
+        when(requestMapper.mapRequestDto(Collections.singletonList(request)))
+                .thenReturn(Collections.singletonList(RequestDto.builder().id(request.getId()).build()));
+
+        var result = requestService.getAllRequests(user1.getId(), 20, testTime, 5L);
+
+        assertEquals(1, result.size());
+        verify(requestRepository, never()).findOthersFirstPage(anyLong(), any());
+    }
+
+    @Test
+    void getAllRequestsWithIncompleteCursor() {
+        UnavailableActionError ex = assertThrows(UnavailableActionError.class,
+                () -> requestService.getAllRequests(user1.getId(), 10, testTime, null));
+
+        assertEquals("Курсор должен содержать оба параметра: afterCreated и afterId", ex.getMessage());
+        verify(requestRepository, never()).findOthersAfter(anyLong(), any(), any(), any());
+    }
+
     @Test
     void getAllRequestsUserNotFound() {
         when(userRepository.findById(user1.getId())).thenReturn(Optional.empty());
 
         NotFoundException ex = assertThrows(NotFoundException.class,
-                () -> requestService.getAllRequests(user1.getId()));
+                () -> requestService.getAllRequests(user1.getId(), 10, null, null));
 
         assertEquals("Не удалось найти пользователя с id " + user1.getId(), ex.getMessage());
     }
@@ -206,9 +235,13 @@ class RequestServiceImplTest {
     void getRequestByUser() {
         when(requestRepository.findByRequester_IdOrderByCreatedDesc(user1.getId()))
                 .thenReturn(Collections.singletonList(request));
-        when(itemRepository.findByRequest_Id(request.getId())).thenReturn(Collections.emptyList());
-        when(itemMapper.toShortItemDtoList(Collections.emptyList())).thenReturn(Collections.emptyList());
-        when(requestMapper.mapFullRequestDto(request, Collections.emptyList())).thenReturn(fullRequest);
+        RequestItemDto requestItem1 = new RequestItemDto(request.getId(), 1L, 2L, "item1", "desc1");
+        RequestItemDto requestItem2 = new RequestItemDto(request.getId(), 2L, 2L, "item2", "desc2");
+        when(itemRepository.findRequestItems(List.of(request.getId())))
+                .thenReturn(List.of(requestItem1, requestItem2));
+        when(itemMapper.toShortItemDto(requestItem1)).thenReturn(item1);
+        when(itemMapper.toShortItemDto(requestItem2)).thenReturn(item2);
+        when(requestMapper.mapFullRequestDto(request, List.of(item1, item2))).thenReturn(fullRequest);
 
         var results = requestService.getRequestByUser(user1.getId());
 
@@ -217,7 +250,7 @@ class RequestServiceImplTest {
         assertEquals(fullRequest.getId(), results.get(0).getId());
 
         verify(requestRepository).findByRequester_IdOrderByCreatedDesc(user1.getId());
-        verify(itemRepository).findByRequest_Id(request.getId());
-        verify(requestMapper).mapFullRequestDto(request, Collections.emptyList());
+        verify(itemRepository).findRequestItems(List.of(request.getId()));
+        verify(requestMapper).mapFullRequestDto(request, List.of(item1, item2));
     }
 }